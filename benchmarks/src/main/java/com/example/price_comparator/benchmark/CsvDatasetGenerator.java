@@ -0,0 +1,325 @@
+package com.example.price_comparator.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Generates a large, deterministic dataset in the CSV format read by CSVParserService:
+ * prices/&lt;store&gt;_&lt;date&gt;.csv and discounts/&lt;store&gt;_discounts_&lt;date&gt;.csv, one pair
+ * per store and price date.
+ *
+ * Every value is a hash of the seed and of its product, store and date, so the same options always
+ * produce the same files, files are written in parallel, and memory use does not grow with the number
+ * of rows. Prices follow a yearly trend per product, differ between stores and are repriced every four
+ * weeks; discounts start on a share of the products of each file and run for up to two weeks, so
+ * windows of consecutive files overlap.
+ *
+ * Usage: CsvDatasetGenerator --output dir [--stores 10] [--products 10000] [--categories 14]
+ * [--days 364] [--interval 7] [--start 2025-01-01] [--discount-density 0.1] [--assortment 0.9] [--seed 42]
+ */
+public final class CsvDatasetGenerator {
+
+    static final String PRICE_HEADER = "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency";
+    static final String DISCOUNT_HEADER = "product_id;product_name;brand;package_quantity;package_unit;product_category;from_date;to_date;percentage_of_discount";
+
+    // Salts of the hashed values, so every value is independent of the others
+    private static final int CATEGORY = 1;
+    private static final int BRAND = 2;
+    private static final int NAME = 3;
+    private static final int PACKAGE = 4;
+    private static final int BASE_PRICE = 5;
+    private static final int TREND = 6;
+    private static final int ASSORTMENT = 7;
+    private static final int STORE_FACTOR = 8;
+    private static final int REPRICING = 9;
+    private static final int DISCOUNT = 10;
+    private static final int NO_STORE = -1;
+
+    private static final String[] STORES = {"lidl", "kaufland", "profi", "mega", "carrefour", "auchan", "penny", "selgros"};
+
+    // Category name, product names, package sizes and typical price in RON of each category
+    private static final String[][][] CATEGORIES = {
+            {{"lactate"}, {"lapte", "iaurt", "brânză", "smântână", "unt"}, {"1 l", "0.4 kg", "0.3 kg", "0.2 kg"}, {"8"}},
+            {{"carne"}, {"piept pui", "pulpe pui", "carne tocată", "cârnați"}, {"1 kg", "0.5 kg"}, {"30"}},
+            {{"legume și fructe"}, {"roșii", "cartofi", "mere", "banane", "ceapă"}, {"1 kg", "0.5 kg", "250 g"}, {"6"}},
+            {{"panificație"}, {"pâine albă", "pâine integrală", "chifle"}, {"500 g", "400 g"}, {"5"}},
+            {{"băuturi"}, {"apă minerală", "suc portocale", "vin roșu", "bere"}, {"2 l", "1 l", "0.75 l", "0.5 l"}, {"12"}},
+            {{"gustări"}, {"biscuiți", "chipsuri", "ciocolată", "napolitane"}, {"100 g", "200 g", "0.2 kg"}, {"7"}},
+            {{"cafea"}, {"cafea măcinată", "cafea boabe"}, {"0.25 kg", "0.5 kg", "1 kg"}, {"35"}},
+            {{"ouă"}, {"ouă"}, {"10 buc", "6 buc", "30 buc"}, {"15"}},
+            {{"paste făinoase"}, {"spaghete", "penne", "fusilli"}, {"500 g"}, {"6"}},
+            {{"alimente de bază"}, {"zahăr", "făină", "orez", "ulei floarea soarelui"}, {"1 kg", "1 l"}, {"8"}},
+            {{"condimente"}, {"piper negru", "boia dulce", "sare"}, {"50 g", "100 g"}, {"5"}},
+            {{"pește"}, {"file somon", "ton conservă", "macrou"}, {"0.2 kg", "0.5 kg"}, {"25"}},
+            {{"produse de menaj"}, {"detergent vase", "hârtie igienică", "detergent rufe"}, {"2.5 l", "10 role", "1 l"}, {"20"}},
+            {{"îngrijire personală"}, {"șampon", "gel de duș", "pastă de dinți"}, {"400 ml", "250 ml", "100 ml"}, {"18"}},
+    };
+
+    private final Options options;
+    private final LocalDate[] dates;
+    private final String[] priceRowPrefixes;
+    private final String[] discountRowPrefixes;
+    private final long[] basePrices;
+    private final double[] yearlyTrends;
+    private final LongAdder priceRows = new LongAdder();
+    private final LongAdder discountRows = new LongAdder();
+
+    public CsvDatasetGenerator(Options options) {
+        this.options = options;
+        dates = new LocalDate[(options.days + options.interval - 1) / options.interval];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = options.start.plusDays((long) i * options.interval);
+        }
+
+        priceRowPrefixes = new String[options.products];
+        discountRowPrefixes = new String[options.products];
+        basePrices = new long[options.products];
+        yearlyTrends = new double[options.products];
+        int brands = Math.max(1, options.products / 20);
+        for (int product = 0; product < options.products; product++) {
+            int categoryIndex = (int) (unit(hash(product, NO_STORE, CATEGORY, 0)) * options.categories);
+            String[][] category = CATEGORIES[categoryIndex % CATEGORIES.length];
+            String categoryName = categoryIndex < CATEGORIES.length
+                    ? category[0][0]
+                    : category[0][0] + " " + (categoryIndex / CATEGORIES.length + 1);
+            String brand = "Brand" + (int) (unit(hash(product, NO_STORE, BRAND, 0)) * brands);
+            String name = category[1][(int) (unit(hash(product, NO_STORE, NAME, 0)) * category[1].length)] + " " + brand.toLowerCase(Locale.ROOT);
+            String[] packageSize = category[2][(int) (unit(hash(product, NO_STORE, PACKAGE, 0)) * category[2].length)].split(" ");
+            String id = String.format("P%07d", product);
+
+            priceRowPrefixes[product] = id + ";" + name + ";" + categoryName + ";" + brand + ";"
+                    + packageSize[0] + ";" + packageSize[1] + ";";
+            discountRowPrefixes[product] = id + ";" + name + ";" + brand + ";" + packageSize[0] + ";" + packageSize[1]
+                    + ";" + categoryName + ";";
+            // A third to three times the typical price of the category, log-uniform
+            double typicalPrice = Double.parseDouble(category[3][0]);
+            basePrices[product] = Math.round(100 * typicalPrice * Math.exp((2 * unit(hash(product, NO_STORE, BASE_PRICE, 0)) - 1) * Math.log(3)));
+            // -3% to +12% a year
+            yearlyTrends[product] = -0.03 + 0.15 * unit(hash(product, NO_STORE, TREND, 0));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        long start = System.nanoTime();
+        CsvDatasetGenerator generator = new CsvDatasetGenerator(options);
+        generator.generate();
+        System.out.printf("Wrote %d price rows and %d discount rows to %s in %d ms%n",
+                generator.priceRows.sum(), generator.discountRows.sum(), options.output.toAbsolutePath(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public static String storeName(int store) {
+        return store < STORES.length ? STORES[store] : "store" + (store + 1);
+    }
+
+    /**
+     * Writes every price and discount file.
+     */
+    public void generate() throws IOException {
+        Path prices = options.output.resolve("prices");
+        Path discounts = options.output.resolve("discounts");
+        Files.createDirectories(prices);
+        Files.createDirectories(discounts);
+
+        IntStream.range(0, options.stores * dates.length).parallel().forEach(file -> {
+            int store = file % options.stores;
+            LocalDate date = dates[file / options.stores];
+            try {
+                writePrices(prices.resolve(storeName(store) + "_" + date + ".csv"), store, date);
+                writeDiscounts(discounts.resolve(storeName(store) + "_discounts_" + date + ".csv"), store, date);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public long priceRows() {
+        return priceRows.sum();
+    }
+
+    public long discountRows() {
+        return discountRows.sum();
+    }
+
+    private void writePrices(Path file, int store, LocalDate date) throws IOException {
+        long day = date.toEpochDay() - options.start.toEpochDay();
+        long rows = 0;
+        StringBuilder row = new StringBuilder(128);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(PRICE_HEADER);
+            writer.newLine();
+            for (int product = 0; product < options.products; product++) {
+                if (!carries(product, store)) {
+                    continue;
+                }
+                row.setLength(0);
+                row.append(priceRowPrefixes[product]);
+                appendCents(row, priceCents(product, store, day));
+                row.append(";RON");
+                writer.append(row);
+                writer.newLine();
+                rows++;
+            }
+        }
+        priceRows.add(rows);
+    }
+
+    private void writeDiscounts(Path file, int store, LocalDate date) throws IOException {
+        long day = date.toEpochDay();
+        long rows = 0;
+        StringBuilder row = new StringBuilder(160);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(DISCOUNT_HEADER);
+            writer.newLine();
+            for (int product = 0; product < options.products; product++) {
+                long hash = hash(product, store, DISCOUNT, day);
+                if (!carries(product, store) || unit(hash) >= options.discountDensity) {
+                    continue;
+                }
+                // Starts within two days of the file date and runs for 3 to 14 days
+                LocalDate from = date.plusDays(Long.remainderUnsigned(hash >>> 8, 3));
+                LocalDate to = from.plusDays(2 + Long.remainderUnsigned(hash >>> 16, 12));
+                long percentage = 5 * (1 + Long.remainderUnsigned(hash >>> 24, 10));
+                row.setLength(0);
+                row.append(discountRowPrefixes[product]).append(from).append(';').append(to).append(';').append(percentage);
+                writer.append(row);
+                writer.newLine();
+                rows++;
+            }
+        }
+        discountRows.add(rows);
+    }
+
+    private boolean carries(int product, int store) {
+        return unit(hash(product, store, ASSORTMENT, 0)) < options.assortment;
+    }
+
+    /**
+     * Returns the price of the product in the store on the given day after the start, ending in 9 bani.
+     */
+    private long priceCents(int product, int store, long day) {
+        // Up to 10% cheaper or more expensive than the average store
+        double storeFactor = 0.9 + 0.2 * unit(hash(product, store, STORE_FACTOR, 0));
+        // Repriced every four weeks by up to 4% around the trend
+        double noise = 0.08 * (unit(hash(product, store, REPRICING, day / 28)) - 0.5);
+        double price = basePrices[product] * storeFactor * Math.pow(1 + yearlyTrends[product], day / 365.0) * (1 + noise);
+        return Math.max(9, Math.round(price / 10) * 10 - 1);
+    }
+
+    private static void appendCents(StringBuilder row, long cents) {
+        row.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            row.append('0');
+        }
+        row.append(fraction);
+    }
+
+    private long hash(long product, long store, long salt, long value) {
+        return mix(mix(mix(mix(options.seed ^ product) + store) + salt) + value);
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Maps a hash to [0, 1).
+     */
+    private static double unit(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Sizes and shape of the generated dataset.
+     */
+    public static final class Options {
+        private Path output;
+        private int stores = 10;
+        private int products = 10_000;
+        private int categories = CATEGORIES.length;
+        private int days = 364;
+        private int interval = 7;
+        private LocalDate start = LocalDate.of(2025, 1, 1);
+        private double discountDensity = 0.1;
+        private double assortment = 0.9;
+        private long seed = 42;
+
+        public Options(Path output) {
+            this.output = output;
+        }
+
+        public Options stores(int stores) {
+            this.stores = stores;
+            return this;
+        }
+
+        public Options products(int products) {
+            this.products = products;
+            return this;
+        }
+
+        public Options days(int days) {
+            this.days = days;
+            return this;
+        }
+
+        public Options seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                if (!args[i].startsWith("--")) {
+                    throw new IllegalArgumentException("Expected an option, got " + args[i]);
+                }
+                values.put(args[i].substring(2), args[i + 1]);
+            }
+            if (args.length % 2 != 0 || !values.containsKey("output")) {
+                throw new IllegalArgumentException("Usage: CsvDatasetGenerator --output dir [--stores n] [--products n] "
+                        + "[--categories n] [--days n] [--interval n] [--start yyyy-MM-dd] [--discount-density 0..1] "
+                        + "[--assortment 0..1] [--seed n]");
+            }
+
+            Options options = new Options(Path.of(values.remove("output")));
+            for (Map.Entry<String, String> option : values.entrySet()) {
+                String value = option.getValue();
+                switch (option.getKey()) {
+                    case "stores" -> options.stores = Integer.parseInt(value);
+                    case "products" -> options.products = Integer.parseInt(value);
+                    case "categories" -> options.categories = Integer.parseInt(value);
+                    case "days" -> options.days = Integer.parseInt(value);
+                    case "interval" -> options.interval = Integer.parseInt(value);
+                    case "start" -> options.start = LocalDate.parse(value);
+                    case "discount-density" -> options.discountDensity = Double.parseDouble(value);
+                    case "assortment" -> options.assortment = Double.parseDouble(value);
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option --" + option.getKey());
+                }
+            }
+            if (options.stores <= 0 || options.products <= 0 || options.categories <= 0
+                    || options.days <= 0 || options.interval <= 0) {
+                throw new IllegalArgumentException("Stores, products, categories, days and interval must be positive");
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.price_comparator.benchmark;
+
+import com.example.price_comparator.catalog.CatalogReadModel;
+import com.example.price_comparator.model.Brand;
+import com.example.price_comparator.model.Category;
+import com.example.price_comparator.model.Price;
+import com.example.price_comparator.model.Product;
+import com.example.price_comparator.model.Store;
+import com.example.price_comparator.model.enums.Currency;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded synthetic catalog for the benchmarks: stores, products and a price per product, store and
+ * price day, with discounts on a share of them. The same sizes and seed always produce the same data,
+ * as entities and as a CatalogReadModel. CSV files are written by CsvDatasetGenerator.
+ */
+public final class SyntheticData {
+
+    public static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+    private static final String[] UNITS = {"kg", "g", "l", "ml", "buc"};
+    private static final int CATEGORIES = 20;
+    private static final int BRANDS = 50;
+    // Discounts are 5% to 50%, in steps of 5%
+    private static final int DISCOUNT_STEPS = 10;
+
+    private final int productCount;
+    private final int storeCount;
+    private final int days;
+    private final long seed;
+
+    public SyntheticData(int productCount, int storeCount, int days, long seed) {
+        this.productCount = productCount;
+        this.storeCount = storeCount;
+        this.days = days;
+        this.seed = seed;
+    }
+
+    public static String productId(int product) {
+        return String.format("P%06d", product);
+    }
+
+    public static String storeName(int store) {
+        return "store" + store;
+    }
+
+    public LocalDate lastDay() {
+        return FIRST_DAY.plusDays(days - 1);
+    }
+
+    /**
+     * Returns the products, each with its full list of prices in every store.
+     */
+    public List<Product> products() {
+        List<Store> stores = new ArrayList<>();
+        for (int store = 0; store < storeCount; store++) {
+            stores.add(new Store((long) store + 1, storeName(store), null));
+        }
+        List<Product> products = new ArrayList<>();
+        forEachPrice(new PriceSink() {
+            @Override
+            public void product(int product, String unit, BigDecimal quantity) {
+                Product entity = new Product(productId(product), "product " + product,
+                        new Category((long) product % CATEGORIES, "category " + product % CATEGORIES, null),
+                        new Brand((long) product % BRANDS, "brand " + product % BRANDS, null),
+                        quantity, unit, new ArrayList<>());
+                products.add(entity);
+            }
+
+            @Override
+            public void price(int product, int store, LocalDate date, BigDecimal price, int discount, int discountDays) {
+                Product entity = products.get(product);
+                entity.getPrices().add(new Price(null, entity, stores.get(store), price, Currency.RON, date));
+            }
+        });
+        return products;
+    }
+
+    /**
+     * Returns the read model of the same data, with prices on or off heap.
+     */
+    public CatalogReadModel catalog(Path offHeapDirectory) {
+        CatalogReadModel.Builder builder = CatalogReadModel.builder().offHeapPrices(offHeapDirectory);
+        for (int store = 0; store < storeCount; store++) {
+            builder.addStore((long) store + 1, storeName(store));
+        }
+        long[] discountId = {0};
+        forEachPrice(new PriceSink() {
+            @Override
+            public void product(int product, String unit, BigDecimal quantity) {
+                builder.addProduct(productId(product), "product " + product, (long) product % CATEGORIES,
+                        "category " + product % CATEGORIES, (long) product % BRANDS, "brand " + product % BRANDS,
+                        quantity, unit);
+            }
+
+            @Override
+            public void price(int product, int store, LocalDate date, BigDecimal price, int discount, int discountDays) {
+                builder.addPrice(productId(product), (long) store + 1, date, price, Currency.RON);
+                if (discount > 0) {
+                    builder.addDiscount(++discountId[0], productId(product), (long) store + 1, date,
+                            date.plusDays(discountDays - 1), date, BigDecimal.valueOf(discount));
+                }
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Generates the data in product, store and date order. Every product gets a new price in every
+     * store once a week, drifting by up to 5%, and one price in five starts a discount.
+     */
+    private void forEachPrice(PriceSink sink) {
+        Random random = new Random(seed);
+        for (int product = 0; product < productCount; product++) {
+            String unit = UNITS[random.nextInt(UNITS.length)];
+            BigDecimal quantity = BigDecimal.valueOf(1 + random.nextInt(2_000), unit.equals("buc") ? 0 : 3);
+            sink.product(product, unit, quantity);
+            for (int store = 0; store < storeCount; store++) {
+                long cents = 100 + random.nextInt(10_000);
+                for (int day = 0; day < days; day += 7) {
+                    cents = Math.max(1, cents + cents * (random.nextInt(11) - 5) / 100);
+                    int discount = random.nextInt(5) == 0 ? 5 * (1 + random.nextInt(DISCOUNT_STEPS)) : 0;
+                    sink.price(product, store, FIRST_DAY.plusDays(day), BigDecimal.valueOf(cents, 2), discount,
+                            1 + random.nextInt(7));
+                }
+            }
+        }
+    }
+
+    private interface PriceSink {
+        void product(int product, String unit, BigDecimal quantity);
+
+        void price(int product, int store, LocalDate date, BigDecimal price, int discount, int discountDays);
+    }
+}
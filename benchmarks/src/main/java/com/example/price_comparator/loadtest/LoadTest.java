@@ -0,0 +1,306 @@
+package com.example.price_comparator.loadtest;
+
+import com.example.price_comparator.PriceComparatorApiApplication;
+import com.example.price_comparator.benchmark.CsvDatasetGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test of the REST endpoints.
+ *
+ * Unless --url points to a running server, the application is started in this JVM with the
+ * 'embedded' profile: an in-memory H2 database in PostgreSQL compatibility mode stands in for
+ * PostgreSQL and is loaded from a CSV dataset, either an existing one (--data) or one written by
+ * CsvDatasetGenerator. Product IDs and names for the requests are read from /api/products, then an
+ * OpenLoopDriver sends the request mix at the given rate. Throughput and latency percentiles per
+ * endpoint are printed and written as a JSON report, to compare versions of the application.
+ *
+ * Usage: LoadTest [--url http://host:port] [--data dir] [--products 2000] [--stores 5] [--days 91]
+ * [--rate 100] [--duration 60] [--warmup 15] [--mix basket=3,history=3,...] [--basket-size 10]
+ * [--arrivals poisson|constant] [--date yyyy-MM-dd] [--timeout 10] [--sample-products 5000]
+ * [--seed 42] [--label text] [--report load-report.json] [--virtual-threads false]
+ *
+ * --virtual-threads sets spring.threads.virtual.enabled of the started application, to compare
+ * request handling on virtual threads with the platform thread pools.
+ */
+public final class LoadTest {
+
+    private static final int PAGE_SIZE = 500;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Path workDirectory = null;
+        ConfigurableApplicationContext context = null;
+        try {
+            URI baseUri;
+            if (options.url != null) {
+                baseUri = URI.create(options.url);
+            } else {
+                workDirectory = Files.createTempDirectory("load-test");
+                context = startApplication(dataset(options, workDirectory), workDirectory, options.virtualThreads);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                baseUri = URI.create("http://localhost:" + port);
+            }
+            run(options, baseUri);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (workDirectory != null) {
+                FileSystemUtils.deleteRecursively(workDirectory);
+            }
+        }
+    }
+
+    private static Path dataset(Options options, Path workDirectory) throws IOException {
+        if (options.data != null) {
+            return options.data;
+        }
+        Path data = workDirectory.resolve("data");
+        CsvDatasetGenerator generator = new CsvDatasetGenerator(new CsvDatasetGenerator.Options(data)
+                .stores(options.stores).products(options.products).days(options.days).seed(options.seed));
+        generator.generate();
+        System.out.printf("Generated %d price rows and %d discount rows%n", generator.priceRows(), generator.discountRows());
+        return data;
+    }
+
+    private static ConfigurableApplicationContext startApplication(Path data, Path workDirectory, boolean virtualThreads) {
+        // Passed as command line arguments, which take precedence over application.properties
+        return new SpringApplicationBuilder(PriceComparatorApiApplication.class)
+                .profiles("embedded")
+                .run("--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:load_test;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                                + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "--price-comparator.data.prices-location=" + data.resolve("prices").toUri(),
+                        "--price-comparator.data.discounts-location=" + data.resolve("discounts").toUri(),
+                        "--price-comparator.alerts.journal.dir=" + workDirectory.resolve("alerts"),
+                        "--spring.threads.virtual.enabled=" + virtualThreads);
+    }
+
+    private static void run(Options options, URI baseUri) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(options.timeoutSeconds))
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+
+        List<RequestMix.Product> products = new ArrayList<>();
+        LocalDate lastPriceDate = discoverProducts(client, objectMapper, baseUri, options.sampleProducts, products);
+        LocalDate date = options.date != null ? options.date : lastPriceDate != null ? lastPriceDate : LocalDate.now();
+        RequestMix mix = new RequestMix(baseUri, products, date, options.mix, options.basketSize,
+                Duration.ofSeconds(options.timeoutSeconds));
+        System.out.printf("Sending %.0f requests/s to %s for %d s after %d s of warmup, over %d products on %s%n",
+                options.rate, baseUri, options.durationSeconds, options.warmupSeconds, products.size(), date);
+
+        Instant startedAt = Instant.now();
+        OpenLoopDriver driver = new OpenLoopDriver(client, mix, options.rate, options.poisson, options.seed);
+        Map<RequestMix.Endpoint, OpenLoopDriver.Stats> stats = driver.run(
+                TimeUnit.SECONDS.toNanos(options.warmupSeconds), TimeUnit.SECONDS.toNanos(options.durationSeconds),
+                TimeUnit.SECONDS.toNanos(options.timeoutSeconds));
+
+        Report report = report(options, baseUri, date, products.size(), startedAt, driver.inFlight(), stats);
+        print(report);
+        objectMapper.writeValue(options.report.toFile(), report);
+        System.out.println("Report written to " + options.report.toAbsolutePath());
+    }
+
+    /**
+     * Reads up to the given number of products, and returns the latest price date seen.
+     */
+    private static LocalDate discoverProducts(HttpClient client, ObjectMapper objectMapper, URI baseUri, int limit,
+                                              List<RequestMix.Product> products) throws IOException, InterruptedException {
+        LocalDate lastPriceDate = null;
+        String cursor = null;
+        do {
+            String path = "/api/products?limit=" + PAGE_SIZE
+                    + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(baseUri.resolve(path)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+            }
+            JsonNode page = objectMapper.readTree(response.body());
+            for (JsonNode product : page.path("items")) {
+                products.add(new RequestMix.Product(product.path("id").asText(), product.path("name").asText()));
+                for (JsonNode store : product.path("prices")) {
+                    for (JsonNode price : store.path("prices")) {
+                        LocalDate entryDate = LocalDate.parse(price.path("entryDate").asText());
+                        if (lastPriceDate == null || entryDate.isAfter(lastPriceDate)) {
+                            lastPriceDate = entryDate;
+                        }
+                    }
+                }
+            }
+            cursor = page.path("nextCursor").isTextual() ? page.path("nextCursor").asText() : null;
+        } while (cursor != null && products.size() < limit);
+        return lastPriceDate;
+    }
+
+    private static Report report(Options options, URI baseUri, LocalDate date, int productCount, Instant startedAt,
+                                 int unfinished, Map<RequestMix.Endpoint, OpenLoopDriver.Stats> stats) {
+        Map<String, EndpointResult> endpoints = new LinkedHashMap<>();
+        Histogram totalLatency = new Histogram(3);
+        Histogram totalServiceTime = new Histogram(3);
+        long totalErrors = 0;
+        for (Map.Entry<RequestMix.Endpoint, OpenLoopDriver.Stats> entry : stats.entrySet()) {
+            OpenLoopDriver.Stats endpointStats = entry.getValue();
+            long errors = endpointStats.errors.sum();
+            endpoints.put(entry.getKey().label(), EndpointResult.of(endpointStats.latency, endpointStats.serviceTime,
+                    errors, options.durationSeconds));
+            totalLatency.add(endpointStats.latency);
+            totalServiceTime.add(endpointStats.serviceTime);
+            totalErrors += errors;
+        }
+        return new Report(options.label, startedAt, baseUri.toString(), date, productCount, options.rate,
+                options.poisson ? "poisson" : "constant", options.warmupSeconds, options.durationSeconds,
+                RequestMix.parse(options.mix).entrySet().stream().collect(LinkedHashMap::new,
+                        (mix, weight) -> mix.put(weight.getKey().label(), weight.getValue()), Map::putAll),
+                unfinished, endpoints,
+                EndpointResult.of(totalLatency, totalServiceTime, totalErrors, options.durationSeconds));
+    }
+
+    private static void print(Report report) {
+        System.out.printf("%-18s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        report.endpoints().forEach((name, result) -> print(name, result));
+        print("total", report.total());
+        if (report.unfinished() > 0) {
+            System.out.printf("%d requests had not completed at the end of the run%n", report.unfinished());
+        }
+    }
+
+    private static void print(String name, EndpointResult result) {
+        Latency latency = result.latencyMillis();
+        System.out.printf("%-18s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, result.requests(), result.errors(),
+                result.throughput(), latency.p50(), latency.p90(), latency.p99(), latency.p999(), latency.max());
+    }
+
+    /**
+     * Machine-readable result of one run.
+     */
+    record Report(String label, Instant startedAt, String target, LocalDate date, int products, double rate,
+                  String arrivals, int warmupSeconds, int durationSeconds, Map<String, Integer> mix, int unfinished,
+                  Map<String, EndpointResult> endpoints, EndpointResult total) {
+    }
+
+    /**
+     * Completed requests per second and latencies of one endpoint. Latency runs from the scheduled
+     * send time and includes queueing in the driver; service time runs from the actual send time.
+     */
+    record EndpointResult(long requests, long errors, double throughput, Latency latencyMillis,
+                          Latency serviceTimeMillis) {
+
+        static EndpointResult of(Histogram latency, Histogram serviceTime, long errors, int durationSeconds) {
+            return new EndpointResult(latency.getTotalCount(), errors,
+                    (double) latency.getTotalCount() / durationSeconds, Latency.of(latency), Latency.of(serviceTime));
+        }
+    }
+
+    record Latency(double mean, double p50, double p90, double p99, double p999, double max) {
+
+        static Latency of(Histogram micros) {
+            return new Latency(micros.getMean() / 1000, millis(micros, 50), millis(micros, 90), millis(micros, 99),
+                    millis(micros, 99.9), micros.getMaxValue() / 1000.0);
+        }
+
+        private static double millis(Histogram micros, double percentile) {
+            return micros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    /**
+     * Settings of a run.
+     */
+    static final class Options {
+        private String url;
+        private Path data;
+        private int products = 2_000;
+        private int stores = 5;
+        private int days = 91;
+        private double rate = 100;
+        private int durationSeconds = 60;
+        private int warmupSeconds = 15;
+        private String mix = RequestMix.DEFAULT_MIX;
+        private int basketSize = 10;
+        private boolean poisson = true;
+        private LocalDate date;
+        private int timeoutSeconds = 10;
+        private int sampleProducts = 5_000;
+        private long seed = 42;
+        private String label = "";
+        private Path report = Path.of("load-report.json");
+        private boolean virtualThreads;
+
+        static Options parse(String[] args) {
+            if (args.length % 2 != 0) {
+                throw new IllegalArgumentException("Expected --option value pairs");
+            }
+            Options options = new Options();
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--url" -> options.url = value;
+                    case "--data" -> options.data = Path.of(value);
+                    case "--products" -> options.products = Integer.parseInt(value);
+                    case "--stores" -> options.stores = Integer.parseInt(value);
+                    case "--days" -> options.days = Integer.parseInt(value);
+                    case "--rate" -> options.rate = Double.parseDouble(value);
+                    case "--duration" -> options.durationSeconds = Integer.parseInt(value);
+                    case "--warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                    case "--mix" -> options.mix = value;
+                    case "--basket-size" -> options.basketSize = Integer.parseInt(value);
+                    case "--arrivals" -> options.poisson = switch (value) {
+                        case "poisson" -> true;
+                        case "constant" -> false;
+                        default -> throw new IllegalArgumentException("Arrivals must be poisson or constant");
+                    };
+                    case "--date" -> options.date = LocalDate.parse(value);
+                    case "--timeout" -> options.timeoutSeconds = Integer.parseInt(value);
+                    case "--sample-products" -> options.sampleProducts = Integer.parseInt(value);
+                    case "--seed" -> options.seed = Long.parseLong(value);
+                    case "--label" -> options.label = value;
+                    case "--report" -> options.report = Path.of(value);
+                    case "--virtual-threads" -> options.virtualThreads = Boolean.parseBoolean(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (options.rate <= 0 || options.durationSeconds <= 0 || options.warmupSeconds < 0 || options.basketSize <= 0) {
+                throw new IllegalArgumentException("Rate, duration and basket size must be positive");
+            }
+            RequestMix.parse(options.mix);
+            return options;
+        }
+    }
+}
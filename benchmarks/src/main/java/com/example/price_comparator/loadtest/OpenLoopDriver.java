@@ -0,0 +1,116 @@
+package com.example.price_comparator.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed average rate, whatever the response times.
+ *
+ * Arrivals are scheduled ahead of time and a request is sent when its time comes, even while
+ * earlier ones are still running, so a slow server builds a queue instead of slowing the load down.
+ * Latency is measured from the scheduled time, not from the time the request was actually sent, so
+ * delays of the driver itself are counted rather than hidden (coordinated omission). Service time,
+ * from send to response, is recorded separately.
+ */
+final class OpenLoopDriver {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final HttpClient client;
+    private final RequestMix mix;
+    private final double rate;
+    private final boolean poisson;
+    private final long seed;
+    private final Map<RequestMix.Endpoint, Stats> stats = new EnumMap<>(RequestMix.Endpoint.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    OpenLoopDriver(HttpClient client, RequestMix mix, double rate, boolean poisson, long seed) {
+        this.client = client;
+        this.mix = mix;
+        this.rate = rate;
+        this.poisson = poisson;
+        this.seed = seed;
+        for (RequestMix.Endpoint endpoint : mix.endpoints()) {
+            stats.put(endpoint, new Stats());
+        }
+    }
+
+    /**
+     * Runs the warmup and then the measured period, and waits up to the drain timeout for the last
+     * responses. Only requests scheduled in the measured period are recorded.
+     */
+    Map<RequestMix.Endpoint, Stats> run(long warmupNanos, long durationNanos, long drainTimeoutNanos) {
+        Random random = new Random(seed);
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+
+        long scheduled = start;
+        while (true) {
+            scheduled += poisson
+                    ? (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos)
+                    : (long) meanIntervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            RequestMix.Endpoint endpoint = mix.nextEndpoint(random);
+            send(endpoint, mix.request(endpoint, random), scheduled, scheduled >= measureFrom);
+        }
+
+        long drainDeadline = System.nanoTime() + drainTimeoutNanos;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return stats;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private void send(RequestMix.Endpoint endpoint, HttpRequest request, long scheduled, boolean measured) {
+        long sent = System.nanoTime();
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long completed = System.nanoTime();
+            if (measured) {
+                stats.get(endpoint).record(completed - scheduled, completed - sent,
+                        error == null && response.statusCode() < 400);
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+
+    /**
+     * Latency and service time histograms of one endpoint, in microseconds.
+     */
+    static final class Stats {
+        final Histogram latency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        final Histogram serviceTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        final LongAdder errors = new LongAdder();
+
+        void record(long latencyNanos, long serviceTimeNanos, boolean success) {
+            latency.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(serviceTimeNanos));
+            if (!success) {
+                errors.increment();
+            }
+        }
+    }
+}
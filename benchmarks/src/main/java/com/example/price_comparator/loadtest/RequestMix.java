@@ -0,0 +1,158 @@
+package com.example.price_comparator.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Weighted mix of the endpoints under test. Each request picks an endpoint by weight and random
+ * products from the catalog, so requests spread over the whole dataset like real traffic.
+ */
+final class RequestMix {
+
+    static final String DEFAULT_MIX = "basket=3,history=3,active-discounts=1,highest-discounts=2,recommendations=2";
+
+    private final URI baseUri;
+    private final List<Product> products;
+    private final LocalDate date;
+    private final int basketSize;
+    private final Duration timeout;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    RequestMix(URI baseUri, List<Product> products, LocalDate date, String mix, int basketSize, Duration timeout) {
+        if (products.isEmpty()) {
+            throw new IllegalArgumentException("The catalog at " + baseUri + " has no products");
+        }
+        this.baseUri = baseUri;
+        this.products = products;
+        this.date = date;
+        this.basketSize = Math.min(basketSize, products.size());
+        this.timeout = timeout;
+
+        Map<Endpoint, Integer> weights = parse(mix);
+        endpoints = weights.keySet().toArray(new Endpoint[0]);
+        cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += weights.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Parses a mix such as "basket=3,history=1" into endpoint weights.
+     */
+    static Map<Endpoint, Integer> parse(String mix) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] nameAndWeight = part.trim().split("=");
+            if (nameAndWeight.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint=weight, got " + part);
+            }
+            int weight = Integer.parseInt(nameAndWeight[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights must not be negative: " + part);
+            }
+            if (weight > 0) {
+                weights.put(Endpoint.of(nameAndWeight[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix must give a positive weight to at least one endpoint");
+        }
+        return weights;
+    }
+
+    Endpoint[] endpoints() {
+        return endpoints.clone();
+    }
+
+    Endpoint nextEndpoint(Random random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (cumulativeWeights[i] <= pick) {
+            i++;
+        }
+        return endpoints[i];
+    }
+
+    HttpRequest request(Endpoint endpoint, Random random) {
+        Product product = products.get(random.nextInt(products.size()));
+        return switch (endpoint) {
+            case BASKET -> post("/api/basket/optimize", basketJson(random));
+            case HISTORY -> get("/api/price-history/product/" + encode(product.name()));
+            case ACTIVE_DISCOUNTS -> get("/api/discounts/active?date=" + date);
+            case HIGHEST_DISCOUNTS -> get("/api/discounts/highest-discounts?date=" + date + "&limit=20");
+            case RECOMMENDATIONS -> get("/api/product-recommendations/" + encode(product.id())
+                    + "/cheaper-alternatives?date=" + date);
+        };
+    }
+
+    private String basketJson(Random random) {
+        List<String> ids = new ArrayList<>(basketSize);
+        while (ids.size() < basketSize) {
+            String id = products.get(random.nextInt(products.size())).id();
+            if (!ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids.stream().map(id -> "\"" + id + "\"").collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(timeout).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String encode(String pathSegment) {
+        return URLEncoder.encode(pathSegment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    record Product(String id, String name) {
+    }
+
+    enum Endpoint {
+        BASKET("basket"),
+        HISTORY("history"),
+        ACTIVE_DISCOUNTS("active-discounts"),
+        HIGHEST_DISCOUNTS("highest-discounts"),
+        RECOMMENDATIONS("recommendations");
+
+        private final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+
+        String label() {
+            return label;
+        }
+
+        static Endpoint of(String label) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.label.equals(label)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown endpoint " + label + ", expected one of basket, history, "
+                    + "active-discounts, highest-discounts, recommendations");
+        }
+    }
+}
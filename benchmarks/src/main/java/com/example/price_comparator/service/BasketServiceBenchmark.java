@@ -0,0 +1,81 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.benchmark.SyntheticData;
+import com.example.price_comparator.catalog.CatalogReadModel;
+import com.example.price_comparator.dto.basket.StoreBasketDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the basket optimization core on a synthetic catalog, with prices on or off heap.
+ * Each invocation optimizes the next of a fixed set of random baskets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BasketServiceBenchmark {
+
+    private static final int BASKETS = 64;
+
+    @Param({"10000"})
+    private int products;
+
+    @Param({"10"})
+    private int stores;
+
+    @Param({"365"})
+    private int days;
+
+    @Param({"10", "100"})
+    private int basketSize;
+
+    @Param({"false", "true"})
+    private boolean offHeap;
+
+    private final BasketService basketService = new BasketService(null);
+    private Path priceStoreDirectory;
+    private CatalogReadModel catalog;
+    private List<List<String>> baskets;
+    private int day;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        priceStoreDirectory = offHeap ? Files.createTempDirectory("basket-benchmark") : null;
+        SyntheticData data = new SyntheticData(products, stores, days, 42);
+        catalog = data.catalog(priceStoreDirectory);
+        day = CatalogReadModel.toDay(data.lastDay());
+
+        Random random = new Random(42);
+        baskets = new ArrayList<>();
+        for (int i = 0; i < BASKETS; i++) {
+            List<String> basket = new ArrayList<>();
+            for (int item = 0; item < basketSize; item++) {
+                basket.add(SyntheticData.productId(random.nextInt(products)));
+            }
+            baskets.add(basket);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (priceStoreDirectory != null) {
+            Files.deleteIfExists(priceStoreDirectory);
+        }
+    }
+
+    @Benchmark
+    public List<StoreBasketDTO> optimizeBasket() {
+        return basketService.optimizeBasket(catalog, baskets.get(next++ & (BASKETS - 1)), day);
+    }
+}
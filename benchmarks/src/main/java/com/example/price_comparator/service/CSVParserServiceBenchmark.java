@@ -0,0 +1,66 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.benchmark.CsvDatasetGenerator;
+import com.example.price_comparator.dto.csv.PriceCSVEntry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of parsing a folder of price CSV files generated by CsvDatasetGenerator with
+ * CSVParserService, one file per store and week.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CSVParserServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    private int products;
+
+    @Param({"3"})
+    private int stores;
+
+    @Param({"28"})
+    private int days;
+
+    private Path directory;
+    private AnnotationConfigApplicationContext context;
+    private CSVParserService csvParserService;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("csv-benchmark");
+        new CsvDatasetGenerator(new CsvDatasetGenerator.Options(directory).stores(stores).products(products).days(days))
+                .generate();
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("price-comparator.data.prices-location", directory.resolve("prices").toUri().toString())));
+        context.register(CSVParserService.class);
+        context.refresh();
+        csvParserService = context.getBean(CSVParserService.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<PriceCSVEntry> parseAllPriceCSVFiles() throws IOException {
+        return csvParserService.parseAllPriceCSVFiles();
+    }
+}
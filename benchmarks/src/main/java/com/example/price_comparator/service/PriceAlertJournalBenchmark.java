@@ -0,0 +1,87 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of rebuilding the alert registry on startup from a realistic journal: a compacted
+ * snapshot holding most alerts, followed by a log with recent creations and the removal of one
+ * alert in a hundred.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PriceAlertJournalBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"1000000", "10000000"})
+    private int alerts;
+
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        PriceAlertJournal journal = new PriceAlertJournal(directory, Long.MAX_VALUE);
+        journal.recover();
+        int inSnapshot = alerts - alerts / 10;
+        appendAlerts(journal, 0, inSnapshot);
+        journal.compact();
+        appendAlerts(journal, inSnapshot, alerts);
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < alerts; i += 100) {
+            removed.add("alert-" + i);
+        }
+        journal.appendRemoved(removed);
+        journal.close();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Collection<PriceAlertDTO> recover() {
+        PriceAlertJournal journal = new PriceAlertJournal(directory, Long.MAX_VALUE);
+        try {
+            return journal.recover();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private static void appendAlerts(PriceAlertJournal journal, int from, int to) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<PriceAlertDTO> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = from; i < to; i++) {
+            batch.add(new PriceAlertDTO("alert-" + i, "P" + (i % 5_000), (long) (i % 20),
+                    BigDecimal.valueOf(100 + i % 5_000, 2), true, createdAt));
+            if (batch.size() == BATCH_SIZE) {
+                journal.appendCreated(batch);
+                batch.clear();
+            }
+        }
+        journal.appendCreated(batch);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.benchmark.SyntheticData;
+import com.example.price_comparator.catalog.CatalogReadModel;
+import com.example.price_comparator.dto.price_history.PriceHistoryDTO;
+import com.example.price_comparator.dto.price_history.PriceHistoryFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of building the price timeline of one product in every store, over all price days of a
+ * synthetic catalog, with prices on or off heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceHistoryServiceBenchmark {
+
+    @Param({"10000"})
+    private int products;
+
+    @Param({"10"})
+    private int stores;
+
+    @Param({"365", "1095"})
+    private int days;
+
+    @Param({"false", "true"})
+    private boolean offHeap;
+
+    private final PriceHistoryService priceHistoryService = new PriceHistoryService(null, null, null, null);
+    private final PriceHistoryFilter filter = new PriceHistoryFilter();
+    private Path priceStoreDirectory;
+    private CatalogReadModel catalog;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        priceStoreDirectory = offHeap ? Files.createTempDirectory("history-benchmark") : null;
+        catalog = new SyntheticData(products, stores, days, 42).catalog(priceStoreDirectory);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (priceStoreDirectory != null) {
+            Files.deleteIfExists(priceStoreDirectory);
+        }
+    }
+
+    @Benchmark
+    public PriceHistoryDTO buildPriceHistoryForProduct() {
+        int product = next++ % products;
+        return priceHistoryService.buildPriceHistoryForProduct(catalog, product, filter);
+    }
+}
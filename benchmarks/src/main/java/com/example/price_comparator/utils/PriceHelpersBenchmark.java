@@ -0,0 +1,89 @@
+package com.example.price_comparator.utils;
+
+import com.example.price_comparator.benchmark.SyntheticData;
+import com.example.price_comparator.model.Product;
+import com.example.price_comparator.model.Store;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the PriceHelpers methods on the entity graph of a synthetic catalog. getCurrentPrice
+ * scans every price of the product, so its cost grows with the number of stores and price days.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceHelpersBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    @Param({"1000"})
+    private int products;
+
+    @Param({"5", "20"})
+    private int stores;
+
+    @Param({"365"})
+    private int days;
+
+    private final PriceHelpers priceHelpers = new PriceHelpers();
+    private List<Product> catalog;
+    private Store[] storeInputs;
+    private BigDecimal[] prices;
+    private BigDecimal[] percentages;
+    private BigDecimal[] quantities;
+    private LocalDate date;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(products, stores, days, 42);
+        catalog = data.products();
+        date = data.lastDay();
+
+        Random random = new Random(42);
+        storeInputs = new Store[INPUTS];
+        prices = new BigDecimal[INPUTS];
+        percentages = new BigDecimal[INPUTS];
+        quantities = new BigDecimal[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            Product product = catalog.get(i % catalog.size());
+            storeInputs[i] = product.getPrices().get(random.nextInt(product.getPrices().size())).getStore();
+            prices[i] = BigDecimal.valueOf(100 + random.nextInt(10_000), 2);
+            percentages[i] = BigDecimal.valueOf(5 * (1 + random.nextInt(10)));
+            quantities[i] = BigDecimal.valueOf(1 + random.nextInt(2_000), 3);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal getCurrentPrice() {
+        int i = next++ & (INPUTS - 1);
+        return priceHelpers.getCurrentPrice(catalog.get(i % catalog.size()), storeInputs[i], date);
+    }
+
+    @Benchmark
+    public BigDecimal applyDiscount() {
+        int i = next++ & (INPUTS - 1);
+        return priceHelpers.applyDiscount(prices[i], percentages[i]);
+    }
+
+    @Benchmark
+    public BigDecimal calculatePricePerUnit() {
+        int i = next++ & (INPUTS - 1);
+        return priceHelpers.calculatePricePerUnit(prices[i], quantities[i], "g", "kg");
+    }
+
+    @Benchmark
+    public BigDecimal convertUnit() {
+        int i = next++ & (INPUTS - 1);
+        return priceHelpers.convertUnit(quantities[i], "ml", "l");
+    }
+}
@@ -0,0 +1,615 @@
+package com.example.price_comparator.catalog;
+
+import com.example.price_comparator.model.enums.Currency;
+import com.example.price_comparator.utils.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compact, read-only model of the catalog for in-memory computations.
+ *
+ * Product, store, category and brand IDs are interned to dense int codes by IdDictionary, dates are
+ * epoch days and amounts are fixed-point longs (see Money). Discounts are stored as struct-of-arrays:
+ * one primitive array per column, sorted by product, then store, with an offsets array giving the
+ * rows of each product. Prices are stored in a PriceStore, as fixed-width records on heap or off heap
+ * in memory-mapped files. Looking up a price is a binary search over a few ints, with no entity, hash
+ * map or BigDecimal involved. BigDecimals are kept only for values returned as-is in responses
+ * (package quantities, discount percentages).
+ *
+ * Instances are immutable once built and safe to share between threads.
+ */
+public final class CatalogReadModel {
+
+    public static final int NOT_FOUND = IdDictionary.NOT_FOUND;
+    public static final long NO_PRICE = -1;
+
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final IdDictionary<String> productIds;
+    private final String[] productNames;
+    private final int[] productCategories;
+    private final int[] productBrands;
+    private final BigDecimal[] packageQuantities;
+    private final long[] packageMilliUnits;
+    private final String[] packageUnits;
+    private final IdDictionary<Long> categoryIds;
+    private final String[] categoryNames;
+    private final IdDictionary<Long> brandIds;
+    private final String[] brandNames;
+
+    private final IdDictionary<Long> storeIds;
+    private final String[] storeNames;
+
+    // Prices sorted by product, store and day
+    private final PriceStore prices;
+
+    // Discounts sorted by product and store, in the order they were added within each store
+    private final int[] discountOffsets;
+    private final long[] discountIds;
+    private final int[] discountProducts;
+    private final int[] discountStores;
+    private final int[] discountFromDays;
+    private final int[] discountToDays;
+    private final int[] discountEntryDays;
+    private final BigDecimal[] discountPercentages;
+    private final long[] discountPercents;
+
+    CatalogReadModel(Columns columns) {
+        productIds = columns.productIds;
+        productNames = columns.productNames;
+        productCategories = columns.productCategories;
+        productBrands = columns.productBrands;
+        packageQuantities = columns.packageQuantities;
+        packageMilliUnits = Arrays.stream(packageQuantities).mapToLong(Money::toMilliUnits).toArray();
+        packageUnits = columns.packageUnits;
+        categoryIds = columns.categoryIds;
+        categoryNames = columns.categoryNames;
+        brandIds = columns.brandIds;
+        brandNames = columns.brandNames;
+        storeIds = columns.storeIds;
+        storeNames = columns.storeNames;
+        prices = columns.prices;
+        discountOffsets = columns.discountOffsets;
+        discountIds = columns.discountIds;
+        discountProducts = columns.discountProducts;
+        discountStores = columns.discountStores;
+        discountFromDays = columns.discountFromDays;
+        discountToDays = columns.discountToDays;
+        discountEntryDays = columns.discountEntryDays;
+        discountPercentages = columns.discountPercentages;
+        discountPercents = Arrays.stream(discountPercentages).mapToLong(Money::toPercent).toArray();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static int toDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    public static LocalDate toDate(int day) {
+        return LocalDate.ofEpochDay(day);
+    }
+
+    // Products
+
+    public int productCount() {
+        return productIds.size();
+    }
+
+    /**
+     * Returns the code of a product, or NOT_FOUND.
+     */
+    public int productCode(String productId) {
+        return productIds.code(productId);
+    }
+
+    public String productId(int product) {
+        return productIds.key(product);
+    }
+
+    public String productName(int product) {
+        return productNames[product];
+    }
+
+    public int productCategory(int product) {
+        return productCategories[product];
+    }
+
+    public Long categoryId(int category) {
+        return categoryIds.key(category);
+    }
+
+    public String categoryName(int category) {
+        return categoryNames[category];
+    }
+
+    public int productBrand(int product) {
+        return productBrands[product];
+    }
+
+    public Long brandId(int brand) {
+        return brandIds.key(brand);
+    }
+
+    public String brandName(int brand) {
+        return brandNames[brand];
+    }
+
+    public BigDecimal packageQuantity(int product) {
+        return packageQuantities[product];
+    }
+
+    /**
+     * Returns the package quantity in thousandths of a unit.
+     */
+    public long packageMilliUnits(int product) {
+        return packageMilliUnits[product];
+    }
+
+    public String packageUnit(int product) {
+        return packageUnits[product];
+    }
+
+    // Stores
+
+    public int storeCount() {
+        return storeIds.size();
+    }
+
+    /**
+     * Returns the code of a store, or NOT_FOUND.
+     */
+    public int storeCode(Long storeId) {
+        return storeIds.code(storeId);
+    }
+
+    public Long storeId(int store) {
+        return storeIds.key(store);
+    }
+
+    public String storeName(int store) {
+        return storeNames[store];
+    }
+
+    // Prices
+
+    public int priceCount() {
+        return prices.rowCount();
+    }
+
+    /**
+     * Returns the first price row of the product. Its rows are sorted by store, then day.
+     */
+    public int priceStart(int product) {
+        return prices.seriesFirstRow(prices.seriesStart(product));
+    }
+
+    /**
+     * Returns the price row after the last one of the product.
+     */
+    public int priceEnd(int product) {
+        return prices.seriesFirstRow(prices.seriesEnd(product));
+    }
+
+    /**
+     * Returns the first price series of the product. A series holds the price rows of the product in
+     * one store, and the series of a product are sorted by store.
+     */
+    public int priceSeriesStart(int product) {
+        return prices.seriesStart(product);
+    }
+
+    /**
+     * Returns the price series after the last one of the product.
+     */
+    public int priceSeriesEnd(int product) {
+        return prices.seriesEnd(product);
+    }
+
+    public int priceSeriesStore(int series) {
+        return prices.seriesStore(series);
+    }
+
+    /**
+     * Returns the first price row of the series. Its rows are sorted by day.
+     */
+    public int priceSeriesFirstRow(int series) {
+        return prices.seriesFirstRow(series);
+    }
+
+    /**
+     * Returns the price row after the last one of the series.
+     */
+    public int priceSeriesEndRow(int series) {
+        return prices.seriesEndRow(series);
+    }
+
+    public int priceStore(int row) {
+        return prices.store(row);
+    }
+
+    public int priceDay(int row) {
+        return prices.day(row);
+    }
+
+    public long priceCents(int row) {
+        return prices.cents(row);
+    }
+
+    public Currency priceCurrency(int row) {
+        return CURRENCIES[prices.currency(row)];
+    }
+
+    /**
+     * Returns the row of the latest price of the product in the store on or before the given day,
+     * or NOT_FOUND if there is none.
+     */
+    public int currentPriceRow(int product, int store, int day) {
+        int series = prices.findSeries(product, store);
+        return series != NOT_FOUND ? prices.latestRow(series, day) : NOT_FOUND;
+    }
+
+    /**
+     * Returns the row of the price of the product in the store entered on exactly the given day,
+     * or NOT_FOUND if there is none.
+     */
+    public int priceRowOn(int product, int store, int day) {
+        int row = currentPriceRow(product, store, day);
+        return row != NOT_FOUND && prices.day(row) == day ? row : NOT_FOUND;
+    }
+
+    /**
+     * Returns the latest price in cents of the product in the store on or before the given day,
+     * or NO_PRICE if there is none.
+     */
+    public long currentPriceCents(int product, int store, int day) {
+        int row = currentPriceRow(product, store, day);
+        return row != NOT_FOUND ? prices.cents(row) : NO_PRICE;
+    }
+
+    // Discounts
+
+    /**
+     * Returns the first discount row of the product. Its rows are sorted by store.
+     */
+    public int discountStart(int product) {
+        return discountOffsets[product];
+    }
+
+    /**
+     * Returns the discount row after the last one of the product.
+     */
+    public int discountEnd(int product) {
+        return discountOffsets[product + 1];
+    }
+
+    public int discountCount() {
+        return discountIds.length;
+    }
+
+    public long discountId(int row) {
+        return discountIds[row];
+    }
+
+    public int discountProduct(int row) {
+        return discountProducts[row];
+    }
+
+    public int discountStore(int row) {
+        return discountStores[row];
+    }
+
+    public int discountFromDay(int row) {
+        return discountFromDays[row];
+    }
+
+    public int discountToDay(int row) {
+        return discountToDays[row];
+    }
+
+    public int discountEntryDay(int row) {
+        return discountEntryDays[row];
+    }
+
+    /**
+     * Returns the discount percentage as ingested, for display.
+     */
+    public BigDecimal discountPercentage(int row) {
+        return discountPercentages[row];
+    }
+
+    /**
+     * Returns the discount percentage rounded HALF_UP to whole percent, as used for price calculations.
+     */
+    public long discountPercent(int row) {
+        return discountPercents[row];
+    }
+
+    /**
+     * Returns the first discount of the product in the store active on the given day, or NOT_FOUND.
+     */
+    public int activeDiscountRow(int product, int store, int day) {
+        for (int row = discountStart(product), end = discountEnd(product); row < end; row++) {
+            if (discountStores[row] == store && discountFromDays[row] <= day && day <= discountToDays[row]) {
+                return row;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Returns the arrays backing this model. They must not be modified.
+     */
+    Columns columns() {
+        Columns columns = new Columns();
+        columns.productIds = productIds;
+        columns.productNames = productNames;
+        columns.productCategories = productCategories;
+        columns.productBrands = productBrands;
+        columns.packageQuantities = packageQuantities;
+        columns.packageUnits = packageUnits;
+        columns.categoryIds = categoryIds;
+        columns.categoryNames = categoryNames;
+        columns.brandIds = brandIds;
+        columns.brandNames = brandNames;
+        columns.storeIds = storeIds;
+        columns.storeNames = storeNames;
+        columns.prices = prices;
+        columns.discountOffsets = discountOffsets;
+        columns.discountIds = discountIds;
+        columns.discountProducts = discountProducts;
+        columns.discountStores = discountStores;
+        columns.discountFromDays = discountFromDays;
+        columns.discountToDays = discountToDays;
+        columns.discountEntryDays = discountEntryDays;
+        columns.discountPercentages = discountPercentages;
+        return columns;
+    }
+
+    private static void accumulate(int[] offsets) {
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+    }
+
+    private record PriceRow(int product, int store, int day, long cents, Currency currency) {
+    }
+
+    private record DiscountRow(long id, int product, int store, int fromDay, int toDay, int entryDay, BigDecimal percentage) {
+    }
+
+    /**
+     * The stored columns of a read model, as built by the Builder or read by CatalogSnapshotFile.
+     * Values derived from other columns are not included.
+     */
+    static final class Columns {
+        IdDictionary<String> productIds;
+        String[] productNames;
+        int[] productCategories;
+        int[] productBrands;
+        BigDecimal[] packageQuantities;
+        String[] packageUnits;
+        IdDictionary<Long> categoryIds;
+        String[] categoryNames;
+        IdDictionary<Long> brandIds;
+        String[] brandNames;
+        IdDictionary<Long> storeIds;
+        String[] storeNames;
+        PriceStore prices;
+        int[] discountOffsets;
+        long[] discountIds;
+        int[] discountProducts;
+        int[] discountStores;
+        int[] discountFromDays;
+        int[] discountToDays;
+        int[] discountEntryDays;
+        BigDecimal[] discountPercentages;
+    }
+
+    /**
+     * Collects products, stores, prices and discounts. Products and stores must be added before the
+     * prices and discounts that reference them.
+     */
+    public static final class Builder {
+
+        private final IdDictionary<String> productIds = new IdDictionary<>();
+        private final List<String> productNames = new ArrayList<>();
+        private final List<Integer> productCategories = new ArrayList<>();
+        private final List<Integer> productBrands = new ArrayList<>();
+        private final List<BigDecimal> packageQuantities = new ArrayList<>();
+        private final List<String> packageUnits = new ArrayList<>();
+        private final IdDictionary<Long> categoryIds = new IdDictionary<>();
+        private final List<String> categoryNames = new ArrayList<>();
+        private final IdDictionary<Long> brandIds = new IdDictionary<>();
+        private final List<String> brandNames = new ArrayList<>();
+        private final IdDictionary<Long> storeIds = new IdDictionary<>();
+        private final List<String> storeNames = new ArrayList<>();
+        private final List<PriceRow> prices = new ArrayList<>();
+        private final List<DiscountRow> discounts = new ArrayList<>();
+        private Path priceStoreDirectory;
+        private PriceStore.Writer sortedPrices;
+
+        private Builder() {
+        }
+
+        /**
+         * Keeps the prices off heap, in a memory-mapped file created in the given directory.
+         */
+        public Builder offHeapPrices(Path directory) {
+            priceStoreDirectory = directory;
+            return this;
+        }
+
+        public Builder addProduct(String id, String name, Long categoryId, String categoryName, Long brandId,
+                                  String brandName, BigDecimal packageQuantity, String packageUnit) {
+            if (sortedPrices != null) {
+                throw new IllegalStateException("Products must be added before sorted prices");
+            }
+            if (productIds.code(id) != NOT_FOUND) {
+                throw new IllegalArgumentException("Duplicate product: " + id);
+            }
+            productIds.add(id);
+            productNames.add(name);
+            productCategories.add(intern(categoryIds, categoryNames, categoryId, categoryName));
+            productBrands.add(intern(brandIds, brandNames, brandId, brandName));
+            packageQuantities.add(packageQuantity);
+            packageUnits.add(packageUnit);
+            return this;
+        }
+
+        public Builder addStore(Long id, String name) {
+            if (storeIds.code(id) != NOT_FOUND) {
+                throw new IllegalArgumentException("Duplicate store: " + id);
+            }
+            storeIds.add(id);
+            storeNames.add(name);
+            return this;
+        }
+
+        /**
+         * Writes the prices added from now on straight into the price store instead of collecting and
+         * sorting them, so a large catalog is never held on heap twice. The prices must then be added
+         * sorted by product and store code and by date; codes follow the order products and stores
+         * were added in.
+         *
+         * @param seriesCount the number of distinct (product, store) pairs of the prices
+         * @param rowCount    the number of prices
+         */
+        public Builder sortedPrices(int seriesCount, int rowCount) {
+            if (sortedPrices != null || !prices.isEmpty()) {
+                throw new IllegalStateException("Prices were already added");
+            }
+            try {
+                sortedPrices = PriceStore.writer(productIds.size(), seriesCount, rowCount, priceStoreDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create the price store in " + priceStoreDirectory, e);
+            }
+            return this;
+        }
+
+        public Builder addPrice(String productId, Long storeId, LocalDate entryDate, BigDecimal price, Currency currency) {
+            if (sortedPrices != null) {
+                sortedPrices.add(product(productId), store(storeId), toDay(entryDate), Money.toCents(price),
+                        currency.ordinal());
+            } else {
+                prices.add(new PriceRow(product(productId), store(storeId), toDay(entryDate), Money.toCents(price), currency));
+            }
+            return this;
+        }
+
+        public Builder addDiscount(long id, String productId, Long storeId, LocalDate fromDate, LocalDate toDate,
+                                   LocalDate entryDate, BigDecimal percentage) {
+            discounts.add(new DiscountRow(id, product(productId), store(storeId), toDay(fromDate), toDay(toDate),
+                    toDay(entryDate), percentage));
+            return this;
+        }
+
+        public CatalogReadModel build() {
+            return new CatalogReadModel(columns());
+        }
+
+        private Columns columns() {
+            Columns columns = new Columns();
+            columns.productIds = productIds;
+            int productCount = productIds.size();
+            columns.productNames = productNames.toArray(String[]::new);
+            columns.productCategories = productCategories.stream().mapToInt(Integer::intValue).toArray();
+            columns.productBrands = productBrands.stream().mapToInt(Integer::intValue).toArray();
+            columns.packageQuantities = packageQuantities.toArray(BigDecimal[]::new);
+            columns.packageUnits = packageUnits.toArray(String[]::new);
+            columns.categoryIds = categoryIds;
+            columns.categoryNames = categoryNames.toArray(String[]::new);
+            columns.brandIds = brandIds;
+            columns.brandNames = brandNames.toArray(String[]::new);
+            columns.storeIds = storeIds;
+            columns.storeNames = storeNames.toArray(String[]::new);
+
+            if (sortedPrices != null) {
+                columns.prices = sortedPrices.finish();
+            } else {
+                columns.prices = sortPrices(productCount);
+            }
+
+            // List.sort is stable, so discounts of the same product and store keep their insertion order
+            discounts.sort(Comparator.comparingInt(DiscountRow::product).thenComparingInt(DiscountRow::store));
+            columns.discountOffsets = new int[productCount + 1];
+            columns.discountIds = new long[discounts.size()];
+            columns.discountProducts = new int[discounts.size()];
+            columns.discountStores = new int[discounts.size()];
+            columns.discountFromDays = new int[discounts.size()];
+            columns.discountToDays = new int[discounts.size()];
+            columns.discountEntryDays = new int[discounts.size()];
+            columns.discountPercentages = new BigDecimal[discounts.size()];
+            for (int i = 0; i < discounts.size(); i++) {
+                DiscountRow row = discounts.get(i);
+                columns.discountOffsets[row.product() + 1]++;
+                columns.discountIds[i] = row.id();
+                columns.discountProducts[i] = row.product();
+                columns.discountStores[i] = row.store();
+                columns.discountFromDays[i] = row.fromDay();
+                columns.discountToDays[i] = row.toDay();
+                columns.discountEntryDays[i] = row.entryDay();
+                columns.discountPercentages[i] = row.percentage();
+            }
+            accumulate(columns.discountOffsets);
+            return columns;
+        }
+
+        private PriceStore sortPrices(int productCount) {
+            prices.sort(Comparator.comparingInt(PriceRow::product)
+                    .thenComparingInt(PriceRow::store)
+                    .thenComparingInt(PriceRow::day));
+            int seriesCount = 0;
+            for (int i = 0; i < prices.size(); i++) {
+                if (i == 0 || prices.get(i).product() != prices.get(i - 1).product()
+                        || prices.get(i).store() != prices.get(i - 1).store()) {
+                    seriesCount++;
+                }
+            }
+            try {
+                PriceStore.Writer writer = PriceStore.writer(productCount, seriesCount, prices.size(), priceStoreDirectory);
+                for (PriceRow row : prices) {
+                    writer.add(row.product(), row.store(), row.day(), row.cents(), row.currency().ordinal());
+                }
+                return writer.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create the price store in " + priceStoreDirectory, e);
+            }
+        }
+
+        private static int intern(IdDictionary<Long> ids, List<String> names, Long id, String name) {
+            int code = ids.code(id);
+            if (code == NOT_FOUND) {
+                code = ids.add(id);
+                names.add(name);
+            }
+            return code;
+        }
+
+        private int product(String productId) {
+            int code = productIds.code(productId);
+            if (code == NOT_FOUND) {
+                throw new IllegalArgumentException("Unknown product: " + productId);
+            }
+            return code;
+        }
+
+        private int store(Long storeId) {
+            int code = storeIds.code(storeId);
+            if (code == NOT_FOUND) {
+                throw new IllegalArgumentException("Unknown store: " + storeId);
+            }
+            return code;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.price_comparator.catalog;
+
+import java.time.Instant;
+
+/**
+ * A published version of the catalog read model.
+ *
+ * Versions increase by one with every published snapshot, and continue from the snapshot file
+ * after a restart (see CatalogSnapshotFile). A request served from a snapshot sees the catalog
+ * exactly as it was when the snapshot was built, so responses carrying the same version are
+ * consistent with each other.
+ *
+ * @param version   the version of the data, starting at 1
+ * @param builtAt   when the snapshot was built
+ * @param catalog   the read model
+ * @param watermark the state of the database the snapshot was built from
+ */
+public record CatalogSnapshot(long version, Instant builtAt, CatalogReadModel catalog, CatalogWatermark watermark) {
+}
@@ -0,0 +1,474 @@
+package com.example.price_comparator.catalog;
+
+import com.example.price_comparator.model.enums.Currency;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * Compact, versioned binary file holding a catalog snapshot, so a restarted application can serve
+ * reads without rebuilding the catalog from the database.
+ *
+ * The file is a fixed header followed by the columns of the read model, each written as a count and
+ * a run of big-endian primitives, and the price rows one after the other. Reading streams the file
+ * through a direct buffer, copying the columns with bulk gets and the price rows straight into a
+ * PriceStore, which is bound by disk and memory bandwidth instead of parsing, and works for files of
+ * any size. The header holds the snapshot version, so versions keep increasing across restarts, the
+ * watermark of the database it was built from, so a stale file can be detected without reading the
+ * body, and a CRC32 of the body, so a truncated or corrupt file is rejected instead of served.
+ *
+ * Files are written to a temporary file and moved into place, so readers never see a partial file.
+ */
+public final class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x50434154;
+    private static final int FORMAT_VERSION = 3;
+    private static final int HEADER_SIZE = 88;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int NULL_STRING = -1;
+
+    private CatalogSnapshotFile() {
+    }
+
+    /**
+     * Writes the snapshot to the given file, replacing it atomically if it exists.
+     */
+    public static void write(CatalogSnapshot snapshot, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = directory.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BodyWriter body = new BodyWriter(channel);
+            writeBody(snapshot.catalog().columns(), body);
+            body.flush();
+
+            CatalogWatermark watermark = snapshot.watermark();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(snapshot.version())
+                    .putLong(snapshot.builtAt().getEpochSecond())
+                    .putInt(snapshot.builtAt().getNano())
+                    .putLong(watermark.maxPriceId())
+                    .putLong(watermark.priceCount())
+                    .putLong(watermark.maxDiscountId())
+                    .putLong(watermark.discountCount())
+                    .putLong(watermark.productCount())
+                    .putLong(watermark.storeCount())
+                    .putLong(body.length)
+                    .putInt((int) body.crc.getValue())
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a snapshot written by write(), keeping its prices on heap.
+     *
+     * @throws IllegalStateException if the file is not a snapshot file of this format version, or is corrupt
+     */
+    public static CatalogSnapshot read(Path file) throws IOException {
+        return read(file, null);
+    }
+
+    /**
+     * Reads a snapshot written by write(), keeping its prices off heap in the given directory
+     * (see CatalogReadModel.Builder.offHeapPrices) unless it is null.
+     *
+     * @throws IllegalStateException if the file is not a snapshot file of this format version, or is corrupt
+     */
+    public static CatalogSnapshot read(Path file, Path priceStoreDirectory) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IllegalStateException("Unrecognized catalog snapshot file " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            while (buffer.hasRemaining()) {
+                channel.read(buffer, buffer.position());
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalStateException("Unrecognized catalog snapshot file " + file);
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported format version " + formatVersion
+                        + " of catalog snapshot file " + file);
+            }
+            long version = buffer.getLong();
+            Instant builtAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            CatalogWatermark watermark = new CatalogWatermark(buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                    buffer.getLong(), buffer.getLong(), buffer.getLong());
+            long length = buffer.getLong();
+            int checksum = buffer.getInt();
+            if (length != size - HEADER_SIZE) {
+                throw new IllegalStateException("Catalog snapshot file " + file + " is truncated");
+            }
+            // Checked before parsing, so a corrupt count can not make the reader allocate or write garbage
+            if (checksum(channel, size) != checksum) {
+                throw new IllegalStateException("Catalog snapshot file " + file + " is corrupt");
+            }
+            return new CatalogSnapshot(version, builtAt,
+                    new CatalogReadModel(readBody(new BodyReader(channel), priceStoreDirectory)), watermark);
+        }
+    }
+
+    private static void writeBody(CatalogReadModel.Columns columns, BodyWriter out) throws IOException {
+        Currency[] currencies = Currency.values();
+        out.putInt(currencies.length);
+        for (Currency currency : currencies) {
+            out.putString(currency.name());
+        }
+        writeDictionary(columns.storeIds, columns.storeNames, out);
+        writeDictionary(columns.categoryIds, columns.categoryNames, out);
+        writeDictionary(columns.brandIds, columns.brandNames, out);
+
+        int productCount = columns.productIds.size();
+        out.putInt(productCount);
+        for (int product = 0; product < productCount; product++) {
+            out.putString(columns.productIds.key(product));
+        }
+        out.putStrings(columns.productNames);
+        out.putInts(columns.productCategories);
+        out.putInts(columns.productBrands);
+        out.putDecimals(columns.packageQuantities);
+        out.putStrings(columns.packageUnits);
+
+        PriceStore prices = columns.prices;
+        out.putInt(prices.rowCount());
+        out.putInt(prices.seriesCount());
+        // First row of every product, followed by the row count
+        for (int product = 0; product <= productCount; product++) {
+            out.putInt(prices.seriesFirstRow(prices.seriesStart(product)));
+        }
+        // Rows rather than columns, so they are read back in one pass
+        for (int row = 0; row < prices.rowCount(); row++) {
+            out.putInt(prices.store(row));
+            out.putInt(prices.day(row));
+            out.putLong(prices.cents(row));
+            out.putByte((byte) prices.currency(row));
+        }
+
+        out.putInt(columns.discountIds.length);
+        out.putInts(columns.discountOffsets);
+        out.putLongs(columns.discountIds);
+        out.putInts(columns.discountProducts);
+        out.putInts(columns.discountStores);
+        out.putInts(columns.discountFromDays);
+        out.putInts(columns.discountToDays);
+        out.putInts(columns.discountEntryDays);
+        out.putDecimals(columns.discountPercentages);
+    }
+
+    private static void writeDictionary(IdDictionary<Long> ids, String[] names, BodyWriter out) throws IOException {
+        out.putInt(ids.size());
+        for (int code = 0; code < ids.size(); code++) {
+            out.putLong(ids.key(code));
+        }
+        out.putStrings(names);
+    }
+
+    private static CatalogReadModel.Columns readBody(BodyReader in, Path priceStoreDirectory) throws IOException {
+        // Currency codes are enum ordinals of the writing application, mapped by name
+        byte[] currencyCodes = new byte[in.getInt()];
+        for (int i = 0; i < currencyCodes.length; i++) {
+            String name = in.getString();
+            try {
+                currencyCodes[i] = (byte) Currency.valueOf(name).ordinal();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Unknown currency in catalog snapshot file: " + name, e);
+            }
+        }
+
+        CatalogReadModel.Columns columns = new CatalogReadModel.Columns();
+        columns.storeIds = new IdDictionary<>();
+        columns.storeNames = readDictionary(columns.storeIds, in);
+        columns.categoryIds = new IdDictionary<>();
+        columns.categoryNames = readDictionary(columns.categoryIds, in);
+        columns.brandIds = new IdDictionary<>();
+        columns.brandNames = readDictionary(columns.brandIds, in);
+
+        int productCount = in.getInt();
+        columns.productIds = new IdDictionary<>();
+        for (int product = 0; product < productCount; product++) {
+            columns.productIds.add(in.getString());
+        }
+        columns.productNames = in.getStrings(productCount);
+        columns.productCategories = in.getInts(productCount);
+        columns.productBrands = in.getInts(productCount);
+        columns.packageQuantities = in.getDecimals(productCount);
+        columns.packageUnits = in.getStrings(productCount);
+
+        // Price rows are copied straight from the file into the price store
+        int priceCount = in.getInt();
+        int seriesCount = in.getInt();
+        int[] priceOffsets = in.getInts(productCount + 1);
+        PriceStore.Writer prices = PriceStore.writer(productCount, seriesCount, priceCount, priceStoreDirectory);
+        for (int product = 0; product < productCount; product++) {
+            for (int row = priceOffsets[product]; row < priceOffsets[product + 1]; row++) {
+                prices.add(product, in.getInt(), in.getInt(), in.getLong(), currencyCodes[in.get()]);
+            }
+        }
+        columns.prices = prices.finish();
+
+        int discountCount = in.getInt();
+        columns.discountOffsets = in.getInts(productCount + 1);
+        columns.discountIds = in.getLongs(discountCount);
+        columns.discountProducts = in.getInts(discountCount);
+        columns.discountStores = in.getInts(discountCount);
+        columns.discountFromDays = in.getInts(discountCount);
+        columns.discountToDays = in.getInts(discountCount);
+        columns.discountEntryDays = in.getInts(discountCount);
+        columns.discountPercentages = in.getDecimals(discountCount);
+        return columns;
+    }
+
+    private static String[] readDictionary(IdDictionary<Long> ids, BodyReader in) throws IOException {
+        int count = in.getInt();
+        for (int code = 0; code < count; code++) {
+            ids.add(in.getLong());
+        }
+        return in.getStrings(count);
+    }
+
+    private static int checksum(FileChannel channel, long size) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        for (long position = HEADER_SIZE; position < size; ) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+            buffer.flip();
+            crc.update(buffer);
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Writes the body through a buffer, keeping its length and CRC32.
+     */
+    private static final class BodyWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+        private long length;
+
+        BodyWriter(FileChannel channel) throws IOException {
+            this.channel = channel;
+            channel.position(HEADER_SIZE);
+        }
+
+        void putInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putInts(int[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                ensureRemaining(Integer.BYTES);
+                int count = Math.min(buffer.remaining() / Integer.BYTES, values.length - offset);
+                buffer.asIntBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+            }
+        }
+
+        void putLongs(long[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                ensureRemaining(Long.BYTES);
+                int count = Math.min(buffer.remaining() / Long.BYTES, values.length - offset);
+                buffer.asLongBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                offset += count;
+            }
+        }
+
+        void putByte(byte value) throws IOException {
+            ensureRemaining(1);
+            buffer.put(value);
+        }
+
+        void putBytes(byte[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                ensureRemaining(1);
+                int count = Math.min(buffer.remaining(), values.length - offset);
+                buffer.put(values, offset, count);
+                offset += count;
+            }
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(NULL_STRING);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            putBytes(bytes);
+        }
+
+        void putStrings(String[] values) throws IOException {
+            for (String value : values) {
+                putString(value);
+            }
+        }
+
+        void putDecimals(BigDecimal[] values) throws IOException {
+            for (BigDecimal value : values) {
+                byte[] unscaled = value.unscaledValue().toByteArray();
+                putInt(value.scale());
+                ensureRemaining(1);
+                buffer.put((byte) unscaled.length);
+                putBytes(unscaled);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            length += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Reads the body through a buffer, refilled from the file at a long position.
+     */
+    private static final class BodyReader {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long position = HEADER_SIZE;
+
+        BodyReader(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        int getInt() throws IOException {
+            ensureAvailable(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensureAvailable(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        byte get() throws IOException {
+            ensureAvailable(1);
+            return buffer.get();
+        }
+
+        int[] getInts(int count) throws IOException {
+            int[] values = new int[count];
+            for (int offset = 0; offset < count; ) {
+                ensureAvailable(Integer.BYTES);
+                int n = Math.min(buffer.remaining() / Integer.BYTES, count - offset);
+                buffer.asIntBuffer().get(values, offset, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                offset += n;
+            }
+            return values;
+        }
+
+        long[] getLongs(int count) throws IOException {
+            long[] values = new long[count];
+            for (int offset = 0; offset < count; ) {
+                ensureAvailable(Long.BYTES);
+                int n = Math.min(buffer.remaining() / Long.BYTES, count - offset);
+                buffer.asLongBuffer().get(values, offset, n);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                offset += n;
+            }
+            return values;
+        }
+
+        void get(byte[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                ensureAvailable(1);
+                int n = Math.min(buffer.remaining(), values.length - offset);
+                buffer.get(values, offset, n);
+                offset += n;
+            }
+        }
+
+        String getString() throws IOException {
+            int length = getInt();
+            if (length == NULL_STRING) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String[] getStrings(int count) throws IOException {
+            String[] values = new String[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = getString();
+            }
+            return values;
+        }
+
+        BigDecimal[] getDecimals(int count) throws IOException {
+            BigDecimal[] values = new BigDecimal[count];
+            for (int i = 0; i < count; i++) {
+                int scale = getInt();
+                byte[] unscaled = new byte[get() & 0xFF];
+                get(unscaled);
+                values[i] = new BigDecimal(new BigInteger(unscaled), scale);
+            }
+            return values;
+        }
+
+        private void ensureAvailable(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IllegalStateException("Catalog snapshot file is truncated");
+                }
+                position += read;
+            }
+            buffer.flip();
+        }
+    }
+}
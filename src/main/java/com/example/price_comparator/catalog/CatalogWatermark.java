@@ -0,0 +1,20 @@
+package com.example.price_comparator.catalog;
+
+/**
+ * Cheap fingerprint of the database a catalog snapshot was built from: the highest price and discount
+ * IDs and the row counts of the catalog tables, read in the same transaction as the snapshot.
+ *
+ * A snapshot file whose watermark differs from the database's missed ingests (or deletions) made
+ * while the node was down or by another node, and is rebuilt instead of served. Rows updated in place
+ * keep the watermark unchanged, which the ingest never does.
+ *
+ * @param maxPriceId    the highest price ID, or 0 without prices
+ * @param priceCount    the number of prices
+ * @param maxDiscountId the highest discount ID, or 0 without discounts
+ * @param discountCount the number of discounts
+ * @param productCount  the number of products
+ * @param storeCount    the number of stores
+ */
+public record CatalogWatermark(long maxPriceId, long priceCount, long maxDiscountId, long discountCount,
+                               long productCount, long storeCount) {
+}
@@ -0,0 +1,49 @@
+package com.example.price_comparator.catalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps identifiers to dense int codes 0..size-1 and back.
+ *
+ * Codes are assigned in the order keys are first added, so they can index plain arrays
+ * in place of hash maps keyed by IDs or entities.
+ */
+public final class IdDictionary<K> {
+
+    public static final int NOT_FOUND = -1;
+
+    private final List<K> keys = new ArrayList<>();
+    private final Map<K, Integer> codes = new HashMap<>();
+
+    /**
+     * Returns the code of the key, assigning the next free code if the key is new.
+     */
+    int add(K key) {
+        Integer code = codes.get(key);
+        if (code != null) {
+            return code;
+        }
+        keys.add(key);
+        codes.put(key, keys.size() - 1);
+        return keys.size() - 1;
+    }
+
+    /**
+     * Returns the code of the key, or NOT_FOUND if the key is unknown.
+     */
+    public int code(K key) {
+        Integer code = codes.get(key);
+        return code != null ? code : NOT_FOUND;
+    }
+
+    public K key(int code) {
+        return keys.get(code);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+}
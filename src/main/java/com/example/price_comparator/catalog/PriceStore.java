@@ -0,0 +1,324 @@
+package com.example.price_comparator.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Price rows of a catalog read model in fixed-width binary records, either on heap or off heap in
+ * memory-mapped files.
+ *
+ * Every record holds the product code, store code, epoch day, price in cents and currency of one
+ * price, and records are sorted by product, store and day. The rows of one product in one store form
+ * a series; two offset tables give the series of each product and the store and first row of each
+ * series, so both a point lookup and the scan of a store's history start with a binary search over
+ * a few ints.
+ *
+ * Off heap, the records and offset tables live in a file that is mapped into memory and deleted
+ * right away, so the operating system pages them in and out like any cached file while the Java heap
+ * holds only the buffer objects: a catalog with hundreds of millions of prices adds nothing for the
+ * garbage collector to trace or copy. The space is released once the store is no longer referenced
+ * and its buffers are collected; unmapping them any earlier would crash a thread still reading them.
+ *
+ * Records are split into segments, since a single buffer can not address more than 2 GB.
+ */
+public final class PriceStore {
+
+    private static final int RECORD_SIZE = 24;
+    private static final int SERIES_SIZE = 8;
+    private static final int DEFAULT_SEGMENT_SHIFT = 24;
+
+    // Record layout
+    private static final int PRODUCT = 0;
+    private static final int STORE = 4;
+    private static final int DAY = 8;
+    private static final int CURRENCY = 12;
+    private static final int CENTS = 16;
+
+    private final int productCount;
+    private final int seriesCount;
+    private final int rowCount;
+    private final int segmentShift;
+    private final int segmentMask;
+
+    // First series of each product, followed by the series count
+    private final ByteBuffer productSeries;
+    // Store and first row of each series, followed by a sentinel holding the row count
+    private final ByteBuffer[] series;
+    private final ByteBuffer[] records;
+
+    private PriceStore(int productCount, int seriesCount, int rowCount, int segmentShift,
+                       ByteBuffer productSeries, ByteBuffer[] series, ByteBuffer[] records) {
+        this.productCount = productCount;
+        this.seriesCount = seriesCount;
+        this.rowCount = rowCount;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1 << segmentShift) - 1;
+        this.productSeries = productSeries;
+        this.series = series;
+        this.records = records;
+    }
+
+    /**
+     * Returns a writer for a store of the given size, kept on heap when the directory is null and in
+     * a memory-mapped file in the directory otherwise.
+     */
+    static Writer writer(int productCount, int seriesCount, int rowCount, Path directory) throws IOException {
+        return new Writer(productCount, seriesCount, rowCount, directory, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    static Writer writer(int productCount, int seriesCount, int rowCount, Path directory, int segmentShift) throws IOException {
+        return new Writer(productCount, seriesCount, rowCount, directory, segmentShift);
+    }
+
+    public int productCount() {
+        return productCount;
+    }
+
+    public int seriesCount() {
+        return seriesCount;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the first series of the product. Its series are sorted by store.
+     */
+    public int seriesStart(int product) {
+        return productSeries.getInt(product * Integer.BYTES);
+    }
+
+    /**
+     * Returns the series after the last one of the product.
+     */
+    public int seriesEnd(int product) {
+        return productSeries.getInt((product + 1) * Integer.BYTES);
+    }
+
+    public int seriesStore(int seriesIndex) {
+        return seriesBuffer(seriesIndex).getInt(seriesOffset(seriesIndex));
+    }
+
+    /**
+     * Returns the first row of the series. Its rows are sorted by day.
+     */
+    public int seriesFirstRow(int seriesIndex) {
+        return seriesBuffer(seriesIndex).getInt(seriesOffset(seriesIndex) + Integer.BYTES);
+    }
+
+    /**
+     * Returns the row after the last one of the series.
+     */
+    public int seriesEndRow(int seriesIndex) {
+        return seriesFirstRow(seriesIndex + 1);
+    }
+
+    /**
+     * Returns the series of the product in the store, or NOT_FOUND.
+     */
+    public int findSeries(int product, int store) {
+        int low = seriesStart(product);
+        int high = seriesEnd(product) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midStore = seriesStore(mid);
+            if (midStore < store) {
+                low = mid + 1;
+            } else if (midStore > store) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return IdDictionary.NOT_FOUND;
+    }
+
+    /**
+     * Returns the last row of the series on or before the given day, or NOT_FOUND.
+     */
+    public int latestRow(int seriesIndex, int day) {
+        int low = seriesFirstRow(seriesIndex);
+        int high = seriesEndRow(seriesIndex) - 1;
+        int found = IdDictionary.NOT_FOUND;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (day(mid) <= day) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    public int product(int row) {
+        return recordBuffer(row).getInt(recordOffset(row) + PRODUCT);
+    }
+
+    public int store(int row) {
+        return recordBuffer(row).getInt(recordOffset(row) + STORE);
+    }
+
+    public int day(int row) {
+        return recordBuffer(row).getInt(recordOffset(row) + DAY);
+    }
+
+    public long cents(int row) {
+        return recordBuffer(row).getLong(recordOffset(row) + CENTS);
+    }
+
+    /**
+     * Returns the ordinal of the price currency.
+     */
+    public int currency(int row) {
+        return recordBuffer(row).get(recordOffset(row) + CURRENCY);
+    }
+
+    private ByteBuffer recordBuffer(int row) {
+        return records[row >>> segmentShift];
+    }
+
+    private int recordOffset(int row) {
+        return (row & segmentMask) * RECORD_SIZE;
+    }
+
+    private ByteBuffer seriesBuffer(int seriesIndex) {
+        return series[seriesIndex >>> segmentShift];
+    }
+
+    private int seriesOffset(int seriesIndex) {
+        return (seriesIndex & segmentMask) * SERIES_SIZE;
+    }
+
+    /**
+     * Fills a store with rows added in product, store and day order.
+     */
+    static final class Writer {
+
+        private final PriceStore result;
+        private int rows;
+        private int nextSeries;
+        private int lastProduct = -1;
+        private int lastStore = -1;
+
+        private Writer(int productCount, int seriesCount, int rowCount, Path directory, int segmentShift) throws IOException {
+            int segmentSize = 1 << segmentShift;
+            long productSeriesSize = (long) (productCount + 1) * Integer.BYTES;
+            long[] seriesSizes = segmentSizes(seriesCount + 1, segmentSize, SERIES_SIZE);
+            long[] recordSizes = segmentSizes(rowCount, segmentSize, RECORD_SIZE);
+            if (productSeriesSize > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many products for a price store: " + productCount);
+            }
+
+            ByteBuffer productSeries;
+            ByteBuffer[] series = new ByteBuffer[seriesSizes.length];
+            ByteBuffer[] records = new ByteBuffer[recordSizes.length];
+            if (directory == null) {
+                productSeries = ByteBuffer.allocate((int) productSeriesSize);
+                for (int i = 0; i < series.length; i++) {
+                    series[i] = ByteBuffer.allocate((int) seriesSizes[i]);
+                }
+                for (int i = 0; i < records.length; i++) {
+                    records[i] = ByteBuffer.allocate((int) recordSizes[i]);
+                }
+            } else {
+                Files.createDirectories(directory);
+                Path file = Files.createTempFile(directory, "prices-", ".bin");
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    long position = 0;
+                    productSeries = channel.map(FileChannel.MapMode.READ_WRITE, position, productSeriesSize);
+                    position += productSeriesSize;
+                    for (int i = 0; i < series.length; i++) {
+                        series[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, seriesSizes[i]);
+                        position += seriesSizes[i];
+                    }
+                    for (int i = 0; i < records.length; i++) {
+                        records[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, recordSizes[i]);
+                        position += recordSizes[i];
+                    }
+                } finally {
+                    // Mappings stay valid after the file is deleted, and its space is released with them
+                    try {
+                        Files.delete(file);
+                    } catch (IOException e) {
+                        file.toFile().deleteOnExit();
+                    }
+                }
+            }
+            // The buffers are never read by another process, so they skip the byte swaps of big-endian order
+            productSeries.order(ByteOrder.nativeOrder());
+            for (ByteBuffer buffer : series) {
+                buffer.order(ByteOrder.nativeOrder());
+            }
+            for (ByteBuffer buffer : records) {
+                buffer.order(ByteOrder.nativeOrder());
+            }
+            result = new PriceStore(productCount, seriesCount, rowCount, segmentShift, productSeries, series, records);
+        }
+
+        /**
+         * Adds the next row. Rows must be added sorted by product, store and day.
+         */
+        void add(int product, int store, int day, long cents, int currency) {
+            if (product < lastProduct || (product == lastProduct && store < lastStore) || product >= result.productCount) {
+                throw new IllegalArgumentException("Price rows must be added in product and store order");
+            }
+            boolean newSeries = product != lastProduct || store != lastStore;
+            if (rows == result.rowCount || (newSeries && nextSeries == result.seriesCount)) {
+                throw new IllegalStateException("More than " + result.rowCount + " price rows in "
+                        + result.seriesCount + " series");
+            }
+            if (newSeries) {
+                for (int p = lastProduct + 1; p <= product; p++) {
+                    result.productSeries.putInt(p * Integer.BYTES, nextSeries);
+                }
+                putSeries(nextSeries++, store, rows);
+                lastProduct = product;
+                lastStore = store;
+            }
+            ByteBuffer buffer = result.recordBuffer(rows);
+            int offset = result.recordOffset(rows);
+            buffer.putInt(offset + PRODUCT, product);
+            buffer.putInt(offset + STORE, store);
+            buffer.putInt(offset + DAY, day);
+            buffer.put(offset + CURRENCY, (byte) currency);
+            buffer.putLong(offset + CENTS, cents);
+            rows++;
+        }
+
+        PriceStore finish() {
+            if (rows != result.rowCount || nextSeries != result.seriesCount) {
+                throw new IllegalStateException("Expected " + result.rowCount + " price rows in " + result.seriesCount
+                        + " series, got " + rows + " in " + nextSeries);
+            }
+            for (int p = lastProduct + 1; p <= result.productCount; p++) {
+                result.productSeries.putInt(p * Integer.BYTES, nextSeries);
+            }
+            putSeries(nextSeries, IdDictionary.NOT_FOUND, rows);
+            return result;
+        }
+
+        private void putSeries(int seriesIndex, int storeCode, int firstRow) {
+            ByteBuffer buffer = result.seriesBuffer(seriesIndex);
+            int offset = result.seriesOffset(seriesIndex);
+            buffer.putInt(offset, storeCode);
+            buffer.putInt(offset + Integer.BYTES, firstRow);
+        }
+
+        private static long[] segmentSizes(int count, int segmentSize, int entrySize) {
+            int segments = Math.max(1, (count + segmentSize - 1) / segmentSize);
+            long[] sizes = new long[segments];
+            for (int i = 0; i < segments; i++) {
+                sizes[i] = (long) Math.min(segmentSize, count - i * segmentSize) * entrySize;
+            }
+            return sizes;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.price_comparator.config;
+
+import com.example.price_comparator.catalog.CatalogSnapshot;
+import com.example.price_comparator.service.CatalogSnapshotService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Pins the current catalog snapshot for the duration of a request and reports its version in the
+ * X-Catalog-Version response header, so every part of a response is read from the same data.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogVersionInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String VERSION_HEADER = "X-Catalog-Version";
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // The result of an asynchronous request was read from the snapshot of its first dispatch
+            return true;
+        }
+        CatalogSnapshot snapshot = catalogSnapshotService.pin();
+        response.setHeader(VERSION_HEADER, String.valueOf(snapshot.version()));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streaming responses continue on other threads, which read the latest snapshot unless they pin
+        // the request's (see RequestBulkheads)
+        catalogSnapshotService.unpin();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        catalogSnapshotService.unpin();
+    }
+}
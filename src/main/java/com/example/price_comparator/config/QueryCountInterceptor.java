@@ -0,0 +1,101 @@
+package com.example.price_comparator.config;
+
+import com.example.price_comparator.monitoring.QueryRecording;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the SQL statements of every request. The statement count and database time are published
+ * per endpoint, as the price_comparator.request.statements summary and the
+ * price_comparator.request.db timer. Requests running more statements than the threshold, or
+ * running the same statement again and again (a likely N+1 query), are logged as warnings and
+ * counted in price_comparator.request.query.warnings.
+ *
+ * Asynchronous requests are published once their asynchronous dispatch completes, including the
+ * statements of the work RequestBulkheads runs for them on other threads.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCountInterceptor.class);
+
+    private static final String RECORDING_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".recording";
+    private static final int MAX_LOGGED_SQL_LENGTH = 300;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${price-comparator.sql.statement-warn-threshold:20}")
+    private int statementWarnThreshold;
+
+    @Value("${price-comparator.sql.repeat-warn-threshold:5}")
+    private int repeatWarnThreshold;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Asynchronous dispatches continue the recording of the request
+        if (request.getAttribute(RECORDING_ATTRIBUTE) == null) {
+            request.setAttribute(RECORDING_ATTRIBUTE, QueryRecording.start());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The request continues on other threads, which record into it only if they attach it
+        QueryRecording recording = (QueryRecording) request.getAttribute(RECORDING_ATTRIBUTE);
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryRecording recording = (QueryRecording) request.getAttribute(RECORDING_ATTRIBUTE);
+        if (recording == null) {
+            return;
+        }
+        request.removeAttribute(RECORDING_ATTRIBUTE);
+        recording.close();
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        meterRegistry.summary("price_comparator.request.statements", "uri", uri).record(recording.statementCount());
+        Timer.builder("price_comparator.request.db")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(recording.executionNanos(), TimeUnit.NANOSECONDS);
+
+        if (recording.statementCount() > statementWarnThreshold) {
+            meterRegistry.counter("price_comparator.request.query.warnings", "uri", uri, "type", "threshold").increment();
+            logger.warn("{} {} ran {} SQL statements in {} ms, more than the threshold of {}", request.getMethod(),
+                    request.getRequestURI(), recording.statementCount(),
+                    TimeUnit.NANOSECONDS.toMillis(recording.executionNanos()), statementWarnThreshold);
+        }
+        Map<String, Integer> repeated = recording.repeatedStatements(repeatWarnThreshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("price_comparator.request.query.warnings", "uri", uri, "type", "repeated").increment();
+            repeated.forEach((sql, count) -> logger.warn("Possible N+1 query: {} {} ran the same statement {} times: {}",
+                    request.getMethod(), request.getRequestURI(), count, abbreviate(sql)));
+        }
+    }
+
+    private static String abbreviate(String sql) {
+        String singleLine = sql.replaceAll("\\s+", " ").trim();
+        return singleLine.length() <= MAX_LOGGED_SQL_LENGTH
+                ? singleLine
+                : singleLine.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+}
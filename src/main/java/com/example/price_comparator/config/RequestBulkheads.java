@@ -0,0 +1,104 @@
+package com.example.price_comparator.config;
+
+import com.example.price_comparator.catalog.CatalogSnapshot;
+import com.example.price_comparator.exception.BulkheadFullException;
+import com.example.price_comparator.monitoring.QueryRecording;
+import com.example.price_comparator.service.CatalogSnapshotService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs the work of expensive endpoints off the request thread, on the application task executor,
+ * with a bounded number of concurrent requests per endpoint. Slow requests of one endpoint then can
+ * not hold every request thread and database connection while cheap endpoints wait. A request
+ * arriving while its endpoint is at the limit is rejected with 503 Service Unavailable rather than
+ * queued.
+ *
+ * The limit of a bulkhead is set by price-comparator.bulkhead.&lt;name&gt;.max-concurrent. The work
+ * reads the catalog snapshot pinned by the request, and its SQL statements count towards the
+ * request. Requests in progress and rejected are published per bulkhead, as the
+ * price_comparator.bulkhead.active gauge and the price_comparator.bulkhead.rejected counter.
+ *
+ * With spring.threads.virtual.enabled the executor starts a virtual thread per task, so the
+ * bulkheads are the only bound on concurrent work.
+ */
+@Component
+public class RequestBulkheads {
+
+    private final AsyncTaskExecutor taskExecutor;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+
+    @Value("${price-comparator.bulkhead.default-max-concurrent:8}")
+    private int defaultMaxConcurrent;
+
+    public RequestBulkheads(
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor taskExecutor,
+            CatalogSnapshotService catalogSnapshotService,
+            MeterRegistry meterRegistry,
+            Environment environment) {
+        this.taskExecutor = taskExecutor;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+    }
+
+    /**
+     * Runs the work of a request in the given bulkhead.
+     *
+     * @param bulkhead the name of the bulkhead, usually one per endpoint
+     * @param work the work, run on another thread
+     * @return the result of the work
+     * @throws BulkheadFullException if the bulkhead is at its limit
+     */
+    public <T> CompletableFuture<T> submit(String bulkhead, Supplier<T> work) {
+        Semaphore permits = bulkheads.computeIfAbsent(bulkhead, this::create);
+        if (!permits.tryAcquire()) {
+            meterRegistry.counter("price_comparator.bulkhead.rejected", "bulkhead", bulkhead).increment();
+            throw new BulkheadFullException(bulkhead);
+        }
+
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        QueryRecording recording = QueryRecording.current();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                catalogSnapshotService.pin(snapshot);
+                try (QueryRecording.Scope ignored = recording != null ? recording.attach() : null) {
+                    return work.get();
+                } finally {
+                    catalogSnapshotService.unpin();
+                    permits.release();
+                }
+            }, taskExecutor);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Semaphore create(String bulkhead) {
+        int maxConcurrent = environment.getProperty(
+                "price-comparator.bulkhead." + bulkhead + ".max-concurrent", Integer.class, defaultMaxConcurrent);
+        Semaphore permits = new Semaphore(maxConcurrent);
+        Gauge.builder("price_comparator.bulkhead.active", permits, p -> maxConcurrent - p.availablePermits())
+                .tag("bulkhead", bulkhead)
+                .register(meterRegistry);
+        return permits;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.price_comparator.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables Spring's scheduled task execution for background jobs such as the daily discount rollover.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,23 @@
+package com.example.price_comparator.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers the web interceptors of the API.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CatalogVersionInterceptor catalogVersionInterceptor;
+    private final QueryCountInterceptor queryCountInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogVersionInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(queryCountInterceptor).addPathPatterns("/api/**");
+    }
+}
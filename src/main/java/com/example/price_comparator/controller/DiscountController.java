@@ -1,17 +1,25 @@
 package com.example.price_comparator.controller;
 
+import com.example.price_comparator.dto.CursorPageDTO;
 import com.example.price_comparator.dto.DiscountDTO;
+import com.example.price_comparator.service.DiscountFeedService;
 import com.example.price_comparator.service.DiscountService;
+import com.example.price_comparator.utils.CursorPaging;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
@@ -28,35 +36,58 @@ import java.util.List;
 public class DiscountController {
 
     private final DiscountService discountService;
+    private final DiscountFeedService discountFeedService;
 
     @Operation(
             summary = "Get all discounts",
-            description = "Retrieve a list of all discounts",
+            description = "Retrieve a page of all discounts ordered by ID. "
+                    + "Pass the returned nextCursor as cursor to fetch the following page",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Successfully retrieved list"),
+                    @ApiResponse(responseCode = "400", description = "Invalid paging parameters"),
                     @ApiResponse(responseCode = "500", description = "Internal server error")
             }
     )
     @GetMapping
-    public ResponseEntity<List<DiscountDTO>> getAllDiscounts() {
-        List<DiscountDTO> discounts = discountService.getAllDiscounts();
-        return ResponseEntity.ok(discounts);
+    public ResponseEntity<CursorPageDTO<DiscountDTO>> getAllDiscounts(
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Maximum number of discounts per page")
+            @RequestParam(defaultValue = "" + CursorPaging.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            return ResponseEntity.ok(discountService.getDiscounts(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @Operation(
             summary = "Get discounts by store",
-            description = "Retrieve all discounts for a specific store by store ID",
+            description = "Retrieve a page of discounts for a specific store by store ID",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Successfully retrieved discounts"),
+                    @ApiResponse(responseCode = "400", description = "Invalid paging parameters"),
                     @ApiResponse(responseCode = "404", description = "Store not found"),
                     @ApiResponse(responseCode = "500", description = "Internal server error")
             }
     )
     @GetMapping("/store/{storeId}")
-    public ResponseEntity<List<DiscountDTO>> getDiscountsByStore(
+    public ResponseEntity<CursorPageDTO<DiscountDTO>> getDiscountsByStore(
             @Parameter(description = "Store ID to filter discounts")
-            @PathVariable Long storeId) {
-        List<DiscountDTO> discounts = discountService.getDiscountsByStore(storeId);
+            @PathVariable Long storeId,
+
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Maximum number of discounts per page")
+            @RequestParam(defaultValue = "" + CursorPaging.DEFAULT_PAGE_SIZE) int limit) {
+        CursorPageDTO<DiscountDTO> discounts;
+        try {
+            discounts = discountService.getDiscountsByStore(storeId, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         if (discounts == null) {
             return ResponseEntity.notFound().build();
         }
@@ -66,37 +97,86 @@ public class DiscountController {
     @GetMapping("/date/{entryDate}")
     @Operation(
             summary = "Get discounts by entry date",
-            description = "Retrieve all discounts for a specific entry date (format: yyyy-MM-dd)",
+            description = "Retrieve a page of discounts for a specific entry date (format: yyyy-MM-dd)",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Successfully retrieved discounts"),
-                    @ApiResponse(responseCode = "400", description = "Invalid date format"),
+                    @ApiResponse(responseCode = "400", description = "Invalid date format or paging parameters"),
                     @ApiResponse(responseCode = "500", description = "Internal server error")
             }
     )
-    public ResponseEntity<List<DiscountDTO>> getDiscountsByEntryDate(
+    public ResponseEntity<CursorPageDTO<DiscountDTO>> getDiscountsByEntryDate(
             @Parameter(description = "Entry date to filter discounts (yyyy-MM-dd)")
-            @PathVariable String entryDate) {
+            @PathVariable String entryDate,
+
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Maximum number of discounts per page")
+            @RequestParam(defaultValue = "" + CursorPaging.DEFAULT_PAGE_SIZE) int limit) {
         LocalDate date;
         try {
             date = LocalDate.parse(entryDate);
         } catch (DateTimeParseException e) {
             return ResponseEntity.badRequest().build();
         }
-        List<DiscountDTO> discounts = discountService.getDiscountsByEntryDate(date);
+        try {
+            return ResponseEntity.ok(discountService.getDiscountsByEntryDate(date, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/active")
+    @Operation(
+            summary = "Get active discounts",
+            description = "Returns all discounts active on the given date (defaults to current date)",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully retrieved active discounts"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    public ResponseEntity<List<DiscountDTO>> getActiveDiscounts(
+            @Parameter(description = "Date to evaluate discounts on (yyyy-MM-dd)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate evaluationDate = date != null ? date : LocalDate.now();
+        List<DiscountDTO> discounts = discountService.getActiveDiscounts(evaluationDate);
         return ResponseEntity.ok(discounts);
     }
 
     @GetMapping("/highest-discounts")
     @Operation(
             summary = "Get products with highest current discounts",
-            description = "Returns products with the highest active discount percentages across all stores",
+            description = "Returns products with the highest active discount percentages, optionally per store or category",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Successfully retrieved highest discounts in descending order"),
+                    @ApiResponse(responseCode = "400", description = "Invalid paging parameters"),
                     @ApiResponse(responseCode = "500", description = "Internal server error")
             })
-    public ResponseEntity<List<DiscountDTO>> getProductsWithHighestDiscounts() {
-        List<DiscountDTO> results = discountService.getProductsWithHighestCurrentDiscount();
-        return ResponseEntity.ok(results);
+    public ResponseEntity<List<DiscountDTO>> getProductsWithHighestDiscounts(
+            @Parameter(description = "Date to evaluate discounts on (yyyy-MM-dd, defaults to current date)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+
+            @Parameter(description = "Optional store ID to filter by")
+            @RequestParam(required = false) Long storeId,
+
+            @Parameter(description = "Optional category ID to filter by")
+            @RequestParam(required = false) Long categoryId,
+
+            @Parameter(description = "Maximum number of results")
+            @RequestParam(defaultValue = "20") int limit,
+
+            @Parameter(description = "Number of results to skip")
+            @RequestParam(defaultValue = "0") int offset) {
+        LocalDate evaluationDate = date != null ? date : LocalDate.now();
+        try {
+            List<DiscountDTO> results = discountService.getProductsWithHighestCurrentDiscount(
+                    evaluationDate, storeId, categoryId, limit, offset);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/recent-active-discounts")
@@ -112,4 +192,23 @@ public class DiscountController {
         List<DiscountDTO> recentDiscounts = discountService.getNewDiscounts();
         return ResponseEntity.ok(recentDiscounts);
     }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream discount changes",
+            description = "Server-Sent Events feed of discount-added, discount-started and discount-expired events. "
+                    + "Reconnecting clients resume after the Last-Event-ID header (or the cursor parameter). "
+                    + "Event IDs are issued per node, so clients behind a load balancer must reconnect to the same node",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Event stream opened")
+            }
+    )
+    public SseEmitter streamDiscountEvents(
+            @Parameter(description = "ID of the last event received, sent automatically by EventSource on reconnect")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+
+            @Parameter(description = "Alternative to Last-Event-ID for clients that cannot set headers")
+            @RequestParam(required = false) Long cursor) {
+        return discountFeedService.subscribe(lastEventId != null ? lastEventId : cursor);
+    }
 }
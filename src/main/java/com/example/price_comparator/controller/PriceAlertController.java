@@ -1,16 +1,27 @@
 package com.example.price_comparator.controller;
 
 import com.example.price_comparator.dto.alert.PriceAlertDTO;
+import com.example.price_comparator.dto.alert.PriceAlertRequestDTO;
+import com.example.price_comparator.dto.alert.PriceAlertResultDTO;
 import com.example.price_comparator.service.PriceAlertService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -24,7 +35,10 @@ import java.util.List;
 @Tag(name = "Price Alerts", description = "Endpoints for managing price alerts")
 public class PriceAlertController {
 
+    private static final int BULK_CHUNK_SIZE = 1000;
+
     private final PriceAlertService priceAlertService;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "Create a new price alert",
@@ -43,6 +57,57 @@ public class PriceAlertController {
         return ResponseEntity.status(HttpStatus.CREATED).body(alert);
     }
 
+    @Operation(
+            summary = "Create price alerts in bulk",
+            description = "Registers a stream of alerts sent as newline-delimited JSON objects or as a JSON array " +
+                    "of {productId, storeId, targetPrice}. Alerts are validated and registered in chunks while the " +
+                    "body is read, and one result per alert is streamed back as newline-delimited JSON. " +
+                    "A malformed entry ends the stream with an error result at its position.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Per-alert results streamed")
+            }
+    )
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void createAlerts(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        try (MappingIterator<PriceAlertRequestDTO> requests = objectMapper.readerFor(PriceAlertRequestDTO.class).readValues(body);
+             SequenceWriter results = objectMapper.writer().withRootValueSeparator("\n").writeValues(response.getOutputStream())) {
+            List<PriceAlertRequestDTO> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+            long index = 0;
+            while (true) {
+                PriceAlertRequestDTO request;
+                try {
+                    if (!requests.hasNextValue()) {
+                        break;
+                    }
+                    request = requests.nextValue();
+                } catch (JsonProcessingException e) {
+                    writeResults(results, priceAlertService.createAlerts(chunk, index));
+                    results.write(new PriceAlertResultDTO(index + chunk.size(), false, null,
+                            "Malformed alert: " + e.getOriginalMessage()));
+                    return;
+                }
+
+                chunk.add(request);
+                if (chunk.size() == BULK_CHUNK_SIZE) {
+                    writeResults(results, priceAlertService.createAlerts(chunk, index));
+                    index += chunk.size();
+                    chunk.clear();
+                }
+            }
+            writeResults(results, priceAlertService.createAlerts(chunk, index));
+        }
+    }
+
+    private static void writeResults(SequenceWriter writer, List<PriceAlertResultDTO> results) throws IOException {
+        writer.writeAll(results);
+        // Lets the client consume the results of each chunk while the rest of the body is processed
+        writer.flush();
+    }
+
     @Operation(
             summary = "Get all active price alerts",
             description = "Retrieves all currently active price alerts.",
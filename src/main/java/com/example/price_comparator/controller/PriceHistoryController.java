@@ -1,5 +1,7 @@
 package com.example.price_comparator.controller;
 
+import com.example.price_comparator.config.RequestBulkheads;
+import com.example.price_comparator.dto.price_history.PriceHistoryComparisonDTO;
 import com.example.price_comparator.dto.price_history.PriceHistoryDTO;
 import com.example.price_comparator.dto.price_history.PriceHistoryFilter;
 import com.example.price_comparator.service.PriceHistoryService;
@@ -14,9 +16,13 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for managing price histogram for a product.
+ *
+ * Price histories are the slowest reads of the API, so they are served asynchronously, each
+ * endpoint in its own bulkhead (see RequestBulkheads).
  */
 @RestController
 @RequestMapping("/api/price-history")
@@ -24,7 +30,12 @@ import java.util.List;
 @Tag(name = "Price History", description = "Endpoints for accessing product price history data")
 public class PriceHistoryController {
 
+    private static final int MAX_COMPARED_PRODUCTS = 100;
+    private static final String HISTORY_BULKHEAD = "price-history";
+    private static final String COMPARE_BULKHEAD = "price-history-compare";
+
     private final PriceHistoryService priceHistoryService;
+    private final RequestBulkheads requestBulkheads;
 
     @Operation(
             summary = "Get price history for a product",
@@ -33,11 +44,12 @@ public class PriceHistoryController {
                     @ApiResponse(responseCode = "200", description = "Successfully retrieved price history"),
                     @ApiResponse(responseCode = "400", description = "Invalid parameters"),
                     @ApiResponse(responseCode = "404", description = "Product not found"),
-                    @ApiResponse(responseCode = "500", description = "Internal server error")
+                    @ApiResponse(responseCode = "500", description = "Internal server error"),
+                    @ApiResponse(responseCode = "503", description = "Too many concurrent price history requests")
             }
     )
     @GetMapping("/product/{productName}")
-    public ResponseEntity<List<PriceHistoryDTO>> getPriceHistory(
+    public CompletableFuture<ResponseEntity<List<PriceHistoryDTO>>> getPriceHistory(
             @Parameter(description = "Name of the product to get history for", required = true)
             @PathVariable String productName,
 
@@ -59,28 +71,74 @@ public class PriceHistoryController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
         if (productName == null || productName.isBlank()) {
-            return ResponseEntity.badRequest().build(); // 400 Bad Request
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build()); // 400 Bad Request
         }
 
-        try{
-            PriceHistoryFilter filter = new PriceHistoryFilter();
-            filter.setProductName(productName);
-            filter.setStoreName(storeName);
-            filter.setCategoryName(categoryName);
-            filter.setBrandName(brandName);
-            filter.setStartDate(startDate);
-            filter.setEndDate(endDate);
-
-            List<PriceHistoryDTO> history = priceHistoryService.getPriceHistory(filter);
-            if (history == null || history.isEmpty()) {
-                return ResponseEntity.notFound().build(); // 404 Not Found
+        PriceHistoryFilter filter = new PriceHistoryFilter();
+        filter.setProductName(productName);
+        filter.setStoreName(storeName);
+        filter.setCategoryName(categoryName);
+        filter.setBrandName(brandName);
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+
+        return requestBulkheads.submit(HISTORY_BULKHEAD, () -> {
+            try {
+                List<PriceHistoryDTO> history = priceHistoryService.getPriceHistory(filter);
+                if (history == null || history.isEmpty()) {
+                    return ResponseEntity.notFound().build(); // 404 Not Found
+                }
+
+                return ResponseEntity.ok(history);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(null); // 400 Bad Request
+            } catch (Exception e) {
+                return ResponseEntity.internalServerError().build(); // 500 Internal Server Error
             }
+        });
+    }
 
-            return ResponseEntity.ok(history);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(null); // 400 Bad Request
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build(); // 500 Internal Server Error
+    @Operation(
+            summary = "Compare price histories of several products",
+            description = "Retrieves aligned price timelines across stores for a set of products within the same date range",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully retrieved price histories"),
+                    @ApiResponse(responseCode = "400", description = "Invalid parameters"),
+                    @ApiResponse(responseCode = "404", description = "No prices found for the given products"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error"),
+                    @ApiResponse(responseCode = "503", description = "Too many concurrent comparison requests")
+            }
+    )
+    @GetMapping("/compare")
+    public CompletableFuture<ResponseEntity<PriceHistoryComparisonDTO>> comparePriceHistories(
+            @Parameter(description = "IDs of the products to compare (comma-separated)", required = true)
+            @RequestParam List<String> productIds,
+
+            @Parameter(description = "Start date (inclusive) of the timeline (format: yyyy-MM-dd)", required = true)
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+
+            @Parameter(description = "End date (inclusive) of the timeline (format: yyyy-MM-dd)", required = true)
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        if (productIds.size() > MAX_COMPARED_PRODUCTS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build()); // 400 Bad Request
         }
+
+        return requestBulkheads.submit(COMPARE_BULKHEAD, () -> {
+            try {
+                PriceHistoryComparisonDTO comparison = priceHistoryService.comparePriceHistories(productIds, startDate, endDate);
+                if (comparison == null) {
+                    return ResponseEntity.notFound().build(); // 404 Not Found
+                }
+
+                return ResponseEntity.ok(comparison);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(null); // 400 Bad Request
+            } catch (Exception e) {
+                return ResponseEntity.internalServerError().build(); // 500 Internal Server Error
+            }
+        });
     }
 }
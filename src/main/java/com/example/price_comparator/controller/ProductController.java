@@ -1,7 +1,9 @@
 package com.example.price_comparator.controller;
 
+import com.example.price_comparator.dto.CursorPageDTO;
 import com.example.price_comparator.dto.ProductDTO;
 import com.example.price_comparator.service.ProductService;
+import com.example.price_comparator.utils.CursorPaging;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,11 +14,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
-
 /**
  * REST controller for managing product-related operations.
  * Provides endpoints for retrieving products data.
@@ -31,17 +32,26 @@ public class ProductController {
 
     @Operation(
             summary = "Get all products",
-            description = "Retrieve a list of all available products",
+            description = "Retrieve a page of available products ordered by ID. "
+                    + "Pass the returned nextCursor as cursor to fetch the following page",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Successfully retrieved list"),
+                    @ApiResponse(responseCode = "400", description = "Invalid paging parameters"),
                     @ApiResponse(responseCode = "500", description = "Internal server error")
             }
     )
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
+    public ResponseEntity<CursorPageDTO<ProductDTO>> getAllProducts(
+            @Parameter(description = "Cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Maximum number of products per page")
+            @RequestParam(defaultValue = "" + CursorPaging.DEFAULT_PAGE_SIZE) int limit) {
         try {
-            List<ProductDTO> products = productService.getAllProducts();
+            CursorPageDTO<ProductDTO> products = productService.getProducts(cursor, limit);
             return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
         } catch (Exception ex) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve products", ex);
         }
@@ -0,0 +1,24 @@
+package com.example.price_comparator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountFeedEventDTO {
+    private long eventId;
+    private String type;
+    private Long discountId;
+    private String productId;
+    private String productName;
+    private Long storeId;
+    private String storeName;
+    private BigDecimal percentage;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+}
@@ -0,0 +1,22 @@
+package com.example.price_comparator.dto.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Webhook payload entry describing one triggered price alert.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceAlertNotificationDTO {
+    private String alertId;
+    private String productId;
+    private Long storeId;
+    private BigDecimal targetPrice;
+    private LocalDateTime triggeredAt;
+}
@@ -0,0 +1,19 @@
+package com.example.price_comparator.dto.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One alert of a bulk registration request.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceAlertRequestDTO {
+    private String productId;
+    private Long storeId;
+    private BigDecimal targetPrice;
+}
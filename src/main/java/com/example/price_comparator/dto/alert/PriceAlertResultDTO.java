@@ -0,0 +1,19 @@
+package com.example.price_comparator.dto.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one alert of a bulk registration request.
+ * The index is the position of the alert in the request body, starting at 0.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceAlertResultDTO {
+    private long index;
+    private boolean created;
+    private String alertId;
+    private String error;
+}
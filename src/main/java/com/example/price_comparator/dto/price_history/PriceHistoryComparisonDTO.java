@@ -0,0 +1,21 @@
+package com.example.price_comparator.dto.price_history;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Price timelines of several products, all clipped to the same date range
+ * so they can be plotted on a shared axis.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceHistoryComparisonDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<PriceHistoryDTO> products;
+}
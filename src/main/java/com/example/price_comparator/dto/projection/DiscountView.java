@@ -0,0 +1,33 @@
+package com.example.price_comparator.dto.projection;
+
+import com.example.price_comparator.model.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Flat projection of a discount row joined with its store, product, category, brand
+ * and the product's price in that store on the discount's entry date (null if missing).
+ */
+@Data
+@AllArgsConstructor
+public class DiscountView {
+    private Long id;
+    private Long storeId;
+    private String storeName;
+    private String productId;
+    private String productName;
+    private Long categoryId;
+    private String categoryName;
+    private Long brandId;
+    private String brandName;
+    private BigDecimal packageQuantity;
+    private String packageUnit;
+    private BigDecimal price;
+    private Currency currency;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private BigDecimal percentage;
+}
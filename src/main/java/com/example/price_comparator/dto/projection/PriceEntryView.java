@@ -0,0 +1,22 @@
+package com.example.price_comparator.dto.projection;
+
+import com.example.price_comparator.model.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Flat projection of a price row joined with its store.
+ */
+@Data
+@AllArgsConstructor
+public class PriceEntryView {
+    private String productId;
+    private Long storeId;
+    private String storeName;
+    private BigDecimal price;
+    private Currency currency;
+    private LocalDate entryDate;
+}
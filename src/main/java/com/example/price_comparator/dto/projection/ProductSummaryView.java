@@ -0,0 +1,23 @@
+package com.example.price_comparator.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat projection of a product row joined with its category and brand,
+ * selected with a JPQL constructor expression instead of loading entities.
+ */
+@Data
+@AllArgsConstructor
+public class ProductSummaryView {
+    private String id;
+    private String name;
+    private Long categoryId;
+    private String categoryName;
+    private Long brandId;
+    private String brandName;
+    private BigDecimal packageQuantity;
+    private String packageUnit;
+}
@@ -0,0 +1,17 @@
+package com.example.price_comparator.event;
+
+import com.example.price_comparator.model.Discount;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by DBService after a batch of discounts has been saved.
+ * Listeners use it to invalidate or refresh anything derived from the discount table.
+ */
+@Getter
+@AllArgsConstructor
+public class DiscountsIngestedEvent {
+    private final List<Discount> discounts;
+}
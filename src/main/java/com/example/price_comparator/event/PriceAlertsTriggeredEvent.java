@@ -0,0 +1,16 @@
+package com.example.price_comparator.event;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by PriceAlertService whenever alerts are triggered, whether by a price ingest or by an explicit check.
+ */
+@Getter
+@AllArgsConstructor
+public class PriceAlertsTriggeredEvent {
+    private final List<PriceAlertDTO> alerts;
+}
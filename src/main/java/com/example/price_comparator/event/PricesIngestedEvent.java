@@ -0,0 +1,17 @@
+package com.example.price_comparator.event;
+
+import com.example.price_comparator.model.Price;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by DBService after a batch of prices has been saved.
+ * Listeners use it to react to new prices without polling the price table.
+ */
+@Getter
+@AllArgsConstructor
+public class PricesIngestedEvent {
+    private final List<Price> prices;
+}
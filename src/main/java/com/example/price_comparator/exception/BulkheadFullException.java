@@ -0,0 +1,14 @@
+package com.example.price_comparator.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an endpoint is already serving as many concurrent requests as its bulkhead allows.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+    public BulkheadFullException(String bulkhead) {
+        super("Too many concurrent requests for " + bulkhead);
+    }
+}
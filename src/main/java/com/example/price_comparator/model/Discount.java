@@ -9,11 +9,25 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "discounts")
+@Table(name = "discounts", indexes = {
+        @Index(name = "idx_discounts_product_store_from", columnList = "product_id, store_id, from_date"),
+        @Index(name = "idx_discounts_active_window", columnList = "from_date, to_date")
+})
+@NamedEntityGraph(name = Discount.WITH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "product", subgraph = "product"),
+                @NamedAttributeNode("store")
+        },
+        subgraphs = @NamedSubgraph(name = "product", attributeNodes = {
+                @NamedAttributeNode("category"),
+                @NamedAttributeNode("brand")
+        }))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Discount {
+    public static final String WITH_DETAILS = "Discount.withDetails";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -10,7 +10,9 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "prices")
+@Table(name = "prices", indexes = {
+        @Index(name = "idx_prices_product_store_date", columnList = "product_id, store_id, entry_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
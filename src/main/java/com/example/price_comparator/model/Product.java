@@ -11,11 +11,17 @@ import java.util.List;
 
 @Entity
 @Table(name = "products")
+@NamedEntityGraph(name = Product.WITH_DETAILS, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("brand")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
 
+   public static final String WITH_DETAILS = "Product.withDetails";
+
    @Id
    @Column(name = "id", length = 10)
    private String id;
@@ -0,0 +1,7 @@
+package com.example.price_comparator.model.enums;
+
+public enum NotificationStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
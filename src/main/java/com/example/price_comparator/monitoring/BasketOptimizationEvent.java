@@ -0,0 +1,31 @@
+package com.example.price_comparator.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one basket optimization on the catalog read model.
+ */
+@Name("com.example.price_comparator.BasketOptimization")
+@Label("Basket Optimization")
+@Category({"Price Comparator", "Services"})
+@Description("Best offers of a basket found across all stores")
+@StackTrace(false)
+public class BasketOptimizationEvent extends Event {
+
+    @Label("Basket Size")
+    @Description("Distinct products in the basket")
+    public int basketSize;
+
+    @Label("Stores Evaluated")
+    @Description("Store offers compared, summed over the products of the basket")
+    public int storesEvaluated;
+
+    @Label("Store Baskets")
+    @Description("Stores the basket was split into")
+    public int storeBaskets;
+}
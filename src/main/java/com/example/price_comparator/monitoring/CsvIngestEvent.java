@@ -0,0 +1,33 @@
+package com.example.price_comparator.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of parsing one price or discount CSV file.
+ */
+@Name("com.example.price_comparator.CsvIngest")
+@Label("CSV Ingest")
+@Category({"Price Comparator", "Ingest"})
+@Description("One CSV file parsed into entries")
+@StackTrace(false)
+public class CsvIngestEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Entry Type")
+    public String entryType;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
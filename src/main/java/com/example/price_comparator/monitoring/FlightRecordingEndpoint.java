@@ -0,0 +1,169 @@
+package com.example.price_comparator.monitoring;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint controlling a Flight Recorder recording of the running application, which
+ * includes the price comparator events (BasketOptimizationEvent, PriceHistoryEvent,
+ * RecommendationEvent and CsvIngestEvent) next to the JVM's own:
+ *
+ * <pre>
+ * POST   /actuator/flightrecording              starts a recording, optionally with
+ *                                               {"settings": "default", "maxAgeSeconds": 600}
+ * GET    /actuator/flightrecording              describes the recording
+ * GET    /actuator/flightrecording/dump         downloads what was recorded so far as a .jfr file
+ * DELETE /actuator/flightrecording              stops and discards the recording
+ * </pre>
+ *
+ * Only one recording runs at a time. The endpoint is not exposed by default; application.properties
+ * describes how to expose it on a management port bound to the loopback interface.
+ */
+@Component
+@WebEndpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingEndpoint.class);
+
+    private static final String DEFAULT_SETTINGS = "profile";
+    private static final String DUMP = "dump";
+    private static final int STATUS_CONFLICT = 409;
+
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState());
+        status.put("startTime", recording.getStartTime());
+        status.put("duration", Duration.between(recording.getStartTime(), Instant.now()));
+        status.put("maxAge", recording.getMaxAge());
+        status.put("maxSize", recording.getMaxSize());
+        status.put("size", recording.getSize());
+        return status;
+    }
+
+    /**
+     * Starts a recording with one of the JDK's settings ("default" or "profile"), keeping at most
+     * the given age and size of data, if set.
+     */
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable String settings,
+                                                                       @Nullable Long maxAgeSeconds,
+                                                                       @Nullable Long maxSizeMegabytes) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(status(), STATUS_CONFLICT);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : DEFAULT_SETTINGS);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown settings: " + settings),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        closeRecording();
+        recording = new Recording(configuration);
+        recording.setName("price-comparator");
+        recording.setToDisk(true);
+        if (maxAgeSeconds != null) {
+            recording.setMaxAge(Duration.ofSeconds(maxAgeSeconds));
+        }
+        if (maxSizeMegabytes != null) {
+            recording.setMaxSize(maxSizeMegabytes * 1024 * 1024);
+        }
+        recording.start();
+        logger.info("Started flight recording with {} settings", configuration.getName());
+        return new WebEndpointResponse<>(status());
+    }
+
+    /**
+     * Writes what has been recorded so far to a .jfr file, without stopping the recording.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> dump(@Selector String name) throws IOException {
+        if (!DUMP.equals(name)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording == null || recording.getState() == RecordingState.CLOSED) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = Files.createTempFile("price-comparator-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new WebEndpointResponse<>(new TemporaryFileResource(file));
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Void> stop() {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        closeRecording();
+        logger.info("Stopped flight recording");
+        return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Dumped recording, deleted once it has been sent.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.price_comparator.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one price history build, filtered by product name or compared across
+ * products.
+ */
+@Name("com.example.price_comparator.PriceHistory")
+@Label("Price History")
+@Category({"Price Comparator", "Services"})
+@Description("Price timelines built for one or more products")
+@StackTrace(false)
+public class PriceHistoryEvent extends Event {
+
+    @Label("Product Name")
+    @Description("Product name filter, empty for comparisons of given products")
+    public String productName;
+
+    @Label("Products")
+    @Description("Products a timeline was built for")
+    public int products;
+
+    @Label("Stores")
+    @Description("Store timelines, summed over the products")
+    public int stores;
+
+    @Label("Segments")
+    @Description("Periods with a constant final price, summed over all timelines")
+    public int segments;
+}
@@ -0,0 +1,18 @@
+package com.example.price_comparator.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Reports every SQL statement Hibernate prepares to the QueryRecording of the current thread.
+ * Registered with the hibernate.session_factory.statement_inspector property.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        if (QueryRecording.active()) {
+            QueryRecording.statementPrepared(sql);
+        }
+        return sql;
+    }
+}
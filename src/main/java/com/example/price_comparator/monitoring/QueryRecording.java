@@ -0,0 +1,136 @@
+package com.example.price_comparator.monitoring;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL statements run by the current thread between start() and close(), with their total
+ * execution time.
+ *
+ * Statements are reported by QueryCountingStatementInspector and timed by QueryTimingListener, which
+ * Hibernate calls on the thread running the statement. Recordings nest: a statement counts in every
+ * recording open on the thread, so a test can record around a request that QueryCountInterceptor
+ * records as well. Statements are compared with their parameters as placeholders, so the same
+ * statement run for many different IDs, the signature of an N+1 query, shows up as one repeated
+ * statement.
+ *
+ * A recording can follow a request onto the thread running its asynchronous work with attach(). It
+ * must only be used by one thread at a time.
+ */
+public final class QueryRecording implements AutoCloseable {
+
+    private static final ThreadLocal<QueryRecording> CURRENT = new ThreadLocal<>();
+
+    private final QueryRecording parent;
+    private final Map<String, Integer> counts = new HashMap<>();
+    private int statementCount;
+    private long executionNanos;
+    private boolean closed;
+
+    private QueryRecording(QueryRecording parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Starts a recording on the current thread. It must be closed on the same thread.
+     */
+    public static QueryRecording start() {
+        QueryRecording recording = new QueryRecording(CURRENT.get());
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    /**
+     * Returns the innermost recording open on the current thread, or null.
+     */
+    public static QueryRecording current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Records the statements of the calling thread in this recording, and the recordings it is
+     * nested in, until the returned scope is closed.
+     */
+    public Scope attach() {
+        QueryRecording previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    static void statementPrepared(String sql) {
+        for (QueryRecording recording = CURRENT.get(); recording != null; recording = recording.parent) {
+            recording.statementCount++;
+            recording.counts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    static void statementExecuted(long nanos) {
+        for (QueryRecording recording = CURRENT.get(); recording != null; recording = recording.parent) {
+            recording.executionNanos += nanos;
+        }
+    }
+
+    static boolean active() {
+        return CURRENT.get() != null;
+    }
+
+    public int statementCount() {
+        return statementCount;
+    }
+
+    /**
+     * Returns the time spent executing statements in the database, in nanoseconds.
+     */
+    public long executionNanos() {
+        return executionNanos;
+    }
+
+    /**
+     * Returns the statements run at least the given number of times, with their counts, most
+     * repeated first.
+     */
+    public Map<String, Integer> repeatedStatements(int minCount) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minCount)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    /**
+     * Stops recording. Recordings must be closed in reverse order of start().
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("Query recordings must be closed on their thread, innermost first");
+        }
+        if (parent != null) {
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * A recording attached to a thread.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
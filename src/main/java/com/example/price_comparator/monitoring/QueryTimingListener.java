@@ -0,0 +1,33 @@
+package com.example.price_comparator.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the execution time of every JDBC statement and batch of a session to the QueryRecording of
+ * the current thread. Registered with the hibernate.session.events.auto property, which creates one
+ * listener per session.
+ */
+public class QueryTimingListener implements SessionEventListener {
+
+    private long executionStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryRecording.statementExecuted(System.nanoTime() - executionStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryRecording.statementExecuted(System.nanoTime() - executionStart);
+    }
+}
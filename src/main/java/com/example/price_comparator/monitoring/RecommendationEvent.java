@@ -0,0 +1,33 @@
+package com.example.price_comparator.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one search for cheaper alternatives of a product.
+ */
+@Name("com.example.price_comparator.Recommendation")
+@Label("Recommendation")
+@Category({"Price Comparator", "Services"})
+@Description("Cheaper alternatives of a product found in its category")
+@StackTrace(false)
+public class RecommendationEvent extends Event {
+
+    @Label("Product ID")
+    public String productId;
+
+    @Label("Products Scanned")
+    @Description("Products of the catalog checked for the category and unit")
+    public int productsScanned;
+
+    @Label("Candidates Scanned")
+    @Description("Products of the same category and unit whose price per unit was computed")
+    public int candidatesScanned;
+
+    @Label("Recommendations")
+    public int recommendations;
+}
@@ -0,0 +1,18 @@
+package com.example.price_comparator.repository;
+
+import com.example.price_comparator.model.AlertNotification;
+import com.example.price_comparator.model.enums.NotificationStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AlertNotificationRepository extends JpaRepository<AlertNotification, Long> {
+
+    /**
+     * Loads the oldest notifications in the given status that are due for a delivery attempt.
+     */
+    List<AlertNotification> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            NotificationStatus status, LocalDateTime now, Limit limit);
+}
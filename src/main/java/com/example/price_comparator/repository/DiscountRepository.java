@@ -1,18 +1,31 @@
 package com.example.price_comparator.repository;
 
+import com.example.price_comparator.dto.projection.DiscountView;
 import com.example.price_comparator.model.Discount;
 import com.example.price_comparator.model.Product;
 import com.example.price_comparator.model.Store;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface DiscountRepository extends JpaRepository<Discount, Long> {
+    String DISCOUNT_VIEW_SELECT = "SELECT new com.example.price_comparator.dto.projection.DiscountView(" +
+            "d.id, s.id, s.name, p.id, p.name, c.id, c.name, b.id, b.name, p.packageQuantity, p.packageUnit, " +
+            "pr.price, pr.currency, d.fromDate, d.toDate, d.percentage) " +
+            "FROM Discount d JOIN d.store s JOIN d.product p JOIN p.category c JOIN p.brand b " +
+            // A single price per discount, even when the same day was ingested more than once
+            "LEFT JOIN Price pr ON pr.id = (SELECT MAX(p2.id) FROM Price p2 " +
+            "WHERE p2.product = p AND p2.store = s AND p2.entryDate = d.entryDate) ";
+
     List<Discount> findByProductAndStore(Product product, Store store);
     List<Discount> findByEntryDate(LocalDate entryDate);
+    @EntityGraph(Discount.WITH_DETAILS)
     List<Discount> findByEntryDateLessThanEqual(LocalDate date);
 
     List<Discount> findByProductAndStoreAndFromDateLessThanEqualAndToDateGreaterThanEqual(
@@ -25,11 +38,48 @@ public interface DiscountRepository extends JpaRepository<Discount, Long> {
     @Query("SELECT d FROM Discount d WHERE d.store.id = :storeId")
     List<Discount> findByStoreId(@Param("storeId") Long storeId);
 
-    @Query("SELECT d FROM Discount d WHERE :today BETWEEN d.fromDate AND d.toDate")
+    @Query("SELECT d FROM Discount d " +
+            "JOIN FETCH d.product p JOIN FETCH p.category JOIN FETCH p.brand JOIN FETCH d.store " +
+            "WHERE d.fromDate <= :today AND d.toDate >= :today")
     List<Discount> findActiveDiscounts(@Param("today") LocalDate today);
 
+    @Query("SELECT d FROM Discount d " +
+            "JOIN FETCH d.product p JOIN FETCH p.category JOIN FETCH p.brand JOIN FETCH d.store " +
+            "WHERE d.id IN :ids")
+    List<Discount> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT d FROM Discount d " +
+            "JOIN FETCH d.product p JOIN FETCH p.category JOIN FETCH p.brand JOIN FETCH d.store " +
+            "WHERE d.fromDate = :date")
+    List<Discount> findStartingOn(@Param("date") LocalDate date);
+
+    @Query("SELECT d FROM Discount d " +
+            "JOIN FETCH d.product p JOIN FETCH p.category JOIN FETCH p.brand JOIN FETCH d.store " +
+            "WHERE d.toDate = :date")
+    List<Discount> findEndingOn(@Param("date") LocalDate date);
+
     @Query("SELECT d FROM Discount d WHERE d.product.id = :productId AND d.store.id = :storeId")
     List<Discount> findByProductIdAndStoreId(
             @Param("productId") String productId,
             @Param("storeId") Long storeId);
+
+    @Query("SELECT d FROM Discount d WHERE d.product.id IN :productIds " +
+            "AND d.fromDate <= :endDate AND d.toDate >= :startDate " +
+            "ORDER BY d.product.id, d.store.id, d.fromDate")
+    List<Discount> findOverlappingByProductIds(
+            @Param("productIds") Collection<String> productIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query(DISCOUNT_VIEW_SELECT + "WHERE d.id > :afterId ORDER BY d.id")
+    List<DiscountView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(DISCOUNT_VIEW_SELECT + "WHERE s.id = :storeId AND d.id > :afterId ORDER BY d.id")
+    List<DiscountView> findViewsByStoreIdAfter(@Param("storeId") Long storeId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query(DISCOUNT_VIEW_SELECT + "WHERE d.entryDate = :entryDate AND d.id > :afterId ORDER BY d.id")
+    List<DiscountView> findViewsByEntryDateAfter(@Param("entryDate") LocalDate entryDate, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(d.id), 0) FROM Discount d")
+    long findMaxId();
 }
@@ -1,12 +1,19 @@
 package com.example.price_comparator.repository;
 
+import com.example.price_comparator.dto.projection.PriceEntryView;
 import com.example.price_comparator.model.Price;
 import com.example.price_comparator.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface PriceRepository extends JpaRepository<Price, Long> {
     List<Price> findByProduct(Product product);
@@ -19,4 +26,89 @@ public interface PriceRepository extends JpaRepository<Price, Long> {
     List<Price> findByProductIdAndStoreIdOrderByEntryDateAsc(
             @Param("productId") String productId,
             @Param("storeId") Long storeId);
+
+    @Query("SELECT p FROM Price p JOIN FETCH p.store WHERE p.product.id IN :productIds")
+    List<Price> findWithStoreByProductIdIn(@Param("productIds") Collection<String> productIds);
+
+    /**
+     * Loads, in a single query, every price needed to draw the timelines of the given products
+     * between two dates: the price in effect on the start date plus all later entries up to the end date.
+     * Product, category, brand and store are fetched eagerly, and rows are ordered by product, store and date.
+     */
+    @Query("SELECT p FROM Price p " +
+            "JOIN FETCH p.product pr JOIN FETCH pr.category JOIN FETCH pr.brand JOIN FETCH p.store s " +
+            "WHERE pr.id IN :productIds AND p.entryDate <= :endDate " +
+            "AND p.entryDate >= COALESCE((SELECT MAX(p2.entryDate) FROM Price p2 " +
+            "WHERE p2.product = p.product AND p2.store = p.store AND p2.entryDate <= :startDate), :startDate) " +
+            "ORDER BY pr.id, s.id, p.entryDate")
+    List<Price> findTimelinePrices(
+            @Param("productIds") Collection<String> productIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new com.example.price_comparator.dto.projection.PriceEntryView(" +
+            "p.product.id, s.id, s.name, p.price, p.currency, p.entryDate) " +
+            "FROM Price p JOIN p.store s WHERE p.product.id IN :productIds")
+    List<PriceEntryView> findEntryViewsByProductIdIn(@Param("productIds") Collection<String> productIds);
+
+    /**
+     * Streams every price sorted by product, store and entry date, fetched in batches so the table is
+     * never held in memory at once. The stream must be consumed and closed within a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new com.example.price_comparator.dto.projection.PriceEntryView(" +
+            "p.product.id, s.id, s.name, p.price, p.currency, p.entryDate) " +
+            "FROM Price p JOIN p.store s ORDER BY p.product.id, s.id, p.entryDate, p.id")
+    Stream<PriceEntryView> streamAllEntryViewsSorted();
+
+    /**
+     * Counts the distinct (product, store) pairs that have prices.
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT DISTINCT product_id, store_id FROM prices) pairs", nativeQuery = true)
+    long countProductStorePairs();
+
+    @Query("SELECT new com.example.price_comparator.dto.projection.PriceEntryView(" +
+            "p.product.id, s.id, s.name, p.price, p.currency, p.entryDate) " +
+            "FROM Price p JOIN p.store s WHERE p.product.id IN :productIds AND p.entryDate IN :entryDates")
+    List<PriceEntryView> findEntryViewsByProductIdInAndEntryDateIn(
+            @Param("productIds") Collection<String> productIds,
+            @Param("entryDates") Collection<LocalDate> entryDates);
+
+    /**
+     * Loads the current price (latest entry on or before the given date) of every product in every store.
+     */
+    @Query("SELECT new com.example.price_comparator.dto.projection.PriceEntryView(" +
+            "p.product.id, s.id, s.name, p.price, p.currency, p.entryDate) " +
+            "FROM Price p JOIN p.store s " +
+            "WHERE p.entryDate = (SELECT MAX(p2.entryDate) FROM Price p2 " +
+            "WHERE p2.product = p.product AND p2.store = p.store AND p2.entryDate <= :date)")
+    List<PriceEntryView> findCurrentPrices(@Param("date") LocalDate date);
+
+    /**
+     * Loads the current price (latest entry on or before the given date) of one product in every store.
+     */
+    @Query("SELECT new com.example.price_comparator.dto.projection.PriceEntryView(" +
+            "p.product.id, s.id, s.name, p.price, p.currency, p.entryDate) " +
+            "FROM Price p JOIN p.store s " +
+            "WHERE p.product.id = :productId AND p.entryDate = (SELECT MAX(p2.entryDate) FROM Price p2 " +
+            "WHERE p2.product = p.product AND p2.store = p.store AND p2.entryDate <= :date)")
+    List<PriceEntryView> findCurrentPricesByProductId(@Param("productId") String productId, @Param("date") LocalDate date);
+
+    /**
+     * Loads the current price (latest entry on or before the given date) of the given products in every store.
+     */
+    @Query("SELECT new com.example.price_comparator.dto.projection.PriceEntryView(" +
+            "p.product.id, s.id, s.name, p.price, p.currency, p.entryDate) " +
+            "FROM Price p JOIN p.store s " +
+            "WHERE p.product.id IN :productIds AND p.entryDate = (SELECT MAX(p2.entryDate) FROM Price p2 " +
+            "WHERE p2.product = p.product AND p2.store = p.store AND p2.entryDate <= :date)")
+    List<PriceEntryView> findCurrentPricesByProductIdIn(
+            @Param("productIds") Collection<String> productIds,
+            @Param("date") LocalDate date);
+
+    /**
+     * Returns the highest price ID, or 0 without prices.
+     */
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Price p")
+    long findMaxId();
 }
@@ -1,11 +1,39 @@
 package com.example.price_comparator.repository;
 
+import com.example.price_comparator.dto.projection.ProductSummaryView;
 import com.example.price_comparator.model.Category;
 import com.example.price_comparator.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, String> {
+    @EntityGraph(Product.WITH_DETAILS)
     List<Product> findByCategory(Category category);
+
+    @EntityGraph(Product.WITH_DETAILS)
+    Optional<Product> findWithDetailsById(String id);
+
+    @Query("SELECT new com.example.price_comparator.dto.projection.ProductSummaryView(" +
+            "p.id, p.name, c.id, c.name, b.id, b.name, p.packageQuantity, p.packageUnit) " +
+            "FROM Product p JOIN p.category c JOIN p.brand b " +
+            "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSummaryView> findSummariesAfter(@Param("afterId") String afterId, Limit limit);
+
+    @Query("SELECT new com.example.price_comparator.dto.projection.ProductSummaryView(" +
+            "p.id, p.name, c.id, c.name, b.id, b.name, p.packageQuantity, p.packageUnit) " +
+            "FROM Product p JOIN p.category c JOIN p.brand b ORDER BY p.id")
+    List<ProductSummaryView> findAllSummaries();
+
+    /**
+     * Returns which of the given product IDs exist, with one query for the whole set.
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
 }
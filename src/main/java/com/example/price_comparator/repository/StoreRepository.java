@@ -2,9 +2,19 @@ package com.example.price_comparator.repository;
 
 import com.example.price_comparator.model.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface StoreRepository extends JpaRepository<Store, Long> {
     Optional<Store> findByName(String name);
+
+    /**
+     * Returns which of the given store IDs exist, with one query for the whole set.
+     */
+    @Query("SELECT s.id FROM Store s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -1,16 +1,12 @@
 package com.example.price_comparator.service;
 
+import com.example.price_comparator.catalog.CatalogReadModel;
 import com.example.price_comparator.dto.basket.BasketItemDTO;
-import com.example.price_comparator.dto.basket.ProductWithBestOffer;
 import com.example.price_comparator.dto.basket.StoreBasketDTO;
 import com.example.price_comparator.exception.ResourceNotFoundException;
-import com.example.price_comparator.model.Discount;
-import com.example.price_comparator.model.Product;
-import com.example.price_comparator.model.Store;
-import com.example.price_comparator.repository.DiscountRepository;
-import com.example.price_comparator.repository.ProductRepository;
-import com.example.price_comparator.repository.StoreRepository;
-import com.example.price_comparator.utils.PriceHelpers;
+import com.example.price_comparator.monitoring.BasketOptimizationEvent;
+import com.example.price_comparator.utils.Money;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,18 +20,16 @@ import java.util.stream.Collectors;
 /**
  * Service responsible for optimizing a shopping basket by finding the best prices
  * (including discounts) for a given list of product IDs across all available stores.
+ * Offers are evaluated on the CatalogReadModel, without loading entities.
  */
 @Service
+@Timed("price_comparator.service")
 @RequiredArgsConstructor
 public class BasketService {
 
     private static final Logger logger = LoggerFactory.getLogger(BasketService.class);
 
-    private final ProductRepository productRepository;
-    private final DiscountRepository discountRepository;
-    private final StoreRepository storeRepository;
-    private final PriceHelpers priceHelpers;
-    private final ProductMapperService productMapper;
+    private final CatalogSnapshotService catalogSnapshotService;
 
     /**
      * Optimizes a shopping basket by retrieving the lowest available price (including discounts)
@@ -55,97 +49,118 @@ public class BasketService {
         logger.info("Optimizing basket for product IDs: {}", productIds);
 //        LocalDate today = LocalDate.now();
         LocalDate today = LocalDate.of(2025, 5, 1);  // May 1, 2025
-        List<Store> allStores = storeRepository.findAll();
-        logger.debug("Retrieved {} stores from the database", allStores.size());
-
-        // Get all products with their current best prices
-        Map<Product, ProductWithBestOffer> bestPricePerProduct = productIds.stream()
-                .map(productId -> productRepository.findById(productId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId)))
-                .collect(Collectors.toMap(
-                        product -> product,
-                        product -> findBestOfferForProduct(product, allStores, today)));
-
-        // Group products by store
-        Map<Store, List<ProductWithBestOffer>> productsByStore = bestPricePerProduct.values().stream()
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(ProductWithBestOffer::getStore));
+        return optimizeBasket(catalogSnapshotService.getModel(), productIds, CatalogReadModel.toDay(today));
+    }
+
+    /**
+     * Optimizes a basket on the given read model, for the given epoch day.
+     *
+     * @throws ResourceNotFoundException if any product ID does not exist
+     */
+    List<StoreBasketDTO> optimizeBasket(CatalogReadModel catalog, Collection<String> productIds, int day) {
+        BasketOptimizationEvent event = new BasketOptimizationEvent();
+        event.begin();
+
+        // Find the best offer of every product and group the offers by store code
+        Map<Integer, List<BasketItemDTO>> itemsByStore = new LinkedHashMap<>();
+        Set<String> distinctIds = new LinkedHashSet<>(productIds);
+        int storesEvaluated = 0;
+        for (String productId : distinctIds) {
+            int product = catalog.productCode(productId);
+            if (product == CatalogReadModel.NOT_FOUND) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+            storesEvaluated += addBestOffer(catalog, product, day, itemsByStore);
+        }
 
         // Convert to StoreBasketDTO
-        return productsByStore.entrySet().stream()
-                .map(entry -> createStoreBasket(entry.getKey(), entry.getValue()))
+        List<StoreBasketDTO> baskets = itemsByStore.entrySet().stream()
+                .map(entry -> createStoreBasket(catalog, entry.getKey(), entry.getValue()))
                 .collect(Collectors.toList());
+
+        event.basketSize = distinctIds.size();
+        event.storesEvaluated = storesEvaluated;
+        event.storeBaskets = baskets.size();
+        event.commit();
+        return baskets;
     }
 
     /**
-     * Finds the best available price for a given product across all stores, including applicable discounts.
+     * Finds the best available price for a given product across all stores, including applicable discounts,
+     * and adds it to the basket of the store offering it.
      *
-     * @param product the product to search pricing for
-     * @param stores the list of stores to evaluate
-     * @param date the date used to evaluate current prices and active discounts
-     * @return the best ProductWithBestOffer available or null if the product is unavailable in all stores
+     * @param catalog the read model to evaluate prices and discounts on
+     * @param product the code of the product to search pricing for
+     * @param day the epoch day used to evaluate current prices and active discounts
+     * @param itemsByStore the basket items collected so far, by store code
+     * @return the number of stores with a price for the product
      */
-    private ProductWithBestOffer findBestOfferForProduct(Product product, List<Store> stores, LocalDate date) {
-        ProductWithBestOffer result = stores.stream()
-                .map(store -> {
-                    // Get the base price for this product at this store
-                    BigDecimal basePrice = priceHelpers.getCurrentPrice(product, store, date);
-
-                    // Product not available at this store
-                    if(basePrice == null) {
-                        return null;
-                    }
-
-                    // Find active discount for this product at this store (if any)
-                    Optional<Discount> activeDiscount = discountRepository.findByProductAndStore(product, store).stream()
-                            .filter(d -> priceHelpers.isDiscountActive(d, date))
-                            .findFirst();
-
-                    BigDecimal finalPrice = activeDiscount
-                            .map(discount -> priceHelpers.applyDiscount(basePrice, discount.getPercentage()))
-                            .orElse(basePrice);
-
-                    BigDecimal discountPercentage = activeDiscount
-                            .map(Discount::getPercentage)
-                            .orElse(BigDecimal.ZERO);
-
-                    return new ProductWithBestOffer(product, store, basePrice, finalPrice, discountPercentage);
-                })
-                .filter(Objects::nonNull)
-                .min(Comparator.comparing(ProductWithBestOffer::getDiscountedPrice))
-                .orElse(null);
+    private int addBestOffer(CatalogReadModel catalog, int product, int day, Map<Integer, List<BasketItemDTO>> itemsByStore) {
+        // Offers are compared in cents; BigDecimals are only built for the winning offer
+        int bestStore = CatalogReadModel.NOT_FOUND;
+        long bestBaseCents = 0;
+        long bestFinalCents = 0;
+        int bestDiscount = CatalogReadModel.NOT_FOUND;
+        int storesEvaluated = 0;
+
+        for (int store = 0; store < catalog.storeCount(); store++) {
+            // Get the base price for this product at this store
+            long baseCents = catalog.currentPriceCents(product, store, day);
+
+            // Product not available at this store
+            if (baseCents == CatalogReadModel.NO_PRICE) {
+                continue;
+            }
+            storesEvaluated++;
+
+            // Find active discount for this product at this store (if any)
+            int discount = catalog.activeDiscountRow(product, store, day);
+            long finalCents = discount != CatalogReadModel.NOT_FOUND
+                    ? Money.applyDiscount(baseCents, catalog.discountPercent(discount))
+                    : baseCents;
+
+            if (bestStore == CatalogReadModel.NOT_FOUND || finalCents < bestFinalCents) {
+                bestStore = store;
+                bestBaseCents = baseCents;
+                bestFinalCents = finalCents;
+                bestDiscount = discount;
+            }
+        }
+
+        if (bestStore == CatalogReadModel.NOT_FOUND) {
+            logger.debug("Best offer for product {} is at store N/A: discounted price = N/A", catalog.productId(product));
+            return storesEvaluated;
+        }
+
+        BasketItemDTO item = new BasketItemDTO(
+                catalog.productId(product),
+                catalog.productName(product),
+                Money.toBigDecimal(bestBaseCents),
+                Money.toBigDecimal(bestFinalCents),
+                bestDiscount != CatalogReadModel.NOT_FOUND ? catalog.discountPercentage(bestDiscount) : BigDecimal.ZERO);
+        itemsByStore.computeIfAbsent(bestStore, store -> new ArrayList<>()).add(item);
 
         logger.debug("Best offer for product {} is at store {}: discounted price = {}",
-                product.getId(),
-                result != null ? result.getStore().getName() : "N/A",
-                result != null ? result.getDiscountedPrice() : "N/A");
-        return result;
+                item.getProductId(), catalog.storeName(bestStore), item.getDiscountedPrice());
+        return storesEvaluated;
     }
 
     /**
      * Converts a list of discounted product offers for a specific store into a StoreBasketDTO.
      *
-     * @param store the store for which the basket is being created
-     * @param products the list of best offers for products available at the given store
+     * @param catalog the read model the offers were found in
+     * @param store the code of the store for which the basket is being created
+     * @param items the best offers for products available at the given store
      * @return a StoreBasketDTO representing the store and its associated product offers
      */
-    private StoreBasketDTO createStoreBasket(Store store, List<ProductWithBestOffer> products) {
-        List<BasketItemDTO> items = products.stream()
-                .map(p -> new BasketItemDTO(
-                        p.getProduct().getId(),
-                        p.getProduct().getName(),
-                        p.getOriginalPrice(),
-                        p.getDiscountedPrice(),
-                        p.getDiscountPercentage()))
-                .toList();
-
+    private StoreBasketDTO createStoreBasket(CatalogReadModel catalog, int store, List<BasketItemDTO> items) {
         BigDecimal total = items.stream()
                 .map(BasketItemDTO::getDiscountedPrice)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         return new StoreBasketDTO(
-                store.getId(),
-                store.getName(),
+                catalog.storeId(store),
+                catalog.storeName(store),
                 items,
                 total);
     }
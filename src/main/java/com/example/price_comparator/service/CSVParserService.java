@@ -3,10 +3,12 @@ package com.example.price_comparator.service;
 import com.example.price_comparator.dto.csv.BaseCSVEntry;
 import com.example.price_comparator.dto.csv.DiscountCSVEntry;
 import com.example.price_comparator.dto.csv.PriceCSVEntry;
+import com.example.price_comparator.monitoring.CsvIngestEvent;
 import com.example.price_comparator.utils.FileNameExtractor;
 import com.opencsv.bean.CsvToBean;
 import com.opencsv.bean.CsvToBeanBuilder;
 import com.opencsv.bean.HeaderColumnNameMappingStrategy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
@@ -24,40 +26,49 @@ import java.util.stream.Stream;
  * Service for parsing CSV files from the configured directories and mapping them
  * to DTOs (PriceCSVEntry and DiscountCSVEntry). Automatically assigns store name
  * and entry date based on the filename.
+ *
+ * The directories default to the sample data on the classpath and can point to any folder
+ * with a file: location.
  */
 @Service
 public class CSVParserService {
 
     private final ResourceLoader resourceLoader;
 
+    @Value("${price-comparator.data.prices-location:classpath:data/prices}")
+    private String pricesLocation;
+
+    @Value("${price-comparator.data.discounts-location:classpath:data/discounts}")
+    private String discountsLocation;
+
     public CSVParserService(ResourceLoader resourceLoader){
         this.resourceLoader = resourceLoader;
     }
 
     /**
-     * Parses all price CSV files from the data/prices directory and returns the parsed entries.
+     * Parses all price CSV files from the prices directory and returns the parsed entries.
      *
      * @return list of parsed PriceCSVEntry objects
      * @throws IOException if an I/O error occurs during file access
      */
     public List<PriceCSVEntry> parseAllPriceCSVFiles() throws IOException {
-        return parseCSVFilesFromDirectory("classpath:data/prices", PriceCSVEntry.class);
+        return parseCSVFilesFromDirectory(pricesLocation, PriceCSVEntry.class);
     }
 
     /**
-     * Parses all discount CSV files from the data/discounts directory and returns the parsed entries.
+     * Parses all discount CSV files from the discounts directory and returns the parsed entries.
      *
      * @return list of parsed DiscountCSVEntry objects
      * @throws IOException if an I/O error occurs during file access
      */
     public List<DiscountCSVEntry> parseAllDiscountCSVFiles() throws IOException {
-        return parseCSVFilesFromDirectory("classpath:data/discounts", DiscountCSVEntry.class);
+        return parseCSVFilesFromDirectory(discountsLocation, DiscountCSVEntry.class);
     }
 
     /**
      * Parses all CSV files from the given directory and maps them to the specified DTO class.
      *
-     * @param directoryPath the classpath directory containing CSV files
+     * @param directoryPath the location of the directory containing CSV files
      * @param entryClass the target class to map each CSV entry to
      * @return list of parsed DTO entries
      * @param <T> type parameter extending BaseCSVEntry
@@ -94,6 +105,8 @@ public class CSVParserService {
      */
     private <T extends BaseCSVEntry> List<T> parseCSVFile(Path filePath, Class<T> entryClass) throws Exception {
         System.out.println("Parsing CSV file " + filePath);
+        CsvIngestEvent event = new CsvIngestEvent();
+        event.begin();
 
         try (Reader reader = Files.newBufferedReader(filePath)) {
             // Extract store and date from filename
@@ -116,6 +129,13 @@ public class CSVParserService {
                 entry.setEntryDate(storeAndDate.entryDate);
             });
 
+            if (event.shouldCommit()) {
+                event.file = filePath.getFileName().toString();
+                event.entryType = entryClass.getSimpleName();
+                event.rows = entries.size();
+                event.bytes = Files.size(filePath);
+                event.commit();
+            }
             return entries;
         }
     }
@@ -0,0 +1,284 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.catalog.CatalogReadModel;
+import com.example.price_comparator.catalog.CatalogSnapshot;
+import com.example.price_comparator.catalog.CatalogSnapshotFile;
+import com.example.price_comparator.catalog.CatalogWatermark;
+import com.example.price_comparator.dto.projection.PriceEntryView;
+import com.example.price_comparator.dto.projection.ProductSummaryView;
+import com.example.price_comparator.event.DiscountsIngestedEvent;
+import com.example.price_comparator.event.PricesIngestedEvent;
+import com.example.price_comparator.model.Discount;
+import com.example.price_comparator.model.Store;
+import com.example.price_comparator.repository.DiscountRepository;
+import com.example.price_comparator.repository.PriceRepository;
+import com.example.price_comparator.repository.ProductRepository;
+import com.example.price_comparator.repository.StoreRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Service publishing immutable, versioned snapshots of the catalog for the read services
+ * (basket, discounts, recommendations and price history).
+ *
+ * The first snapshot is built at startup. After every committed ingest a new one is built on a
+ * background thread from one projection query per table, in a single repeatable-read transaction, and
+ * published with an atomic reference swap. Readers never lock and never wait for a build; they keep
+ * the snapshot they started with, so a request can not observe a half-ingested batch. Ingests that
+ * commit while a build is running are coalesced into one more build.
+ *
+ * A request can pin the current snapshot (see CatalogVersionInterceptor), so every service call it
+ * makes reads the same version and the version can be reported in the response.
+ *
+ * Every published snapshot is also written to a binary snapshot file (see CatalogSnapshotFile). On
+ * startup the file, when present and valid, is loaded instead of querying the database, so a restarted
+ * node serves within seconds and nodes restarted together by a deploy do not all reload from the
+ * database at once. The file is only served if its watermark (see CatalogWatermark) still matches the
+ * database; a file that missed ingests made while the node was down, or by another node, is rebuilt
+ * from the database. Delete it to force a rebuild.
+ *
+ * For very large catalogs, the prices of every snapshot can be kept off heap in memory-mapped files
+ * (see PriceStore). A replaced snapshot is never unmapped explicitly: a request that read the published
+ * reference just before the swap, or work handed to another thread, may still be reading it, and
+ * reading an unmapped buffer crashes the JVM. Its mapped file is released once the garbage collector
+ * finds the snapshot unreachable.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
+    private final PriceRepository priceRepository;
+    private final DiscountRepository discountRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicReference<CatalogSnapshot> published = new AtomicReference<>();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final ThreadLocal<CatalogSnapshot> pinned = new ThreadLocal<>();
+
+    // Disabled when empty
+    @Value("${price-comparator.catalog.snapshot-file:data/catalog/catalog.snapshot}")
+    private String snapshotFile;
+
+    // Prices are kept on heap when empty
+    @Value("${price-comparator.catalog.price-store-dir:}")
+    private String priceStoreDir;
+
+    private ExecutorService buildExecutor;
+
+    @PostConstruct
+    void start() {
+        buildExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("catalog-snapshot-"));
+        CatalogSnapshot restored = restore();
+        if (restored == null) {
+            publish(build(), null);
+            return;
+        }
+        CatalogWatermark current = readOnly().execute(status -> readWatermark());
+        if (restored.watermark().equals(current)) {
+            published.set(restored);
+        } else {
+            logger.info("Catalog snapshot file {} was built from {} but the database is at {}, rebuilding",
+                    snapshotFile, restored.watermark(), current);
+            // Continues from the restored version, so versions keep increasing across restarts
+            publish(build(), restored);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        buildExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the snapshot pinned by the current request, or else the latest published one.
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot snapshot = pinned.get();
+        return snapshot != null ? snapshot : published.get();
+    }
+
+    /**
+     * Returns the read model of the current snapshot.
+     */
+    public CatalogReadModel getModel() {
+        return current().catalog();
+    }
+
+    /**
+     * Pins the latest published snapshot to the calling thread until unpin() is called.
+     *
+     * @return the pinned snapshot
+     */
+    public CatalogSnapshot pin() {
+        CatalogSnapshot snapshot = published.get();
+        pin(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Pins the given snapshot to the calling thread until unpin() is called, so work a request hands
+     * to another thread reads the same version as the request.
+     */
+    public void pin(CatalogSnapshot snapshot) {
+        pinned.set(snapshot);
+    }
+
+    public void unpin() {
+        pinned.remove();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricesIngested(PricesIngestedEvent event) {
+        requestRefresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountsIngested(DiscountsIngestedEvent event) {
+        requestRefresh();
+    }
+
+    /**
+     * Schedules a new snapshot to be built in the background, unless one is already scheduled.
+     */
+    public void requestRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            buildExecutor.execute(this::refresh);
+        }
+    }
+
+    /**
+     * Builds and publishes a new snapshot on the calling thread. Builds are serialized, so a
+     * snapshot is never replaced by one that started reading the database before it.
+     */
+    synchronized void refresh() {
+        // Cleared before reading, so an ingest committed during the build schedules another one
+        refreshPending.set(false);
+        try {
+            publish(build(), published.get());
+        } catch (RuntimeException e) {
+            logger.error("Failed to build catalog snapshot, keeping version {}", published.get().version(), e);
+        }
+    }
+
+    private void publish(BuiltCatalog built, CatalogSnapshot previous) {
+        // Builds are serialized, so versions are published in order
+        CatalogSnapshot snapshot = new CatalogSnapshot(previous != null ? previous.version() + 1 : 1, Instant.now(),
+                built.catalog(), built.watermark());
+        published.set(snapshot);
+        logger.info("Published catalog snapshot version {} with {} products and {} stores",
+                snapshot.version(), snapshot.catalog().productCount(), snapshot.catalog().storeCount());
+        save(snapshot);
+    }
+
+    private CatalogSnapshot restore() {
+        if (snapshotFile.isEmpty() || !Files.exists(Path.of(snapshotFile))) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshotFile.read(Path.of(snapshotFile), priceStoreDirectory());
+            logger.info("Restored catalog snapshot version {} built at {} from {} in {} ms", snapshot.version(),
+                    snapshot.builtAt(), snapshotFile, (System.nanoTime() - start) / 1_000_000);
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not restore the catalog snapshot from {}, rebuilding from the database: {}",
+                    snapshotFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private void save(CatalogSnapshot snapshot) {
+        if (snapshotFile.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            CatalogSnapshotFile.write(snapshot, Path.of(snapshotFile));
+            logger.debug("Wrote catalog snapshot version {} to {} in {} ms",
+                    snapshot.version(), snapshotFile, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.error("Failed to write catalog snapshot version {} to {}: {}",
+                    snapshot.version(), snapshotFile, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the catalog and the watermark of the database in one transaction.
+     */
+    private BuiltCatalog build() {
+        long start = System.nanoTime();
+        BuiltCatalog built = readOnly().execute(status -> {
+            CatalogWatermark watermark = readWatermark();
+            CatalogReadModel.Builder builder = CatalogReadModel.builder().offHeapPrices(priceStoreDirectory());
+            for (Store store : storeRepository.findAll(Sort.by("id"))) {
+                builder.addStore(store.getId(), store.getName());
+            }
+            for (ProductSummaryView product : productRepository.findAllSummaries()) {
+                builder.addProduct(product.getId(), product.getName(), product.getCategoryId(), product.getCategoryName(),
+                        product.getBrandId(), product.getBrandName(), product.getPackageQuantity(), product.getPackageUnit());
+            }
+            // Products and stores were added in ID order, so prices sorted by IDs are sorted by codes, and are
+            // written straight into the price store as they are fetched
+            builder.sortedPrices(Math.toIntExact(priceRepository.countProductStorePairs()),
+                    Math.toIntExact(watermark.priceCount()));
+            try (Stream<PriceEntryView> prices = priceRepository.streamAllEntryViewsSorted()) {
+                prices.forEach(price -> builder.addPrice(price.getProductId(), price.getStoreId(), price.getEntryDate(),
+                        price.getPrice(), price.getCurrency()));
+            }
+            // In ID order, which is the order the engines used to pick the first active discount in
+            for (Discount discount : discountRepository.findAll(Sort.by("id"))) {
+                builder.addDiscount(discount.getId(), discount.getProduct().getId(), discount.getStore().getId(),
+                        discount.getFromDate(), discount.getToDate(), discount.getEntryDate(), discount.getPercentage());
+            }
+            return new BuiltCatalog(builder.build(), watermark);
+        });
+        logger.debug("Built catalog read model in {} ms", (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    private CatalogWatermark readWatermark() {
+        return new CatalogWatermark(priceRepository.findMaxId(), priceRepository.count(),
+                discountRepository.findMaxId(), discountRepository.count(),
+                productRepository.count(), storeRepository.count());
+    }
+
+    private Path priceStoreDirectory() {
+        return priceStoreDir.isEmpty() ? null : Path.of(priceStoreDir);
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        // All tables are read from one consistent view of the database
+        template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return template;
+    }
+
+    private record BuiltCatalog(CatalogReadModel catalog, CatalogWatermark watermark) {
+    }
+}
@@ -3,14 +3,21 @@ package com.example.price_comparator.service;
 import com.example.price_comparator.dto.csv.BaseCSVEntry;
 import com.example.price_comparator.dto.csv.DiscountCSVEntry;
 import com.example.price_comparator.dto.csv.PriceCSVEntry;
+import com.example.price_comparator.event.DiscountsIngestedEvent;
+import com.example.price_comparator.event.PricesIngestedEvent;
 import com.example.price_comparator.model.*;
 import com.example.price_comparator.model.enums.Currency;
 import com.example.price_comparator.repository.*;
+import com.example.price_comparator.utils.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service responsible for saving parsed CSV data entries to the database.
@@ -25,22 +32,37 @@ public class DBService {
     @Autowired private StoreRepository storeRepository;
     @Autowired private PriceRepository priceRepository;
     @Autowired private DiscountRepository discountRepository;
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
     /**
      * Saves a list of parsed CSV entries (prices or discounts) into the database.
      * Delegates each entry to the appropriate saving logic based on its type.
+     * Publishes a single PricesIngestedEvent and DiscountsIngestedEvent for all entries in the batch.
+     *
+     * Related entities are looked up once per batch. A query per entry would flush the persistence
+     * context before running, and checking every entity saved so far makes large batches quadratic.
      *
      * @param entries list of parsed CSV entries
      */
     @Transactional
     public void saveAllEntries(List<? extends BaseCSVEntry> entries) {
+        List<Price> savedPrices = new ArrayList<>();
+        List<Discount> savedDiscounts = new ArrayList<>();
+        References references = new References();
         entries.forEach(entry -> {
             if(entry instanceof  PriceCSVEntry) {
-                savePriceEntry((PriceCSVEntry) entry);
+                savedPrices.add(persistPriceEntry((PriceCSVEntry) entry, references));
             } else if(entry instanceof DiscountCSVEntry) {
-                saveDiscountEntry((DiscountCSVEntry) entry);
+                savedDiscounts.add(persistDiscountEntry((DiscountCSVEntry) entry, references));
             }
         });
+
+        if(!savedPrices.isEmpty()) {
+            eventPublisher.publishEvent(new PricesIngestedEvent(savedPrices));
+        }
+        if(!savedDiscounts.isEmpty()) {
+            eventPublisher.publishEvent(new DiscountsIngestedEvent(savedDiscounts));
+        }
     }
 
     /**
@@ -51,21 +73,27 @@ public class DBService {
      */
     @Transactional
     public void savePriceEntry(PriceCSVEntry entry){
+        Price price = persistPriceEntry(entry, new References());
+        eventPublisher.publishEvent(new PricesIngestedEvent(List.of(price)));
+    }
+
+    private Price persistPriceEntry(PriceCSVEntry entry, References references){
         // Find or create Category
-        Category category = categoryRepository.findByName(entry.getProductCategory())
-                .orElseGet(() -> categoryRepository.save(new Category(entry.getProductCategory())));
+        Category category = references.categories.computeIfAbsent(entry.getProductCategory(),
+                name -> categoryRepository.findByName(name)
+                        .orElseGet(() -> categoryRepository.save(new Category(name))));
 
         // Find or create Brand
-        Brand brand = brandRepository.findByName(entry.getBrand())
-                .orElseGet(() -> brandRepository.save(new Brand(entry.getBrand())));
+        Brand brand = references.brands.computeIfAbsent(entry.getBrand(),
+                name -> brandRepository.findByName(name)
+                        .orElseGet(() -> brandRepository.save(new Brand(name))));
 
         // Find or create Store
-        Store store = storeRepository.findByName(entry.getStore())
-                .orElseGet(() -> storeRepository.save(new Store(entry.getStore())));
+        Store store = findOrCreateStore(entry.getStore(), references);
 
         // Find or create Product
-        Product product = productRepository.findById(entry.getProductId())
-                .orElseGet(() -> {
+        Product product = references.products.computeIfAbsent(entry.getProductId(),
+                id -> productRepository.findById(id).orElseGet(() -> {
                     Product newProduct = new Product();
                     newProduct.setId(entry.getProductId());
                     newProduct.setName(entry.getProductName());
@@ -74,20 +102,21 @@ public class DBService {
                     newProduct.setPackageQuantity(entry.getPackageQuantity());
                     newProduct.setPackageUnit(entry.getPackageUnit());
                     return productRepository.save(newProduct);
-                });
+                }));
 
         // Create Price entry
         Price price = new Price();
         price.setProduct(product);
         price.setStore(store);
-        price.setPrice(entry.getPrice());
+        // Rounded once here, so computations on the catalog never round it twice
+        price.setPrice(entry.getPrice() != null ? Money.round(entry.getPrice()) : null);
         try {
             price.setCurrency(Currency.valueOf(entry.getCurrency().toUpperCase()));
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid currency format: " + entry.getCurrency());
         }
         price.setEntryDate(entry.getEntryDate());
-        priceRepository.save(price);
+        return priceRepository.save(price);
     }
 
     /**
@@ -99,22 +128,43 @@ public class DBService {
      */
     @Transactional
     public void saveDiscountEntry(DiscountCSVEntry entry){
+        Discount discount = persistDiscountEntry(entry, new References());
+        eventPublisher.publishEvent(new DiscountsIngestedEvent(List.of(discount)));
+    }
+
+    private Discount persistDiscountEntry(DiscountCSVEntry entry, References references){
         // Find or create Store
-        Store store = storeRepository.findByName(entry.getStore())
-                .orElseGet(() -> storeRepository.save(new Store(entry.getStore())));
+        Store store = findOrCreateStore(entry.getStore(), references);
 
         // Product must exist
-        Product product = productRepository.findById(entry.getProductId())
-                .orElseThrow(() -> new RuntimeException("Product not found for discount: " + entry.getProductId()));
+        Product product = references.products.computeIfAbsent(entry.getProductId(),
+                id -> productRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Product not found for discount: " + id)));
 
         // Create and save Discount
         Discount discount = new Discount();
         discount.setProduct(product);
         discount.setStore(store);
-        discount.setPercentage(entry.getPercentage());
+        discount.setPercentage(entry.getPercentage() != null ? Money.round(entry.getPercentage()) : null);
         discount.setFromDate(entry.getFromDate());
         discount.setToDate(entry.getToDate());
         discount.setEntryDate(entry.getEntryDate());
-        discountRepository.save(discount);
+        return discountRepository.save(discount);
+    }
+
+    private Store findOrCreateStore(String name, References references) {
+        return references.stores.computeIfAbsent(name,
+                storeName -> storeRepository.findByName(storeName)
+                        .orElseGet(() -> storeRepository.save(new Store(storeName))));
+    }
+
+    /**
+     * Related entities already found or created while saving a batch, by name or ID.
+     */
+    private static class References {
+        private final Map<String, Category> categories = new HashMap<>();
+        private final Map<String, Brand> brands = new HashMap<>();
+        private final Map<String, Store> stores = new HashMap<>();
+        private final Map<String, Product> products = new HashMap<>();
     }
-}
\ No newline at end of file
+}
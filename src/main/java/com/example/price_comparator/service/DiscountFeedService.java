@@ -0,0 +1,249 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.DiscountFeedEventDTO;
+import com.example.price_comparator.event.DiscountsIngestedEvent;
+import com.example.price_comparator.model.Discount;
+import com.example.price_comparator.repository.DiscountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service pushing discount changes to clients over Server-Sent Events.
+ *
+ * Events are produced from two sources: discount ingestion ("discount-added") and a daily
+ * rollover job ("discount-started" for discounts starting today, "discount-expired" for
+ * discounts that ended yesterday). Every event carries an increasing ID; a bounded buffer of
+ * recent events lets reconnecting clients resume from their last seen ID via the
+ * Last-Event-ID header instead of re-reading the discount table.
+ *
+ * IDs start from the boot time in milliseconds times 1000, so they keep increasing across restarts:
+ * a client resuming with an ID from before a restart receives the whole buffer instead of nothing.
+ * This holds only while the wall clock moves forward between restarts and a node emits fewer than
+ * 1000 events per millisecond of uptime. IDs are not coordinated between nodes either, so behind a
+ * load balancer the feed needs sticky sessions. A resumed ID higher than any this node issued (after
+ * a clock step back, or taken from another node) is replayed from the start of the buffer, which may
+ * repeat events the client already has; an ID from another node that happens to be lower may skip
+ * or repeat events without notice.
+ *
+ * Every subscriber has its own queue, which replayed events enter before any live event, and which
+ * is sent to the client by the send pool. Ingestion only enqueues, so a slow client can not hold up
+ * the commit of an ingest; a client still a whole replay buffer behind when new events arrive is
+ * disconnected and resumes from its last event on reconnect.
+ */
+@Service
+@RequiredArgsConstructor
+public class DiscountFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscountFeedService.class);
+
+    public static final String DISCOUNT_ADDED = "discount-added";
+    public static final String DISCOUNT_STARTED = "discount-started";
+    public static final String DISCOUNT_EXPIRED = "discount-expired";
+
+    private static final long IDS_PER_MILLISECOND = 1000;
+
+    private final DiscountRepository discountRepository;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Guards lastEventId and the queues of the subscribers, so events are numbered and queued in one order
+    private final Deque<DiscountFeedEventDTO> recentEvents = new ArrayDeque<>();
+    private long lastEventId = System.currentTimeMillis() * IDS_PER_MILLISECOND;
+
+    @Value("${price-comparator.discounts.feed.replay-size:1000}")
+    private int replaySize;
+
+    @Value("${price-comparator.discounts.feed.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${price-comparator.discounts.feed.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService sendExecutor;
+
+    @PostConstruct
+    void start() {
+        sendExecutor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("discount-feed-", 1).factory())
+                : Executors.newFixedThreadPool(sendThreads, new CustomizableThreadFactory("discount-feed-"));
+    }
+
+    @PreDestroy
+    void stop() {
+        sendExecutor.shutdownNow();
+    }
+
+    /**
+     * Registers a new subscriber and replays the buffered events it has not seen yet.
+     *
+     * @param lastSeenEventId the last event ID received by the client, or null for a fresh subscription
+     * @return the emitter streaming events to the client
+     */
+    public SseEmitter subscribe(Long lastSeenEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (recentEvents) {
+            // An ID this node never issued can not be placed in the buffer, so all of it is replayed
+            long cursor = lastSeenEventId == null ? lastEventId
+                    : lastSeenEventId > lastEventId ? Long.MIN_VALUE : lastSeenEventId;
+            subscriber.enqueue(recentEvents.stream()
+                    .filter(event -> event.getEventId() > cursor)
+                    .toList());
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Emits a "discount-added" event for every newly committed discount.
+     *
+     * @param event the ingest event published by DBService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountsIngested(DiscountsIngestedEvent event) {
+        List<Long> ids = event.getDiscounts().stream().map(Discount::getId).toList();
+        publish(DISCOUNT_ADDED, discountRepository.findAllWithDetailsByIdIn(ids));
+    }
+
+    /**
+     * Emits "discount-started" and "discount-expired" events when the date rolls over.
+     */
+    @Scheduled(cron = "${price-comparator.discounts.feed.rollover-cron:0 0 0 * * *}")
+    public void publishDateRollover() {
+        LocalDate today = LocalDate.now();
+        publish(DISCOUNT_STARTED, discountRepository.findStartingOn(today));
+        publish(DISCOUNT_EXPIRED, discountRepository.findEndingOn(today.minusDays(1)));
+    }
+
+    private void publish(String type, List<Discount> discounts) {
+        if (discounts.isEmpty()) {
+            return;
+        }
+        synchronized (recentEvents) {
+            List<DiscountFeedEventDTO> events = new ArrayList<>(discounts.size());
+            for (Discount discount : discounts) {
+                DiscountFeedEventDTO event = toEvent(++lastEventId, type, discount);
+                events.add(event);
+                recentEvents.addLast(event);
+                while (recentEvents.size() > replaySize) {
+                    recentEvents.removeFirst();
+                }
+            }
+            subscribers.forEach(subscriber -> subscriber.enqueue(events));
+        }
+        logger.debug("Published {} {} events to {} subscribers", discounts.size(), type, subscribers.size());
+    }
+
+    private DiscountFeedEventDTO toEvent(long eventId, String type, Discount discount) {
+        return new DiscountFeedEventDTO(
+                eventId,
+                type,
+                discount.getId(),
+                discount.getProduct().getId(),
+                discount.getProduct().getName(),
+                discount.getStore().getId(),
+                discount.getStore().getName(),
+                discount.getPercentage(),
+                discount.getFromDate(),
+                discount.getToDate());
+    }
+
+    /**
+     * A connected client and the events queued for it. At most one send task runs per subscriber,
+     * so its events are sent in the order they were queued.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Deque<DiscountFeedEventDTO> pending = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void enqueue(List<DiscountFeedEventDTO> events) {
+            if (events.isEmpty()) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.size() >= replaySize) {
+                    // Still a whole replay buffer behind; it resumes from its last event when it reconnects
+                    closed = true;
+                    pending.clear();
+                    subscribers.remove(this);
+                    sendExecutor.execute(emitter::complete);
+                    return;
+                }
+                pending.addAll(events);
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            sendExecutor.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                DiscountFeedEventDTO event;
+                synchronized (this) {
+                    event = pending.pollFirst();
+                    if (event == null || closed) {
+                        sending = false;
+                        return;
+                    }
+                }
+                if (!send(event)) {
+                    synchronized (this) {
+                        closed = true;
+                        sending = false;
+                        pending.clear();
+                    }
+                    subscribers.remove(this);
+                    return;
+                }
+            }
+        }
+
+        private boolean send(DiscountFeedEventDTO event) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getEventId()))
+                        .name(event.getType())
+                        .data(event));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+    }
+}
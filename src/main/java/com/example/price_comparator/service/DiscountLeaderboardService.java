@@ -0,0 +1,322 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.catalog.CatalogReadModel;
+import com.example.price_comparator.catalog.CatalogSnapshot;
+import com.example.price_comparator.dto.DiscountDTO;
+import com.example.price_comparator.event.DiscountsIngestedEvent;
+import com.example.price_comparator.model.Discount;
+import com.example.price_comparator.repository.DiscountRepository;
+import com.example.price_comparator.repository.PriceRepository;
+import com.example.price_comparator.utils.PriceIndex;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Service maintaining precomputed "highest discount" leaderboards per day.
+ *
+ * Each day has one overall board plus one board per store and per category. A board keeps only the
+ * best discount of every product and is bounded to the configured size with a min-heap, so building
+ * it costs O(n log k) and reading a page is a sublist of an already sorted, already mapped list.
+ * Boards are built on first use from the current catalog snapshot, without querying the database,
+ * and updated incrementally when new discounts are ingested. A board built from a snapshot that
+ * misses an ingest committed before the board was stored is rebuilt once a newer snapshot, which
+ * includes the ingest, is published. At most MAX_CACHED_DAYS days are kept; the least recently read
+ * one is evicted first.
+ *
+ * Lookups of the daily boards are counted as hits and misses of the "discount-leaderboards" cache.
+ */
+@Service
+@Timed("price_comparator.service")
+@RequiredArgsConstructor
+public class DiscountLeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscountLeaderboardService.class);
+
+    private static final int MAX_CACHED_DAYS = 31;
+    private static final String CACHE_NAME = "discount-leaderboards";
+
+    private final DiscountRepository discountRepository;
+    private final PriceRepository priceRepository;
+    private final DiscountMapperService discountMapper;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<LocalDate, DailyLeaderboard> leaderboards = new ConcurrentHashMap<>();
+    private final Map<LocalDate, ReentrantLock> buildLocks = new ConcurrentHashMap<>();
+    private final AtomicLong accessClock = new AtomicLong();
+
+    @Value("${price-comparator.discounts.leaderboard-size:100}")
+    private int leaderboardSize;
+
+    private Counter cacheHits;
+    private Counter cacheMisses;
+    private Counter cacheEvictions;
+
+    @PostConstruct
+    void registerMetrics() {
+        // Same meters as the caches instrumented by Spring Boot
+        cacheHits = Counter.builder("cache.gets").tags("cache", CACHE_NAME, "result", "hit").register(meterRegistry);
+        cacheMisses = Counter.builder("cache.gets").tags("cache", CACHE_NAME, "result", "miss").register(meterRegistry);
+        cacheEvictions = Counter.builder("cache.evictions").tags("cache", CACHE_NAME).register(meterRegistry);
+        Gauge.builder("cache.size", leaderboards, Map::size).tags("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    /**
+     * Returns a page of the products with the highest discount active on the given date,
+     * ordered by discount percentage in descending order.
+     *
+     * @param date the date the discounts must be active on
+     * @param storeId optional store to restrict the leaderboard to
+     * @param categoryId optional category to restrict the leaderboard to (ignored when a store is given)
+     * @param limit maximum number of entries to return
+     * @param offset number of entries to skip
+     * @return the requested page, empty if the offset is past the end of the leaderboard
+     * @throws IllegalArgumentException if limit or offset are out of range
+     */
+    public List<DiscountDTO> getTopDiscounts(LocalDate date, Long storeId, Long categoryId, int limit, int offset) {
+        if (limit <= 0 || offset < 0) {
+            throw new IllegalArgumentException("Limit must be positive and offset must not be negative");
+        }
+
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        DailyLeaderboard leaderboard = leaderboards.get(date);
+        if (leaderboard != null && leaderboard.version >= snapshot.version()) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+            leaderboard = getOrBuildLeaderboard(date, snapshot);
+        }
+        leaderboard.lastAccess = accessClock.incrementAndGet();
+
+        TopDiscounts board;
+        if (storeId != null) {
+            board = leaderboard.byStore.get(storeId);
+        } else if (categoryId != null) {
+            board = leaderboard.byCategory.get(categoryId);
+        } else {
+            board = leaderboard.overall;
+        }
+
+        if (board == null) {
+            return List.of();
+        }
+        List<DiscountDTO> ranked = board.ranked;
+        if (offset >= ranked.size()) {
+            return List.of();
+        }
+        return ranked.subList(offset, Math.min(ranked.size(), offset + limit));
+    }
+
+    /**
+     * Offers newly committed discounts to every leaderboard already built for a day they are active on,
+     * so they are ranked before the catalog snapshot including them is published.
+     *
+     * @param event the ingest event published by DBService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountsIngested(DiscountsIngestedEvent event) {
+        if (leaderboards.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = event.getDiscounts().stream().map(Discount::getId).toList();
+        List<Entry> entries = readOnly().execute(status -> toEntries(discountRepository.findAllWithDetailsByIdIn(ids)));
+
+        leaderboards.forEach((date, leaderboard) -> leaderboard.offerAll(entries.stream()
+                .filter(entry -> entry.isActiveOn(date))
+                .toList()));
+        logger.debug("Refreshed {} discount leaderboards with {} new discounts", leaderboards.size(), entries.size());
+    }
+
+    /**
+     * Builds the board of a day from the snapshot, unless another request already built it from the
+     * same or a newer one. Boards of other days keep being read and updated meanwhile.
+     */
+    private DailyLeaderboard getOrBuildLeaderboard(LocalDate date, CatalogSnapshot snapshot) {
+        ReentrantLock lock = buildLocks.computeIfAbsent(date, d -> new ReentrantLock());
+        lock.lock();
+        try {
+            DailyLeaderboard leaderboard = leaderboards.get(date);
+            if (leaderboard != null && leaderboard.version >= snapshot.version()) {
+                return leaderboard;
+            }
+
+            leaderboard = buildLeaderboard(date, snapshot);
+            leaderboard.lastAccess = accessClock.incrementAndGet();
+            if (leaderboards.put(date, leaderboard) == null) {
+                evictLeastRecentlyUsed();
+            }
+            return leaderboard;
+        } finally {
+            lock.unlock();
+            buildLocks.remove(date, lock);
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        while (leaderboards.size() > MAX_CACHED_DAYS) {
+            leaderboards.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .ifPresent(leastRecent -> {
+                        if (leaderboards.remove(leastRecent.getKey(), leastRecent.getValue())) {
+                            cacheEvictions.increment();
+                        }
+                    });
+        }
+    }
+
+    private DailyLeaderboard buildLeaderboard(LocalDate date, CatalogSnapshot snapshot) {
+        CatalogReadModel catalog = snapshot.catalog();
+        int day = CatalogReadModel.toDay(date);
+        DailyLeaderboard leaderboard = new DailyLeaderboard(leaderboardSize, snapshot.version());
+        // In ID order, so the first of equal discounts wins as it did when they were read from the database
+        leaderboard.offerAll(IntStream.range(0, catalog.discountCount())
+                .filter(row -> catalog.discountFromDay(row) <= day && day <= catalog.discountToDay(row))
+                .boxed()
+                .sorted(Comparator.comparingLong(catalog::discountId))
+                .map(row -> toEntry(catalog, row))
+                .toList());
+        logger.debug("Built discount leaderboard for {} from catalog version {} with {} products",
+                date, snapshot.version(), leaderboard.overall.ranked.size());
+        return leaderboard;
+    }
+
+    private Entry toEntry(CatalogReadModel catalog, int row) {
+        int product = catalog.discountProduct(row);
+        return new Entry(
+                catalog.productId(product),
+                catalog.storeId(catalog.discountStore(row)),
+                catalog.categoryId(catalog.productCategory(product)),
+                catalog.discountPercentage(row),
+                CatalogReadModel.toDate(catalog.discountFromDay(row)),
+                CatalogReadModel.toDate(catalog.discountToDay(row)),
+                discountMapper.toDiscountDTO(catalog, row));
+    }
+
+    private List<Entry> toEntries(List<Discount> discounts) {
+        if (discounts.isEmpty()) {
+            return List.of();
+        }
+
+        PriceIndex prices = PriceIndex.of(priceRepository.findEntryViewsByProductIdInAndEntryDateIn(
+                discounts.stream().map(d -> d.getProduct().getId()).collect(Collectors.toSet()),
+                discounts.stream().map(Discount::getEntryDate).collect(Collectors.toSet())));
+
+        return discounts.stream()
+                .map(discount -> new Entry(
+                        discount.getProduct().getId(),
+                        discount.getStore().getId(),
+                        discount.getProduct().getCategory().getId(),
+                        discount.getPercentage(),
+                        discount.getFromDate(),
+                        discount.getToDate(),
+                        discountMapper.toDiscountDTO(discount, prices)))
+                .toList();
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    /**
+     * A discount prepared for ranking, with its DTO mapped once when it enters a leaderboard.
+     */
+    private record Entry(String productId, Long storeId, Long categoryId, BigDecimal percentage,
+                         LocalDate fromDate, LocalDate toDate, DiscountDTO dto) {
+        boolean isActiveOn(LocalDate date) {
+            return !date.isBefore(fromDate) && !date.isAfter(toDate);
+        }
+    }
+
+    /**
+     * The overall, per-store and per-category leaderboards of a single day, built from the given
+     * catalog version.
+     */
+    private static final class DailyLeaderboard {
+        private final int size;
+        private final long version;
+        private final TopDiscounts overall;
+        private final Map<Long, TopDiscounts> byStore = new ConcurrentHashMap<>();
+        private final Map<Long, TopDiscounts> byCategory = new ConcurrentHashMap<>();
+        private volatile long lastAccess;
+
+        private DailyLeaderboard(int size, long version) {
+            this.size = size;
+            this.version = version;
+            this.overall = new TopDiscounts(size);
+        }
+
+        private synchronized void offerAll(List<Entry> entries) {
+            for (Entry entry : entries) {
+                overall.offer(entry);
+                byStore.computeIfAbsent(entry.storeId(), id -> new TopDiscounts(size)).offer(entry);
+                byCategory.computeIfAbsent(entry.categoryId(), id -> new TopDiscounts(size)).offer(entry);
+            }
+            overall.publish();
+            byStore.values().forEach(TopDiscounts::publish);
+            byCategory.values().forEach(TopDiscounts::publish);
+        }
+    }
+
+    /**
+     * Bounded top-k of the best discount per product. Writers are serialized by the owning
+     * DailyLeaderboard; readers only see the immutable ranked list published after each batch.
+     */
+    private static final class TopDiscounts {
+        private final int capacity;
+        private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparing(Entry::percentage));
+        private final Map<String, Entry> bestPerProduct = new HashMap<>();
+        private volatile List<DiscountDTO> ranked = List.of();
+
+        private TopDiscounts(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private void offer(Entry entry) {
+            Entry current = bestPerProduct.get(entry.productId());
+            if (current != null) {
+                if (entry.percentage().compareTo(current.percentage()) <= 0) {
+                    return;
+                }
+                heap.remove(current);
+            } else if (heap.size() >= capacity) {
+                if (entry.percentage().compareTo(heap.peek().percentage()) <= 0) {
+                    return;
+                }
+                bestPerProduct.remove(heap.poll().productId());
+            }
+            heap.add(entry);
+            bestPerProduct.put(entry.productId(), entry);
+        }
+
+        private void publish() {
+            ranked = heap.stream()
+                    .sorted(Comparator.comparing(Entry::percentage).reversed())
+                    .map(Entry::dto)
+                    .toList();
+        }
+    }
+}
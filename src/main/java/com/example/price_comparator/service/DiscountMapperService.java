@@ -1,12 +1,14 @@
 package com.example.price_comparator.service;
 
+import com.example.price_comparator.catalog.CatalogReadModel;
 import com.example.price_comparator.dto.*;
+import com.example.price_comparator.dto.projection.DiscountView;
 import com.example.price_comparator.model.*;
+import com.example.price_comparator.utils.Money;
+import com.example.price_comparator.utils.PriceIndex;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Service class responsible for mapping Discount model entities
@@ -15,19 +17,93 @@ import java.util.Optional;
 @Service
 public class DiscountMapperService {
     public DiscountDTO toDiscountDTO(Discount discount){
+        if(discount == null){
+            return null;
+        }
+        List<Price> prices = discount.getProduct().getPrices();
+        return toDiscountDTO(discount, PriceIndex.ofPrices(prices != null ? prices : List.of()));
+    }
+
+    /**
+     * Maps a discount, looking its price up in an index loaded up front (e.g. one query for
+     * all discounts of a list) instead of scanning the lazy Product.prices collection.
+     *
+     * @param discount the discount, ideally loaded with its product, category, brand and store
+     * @param prices the index containing the price of the product in the discount's store on its entry date
+     * @return the corresponding DiscountDTO
+     */
+    public DiscountDTO toDiscountDTO(Discount discount, PriceIndex prices){
         if(discount == null){
             return null;
         }
         return new DiscountDTO(
                 discount.getId(),
                 toStoreDTO(discount.getStore()),
-                toDiscountProductDTO(discount.getProduct(), discount.getStore(), discount.getEntryDate()),
+                toDiscountProductDTO(discount, prices),
                 discount.getFromDate(),
                 discount.getToDate(),
                 discount.getPercentage()
         );
     }
 
+    /**
+     * Maps a discount projection, which already carries every field of the DTO, without touching any entity.
+     *
+     * @param discount the discount projection
+     * @return the corresponding DiscountDTO
+     */
+    public DiscountDTO toDiscountDTO(DiscountView discount){
+        return new DiscountDTO(
+                discount.getId(),
+                new StoreDTO(discount.getStoreId(), discount.getStoreName()),
+                new DiscountProductDTO(
+                        discount.getProductId(),
+                        discount.getProductName(),
+                        new CategoryDTO(discount.getCategoryId(), discount.getCategoryName()),
+                        new BrandDTO(discount.getBrandId(), discount.getBrandName()),
+                        discount.getPackageQuantity(),
+                        discount.getPackageUnit(),
+                        discount.getPrice() != null ? new PriceDTO(discount.getPrice(), discount.getCurrency()) : null
+                ),
+                discount.getFromDate(),
+                discount.getToDate(),
+                discount.getPercentage()
+        );
+    }
+
+    /**
+     * Maps a discount row of the catalog read model, looking its price up in the same model.
+     *
+     * @param catalog the read model
+     * @param row the discount row
+     * @return the corresponding DiscountDTO
+     */
+    public DiscountDTO toDiscountDTO(CatalogReadModel catalog, int row){
+        int product = catalog.discountProduct(row);
+        int store = catalog.discountStore(row);
+        int category = catalog.productCategory(product);
+        int brand = catalog.productBrand(product);
+        int price = catalog.priceRowOn(product, store, catalog.discountEntryDay(row));
+        return new DiscountDTO(
+                catalog.discountId(row),
+                new StoreDTO(catalog.storeId(store), catalog.storeName(store)),
+                new DiscountProductDTO(
+                        catalog.productId(product),
+                        catalog.productName(product),
+                        new CategoryDTO(catalog.categoryId(category), catalog.categoryName(category)),
+                        new BrandDTO(catalog.brandId(brand), catalog.brandName(brand)),
+                        catalog.packageQuantity(product),
+                        catalog.packageUnit(product),
+                        price != CatalogReadModel.NOT_FOUND
+                                ? new PriceDTO(Money.toBigDecimal(catalog.priceCents(price)), catalog.priceCurrency(price))
+                                : null
+                ),
+                CatalogReadModel.toDate(catalog.discountFromDay(row)),
+                CatalogReadModel.toDate(catalog.discountToDay(row)),
+                catalog.discountPercentage(row)
+        );
+    }
+
     private StoreDTO toStoreDTO(Store store){
         if(store == null){
             return null;
@@ -35,7 +111,8 @@ public class DiscountMapperService {
         return new StoreDTO(store.getId(), store.getName());
     }
 
-    private DiscountProductDTO toDiscountProductDTO(Product product, Store store, LocalDate entryDate){
+    private DiscountProductDTO toDiscountProductDTO(Discount discount, PriceIndex prices){
+        Product product = discount.getProduct();
         if(product == null){
             return null;
         }
@@ -47,7 +124,7 @@ public class DiscountMapperService {
                 toBrandDTO(product.getBrand()),
                 product.getPackageQuantity(),
                 product.getPackageUnit(),
-                toPriceDTO(product.getPrices(), store, entryDate)
+                prices.find(product.getId(), discount.getStore().getId(), discount.getEntryDate())
         );
     }
 
@@ -64,19 +141,4 @@ public class DiscountMapperService {
         }
         return new BrandDTO(brand.getId(), brand.getName());
     }
-
-    private PriceDTO toPriceDTO(List<Price> prices, Store store, LocalDate entryDate){
-        if(prices == null){
-            return null;
-        }
-
-        // Find price that matches both store and entry date
-        Optional<Price> matchingPrice = prices.stream()
-                .filter(price -> price.getStore().getId().equals(store.getId()))
-                .filter(price -> price.getEntryDate().equals(entryDate))
-                .findFirst();
-
-        return matchingPrice.map(price -> new PriceDTO(price.getPrice(), price.getCurrency()))
-                .orElse(null);
-    }
 }
@@ -1,16 +1,23 @@
 package com.example.price_comparator.service;
 
+import com.example.price_comparator.catalog.CatalogReadModel;
+import com.example.price_comparator.dto.CursorPageDTO;
 import com.example.price_comparator.dto.DiscountDTO;
-import com.example.price_comparator.model.Discount;
+import com.example.price_comparator.dto.projection.DiscountView;
 import com.example.price_comparator.repository.DiscountRepository;
-import com.example.price_comparator.utils.PriceHelpers;
+import com.example.price_comparator.repository.StoreRepository;
+import com.example.price_comparator.utils.CursorPaging;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service class responsible for handling business logic related to discounts.
@@ -18,6 +25,7 @@ import java.util.stream.Collectors;
  * the highest discounts per product, and newly added discounts.
  */
 @Service
+@Timed("price_comparator.service")
 @RequiredArgsConstructor
 public class DiscountService {
 
@@ -25,78 +33,84 @@ public class DiscountService {
     private final LocalDate today = LocalDate.of(2025, 5, 3);
 
     private final DiscountRepository discountRepository;
+    private final StoreRepository storeRepository;
     private final DiscountMapperService discountMapper;
-    private final PriceHelpers priceHelpers;
+    private final DiscountLeaderboardService discountLeaderboard;
+    private final CatalogSnapshotService catalogSnapshotService;
 
     /**
-     * Retrieves all discounts from the database.
+     * Retrieves one page of all discounts ordered by ID, using keyset pagination.
      *
-     * @return a list of all DiscountDTOs
+     * @param cursor the ID of the last discount of the previous page, or null for the first page
+     * @param limit the maximum number of discounts to return
+     * @return the page of DiscountDTOs and the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is not a number or the limit is out of range
      */
-    public List<DiscountDTO> getAllDiscounts() {
-        return discountRepository.findAll().stream()
-                .map(discountMapper::toDiscountDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<DiscountDTO> getDiscounts(String cursor, int limit) {
+        return toPage(discountRepository.findViewsAfter(
+                parseCursor(cursor), Limit.of(CursorPaging.rowsToFetch(limit))), limit);
     }
 
     /**
-     * Retrieves all discounts that are currently active on a given date.
+     * Retrieves all discounts that are currently active on a given date, ordered by ID.
+     * The discounts are read from the current catalog snapshot without querying the database.
      *
      * @param date the date to check for active discounts
      * @return a list of DiscountDTOs that are active on the specified date
      */
     public List<DiscountDTO> getActiveDiscounts(LocalDate date) {
-        return discountRepository.findAll().stream()
-                .filter(d -> priceHelpers.isDiscountActive(d, date))
-                .map(discountMapper::toDiscountDTO)
-                .collect(Collectors.toList());
+        CatalogReadModel catalog = catalogSnapshotService.getModel();
+        int day = CatalogReadModel.toDay(date);
+        return toDiscountDTOs(catalog, row -> catalog.discountFromDay(row) <= day && day <= catalog.discountToDay(row));
     }
 
     /**
-     * Retrieves all discounts with the specified entry date.
+     * Retrieves one page of the discounts with the specified entry date.
      *
      * @param entryDate the date to filter discounts by
-     * @return list of DiscountDTOs for the given entry date
+     * @param cursor the ID of the last discount of the previous page, or null for the first page
+     * @param limit the maximum number of discounts to return
+     * @return the page of DiscountDTOs for the given entry date
+     * @throws IllegalArgumentException if the cursor is not a number or the limit is out of range
      */
-    public List<DiscountDTO> getDiscountsByEntryDate(LocalDate entryDate) {
-        return discountRepository.findByEntryDate(entryDate).stream()
-                .map(discountMapper::toDiscountDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<DiscountDTO> getDiscountsByEntryDate(LocalDate entryDate, String cursor, int limit) {
+        return toPage(discountRepository.findViewsByEntryDateAfter(
+                entryDate, parseCursor(cursor), Limit.of(CursorPaging.rowsToFetch(limit))), limit);
     }
 
     /**
-     * Retrieves all discounts for a specific store by store ID.
+     * Retrieves one page of the discounts of a specific store.
      *
      * @param storeId the ID of the store
-     * @return list of DiscountDTOs for the specified store
+     * @param cursor the ID of the last discount of the previous page, or null for the first page
+     * @param limit the maximum number of discounts to return
+     * @return the page of DiscountDTOs for the specified store, or null if the store does not exist
+     * @throws IllegalArgumentException if the cursor is not a number or the limit is out of range
      */
-    public List<DiscountDTO> getDiscountsByStore(Long storeId) {
-        return discountRepository.findByStoreId(storeId).stream()
-                .map(discountMapper::toDiscountDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<DiscountDTO> getDiscountsByStore(Long storeId, String cursor, int limit) {
+        // The keyset query alone returns an empty page for an unknown store
+        if (!storeRepository.existsById(storeId)) {
+            return null;
+        }
+        return toPage(discountRepository.findViewsByStoreIdAfter(
+                storeId, parseCursor(cursor), Limit.of(CursorPaging.rowsToFetch(limit))), limit);
     }
 
     /**
-     * Retrieves the products with the highest currently active discount.
+     * Retrieves a page of the products with the highest discount active on a given date,
+     * optionally restricted to a store or a category.
      * For each product, the discount with the maximum percentage is selected.
      *
-     * @return list of DiscountDTOs representing the highest current discount per product
+     * @param date the date the discounts must be active on
+     * @param storeId optional store ID to filter by
+     * @param categoryId optional category ID to filter by
+     * @param limit maximum number of results
+     * @param offset number of results to skip
+     * @return list of DiscountDTOs representing the highest discount per product, in descending order
      */
-    public List<DiscountDTO> getProductsWithHighestCurrentDiscount() {
-        List<Discount> activeDiscounts = discountRepository.findActiveDiscounts(today);
-
-        // Group discounts by product id and get max percentage discount per product
-        Map<String, Discount> maxDiscountsPerProduct = activeDiscounts.stream()
-                .collect(Collectors.toMap(
-                        d -> d.getProduct().getId(),
-                        d -> d,
-                        (d1, d2) -> d1.getPercentage().compareTo(d2.getPercentage()) > 0 ? d1 : d2));
-
-        // Map to DTOs (assumes you have a mapper)
-        return maxDiscountsPerProduct.values().stream()
-                .sorted((d1, d2) -> d2.getPercentage().compareTo(d1.getPercentage()))
-                .map(discountMapper::toDiscountDTO)
-                .collect(Collectors.toList());
+    public List<DiscountDTO> getProductsWithHighestCurrentDiscount(LocalDate date, Long storeId, Long categoryId,
+                                                                   int limit, int offset) {
+        return discountLeaderboard.getTopDiscounts(date, storeId, categoryId, limit, offset);
     }
 
     /**
@@ -106,19 +120,34 @@ public class DiscountService {
      * @return list of DiscountDTOs representing recently added and active discounts
      */
     public List<DiscountDTO> getNewDiscounts() {
-        LocalDate yesterday = today.minusDays(1);
+        CatalogReadModel catalog = catalogSnapshotService.getModel();
+        int today = CatalogReadModel.toDay(this.today);
+        int yesterday = today - 1;
 
-        // Fetch discounts with entryDate <= today
-        List<Discount> discountsUpToToday = discountRepository.findByEntryDateLessThanEqual(today);
+        return toDiscountDTOs(catalog, row -> catalog.discountEntryDay(row) <= today  // entered up to today
+                && catalog.discountFromDay(row) >= yesterday  // started yesterday or later
+                && catalog.discountFromDay(row) <= today && today <= catalog.discountToDay(row));  // active today
+    }
+
+    /**
+     * Maps the discount rows of the read model matching the filter, in ID order.
+     */
+    private List<DiscountDTO> toDiscountDTOs(CatalogReadModel catalog, IntPredicate filter) {
+        return IntStream.range(0, catalog.discountCount())
+                .filter(filter)
+                .boxed()
+                .sorted(Comparator.comparingLong(catalog::discountId))
+                .map(row -> discountMapper.toDiscountDTO(catalog, row))
+                .collect(Collectors.toList());
+    }
 
-        // Filter those that are active and started from yesterday onwards
-        List<Discount> recentActiveDiscounts = discountsUpToToday.stream()
-                .filter(d -> !d.getFromDate().isBefore(yesterday))  // started yesterday or later
-                .filter(d -> priceHelpers.isDiscountActive(d, today))  // active today
-                .toList();
+    private Long parseCursor(String cursor) {
+        return cursor != null ? Long.parseLong(cursor) : 0L;
+    }
 
-        return recentActiveDiscounts.stream()
+    private CursorPageDTO<DiscountDTO> toPage(List<DiscountView> rows, int limit) {
+        return CursorPaging.toPage(rows, limit, view -> String.valueOf(view.getId()), page -> page.stream()
                 .map(discountMapper::toDiscountDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 }
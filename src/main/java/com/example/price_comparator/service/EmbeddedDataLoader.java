@@ -0,0 +1,50 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.csv.DiscountCSVEntry;
+import com.example.price_comparator.dto.csv.PriceCSVEntry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Loads the CSV folders into the in-memory database when the 'embedded' profile is active.
+ *
+ * Unlike the 'load-data' runner, loading happens before the web server starts and ends with a
+ * catalog snapshot built on the calling thread, so the first request is already served from the
+ * complete data. Startup fails if the CSV files can not be loaded.
+ */
+@Service
+@Profile("embedded")
+@RequiredArgsConstructor
+public class EmbeddedDataLoader implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedDataLoader.class);
+
+    private final CSVParserService csvParserService;
+    private final DBService dbService;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        try {
+            List<PriceCSVEntry> priceEntries = csvParserService.parseAllPriceCSVFiles();
+            dbService.saveAllEntries(priceEntries);
+
+            List<DiscountCSVEntry> discountEntries = csvParserService.parseAllDiscountCSVFiles();
+            dbService.saveAllEntries(discountEntries);
+
+            catalogSnapshotService.refresh();
+            logger.info("Loaded {} price and {} discount entries in {} ms",
+                    priceEntries.size(), discountEntries.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load CSV data: " + e.getMessage(), e);
+        }
+    }
+}
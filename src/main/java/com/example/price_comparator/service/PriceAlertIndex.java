@@ -0,0 +1,86 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Index of active price alerts per (product, store), ordered by target price.
+ *
+ * An alert fires when the current price drops to or below its target, so for a given price the
+ * triggered alerts are exactly the tail of the map starting at that price. Finding and removing
+ * them is a range operation on a single NavigableMap, regardless of how many alerts are registered.
+ *
+ * Not thread-safe; PriceAlertRegistry guards each index with its own stripe lock.
+ */
+class PriceAlertIndex {
+
+    private final Map<String, Map<Long, NavigableMap<BigDecimal, Set<PriceAlertDTO>>>> alertsByProductAndStore = new HashMap<>();
+
+    void add(PriceAlertDTO alert) {
+        alertsByProductAndStore
+                .computeIfAbsent(alert.getProductId(), id -> new HashMap<>())
+                .computeIfAbsent(alert.getStoreId(), id -> new TreeMap<>())
+                .computeIfAbsent(alert.getTargetPrice(), price -> new LinkedHashSet<>())
+                .add(alert);
+    }
+
+    void remove(PriceAlertDTO alert) {
+        Map<Long, NavigableMap<BigDecimal, Set<PriceAlertDTO>>> stores = alertsByProductAndStore.get(alert.getProductId());
+        if (stores == null) {
+            return;
+        }
+        NavigableMap<BigDecimal, Set<PriceAlertDTO>> thresholds = stores.get(alert.getStoreId());
+        if (thresholds == null) {
+            return;
+        }
+        Set<PriceAlertDTO> alerts = thresholds.get(alert.getTargetPrice());
+        if (alerts != null && alerts.remove(alert) && alerts.isEmpty()) {
+            thresholds.remove(alert.getTargetPrice());
+            removeIfEmpty(alert.getProductId(), alert.getStoreId(), stores, thresholds);
+        }
+    }
+
+    /**
+     * Removes and returns every alert of the product in the store whose target price is at or above the given price.
+     */
+    List<PriceAlertDTO> pollTriggered(String productId, Long storeId, BigDecimal currentPrice) {
+        Map<Long, NavigableMap<BigDecimal, Set<PriceAlertDTO>>> stores = alertsByProductAndStore.get(productId);
+        if (stores == null) {
+            return List.of();
+        }
+        NavigableMap<BigDecimal, Set<PriceAlertDTO>> thresholds = stores.get(storeId);
+        if (thresholds == null) {
+            return List.of();
+        }
+
+        NavigableMap<BigDecimal, Set<PriceAlertDTO>> crossed = thresholds.tailMap(currentPrice, true);
+        if (crossed.isEmpty()) {
+            return List.of();
+        }
+        List<PriceAlertDTO> triggered = new ArrayList<>();
+        crossed.values().forEach(triggered::addAll);
+        crossed.clear();
+        removeIfEmpty(productId, storeId, stores, thresholds);
+        return triggered;
+    }
+
+    /**
+     * Returns the IDs of the products that have at least one alert in this index.
+     */
+    Set<String> productIds() {
+        return new HashSet<>(alertsByProductAndStore.keySet());
+    }
+
+    private void removeIfEmpty(String productId, Long storeId,
+                               Map<Long, NavigableMap<BigDecimal, Set<PriceAlertDTO>>> stores,
+                               NavigableMap<BigDecimal, Set<PriceAlertDTO>> thresholds) {
+        if (thresholds.isEmpty()) {
+            stores.remove(storeId);
+            if (stores.isEmpty()) {
+                alertsByProductAndStore.remove(productId);
+            }
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead, append-only journal of price alert changes on local disk.
+ *
+ * Created alerts are appended before they are registered, and deactivated or triggered alerts are
+ * appended as removals, so the alert registry can be rebuilt after a restart by replaying the journal.
+ * Every record is length-prefixed and CRC-checked; a torn record at the end of the log, left by a crash
+ * in the middle of a write, is cut off on recovery.
+ *
+ * The log is split into numbered segments. Compaction closes the active segment and folds the closed
+ * segments into a snapshot holding only the alerts that are still active, so disk usage and recovery
+ * time grow with the number of live alerts instead of the number of changes ever made.
+ *
+ * Appends are written to the file immediately, which makes them survive a process crash, and forced
+ * to the storage device every fsync interval.
+ */
+@Component
+public class PriceAlertJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceAlertJournal.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x50414C53;
+    private static final int FORMAT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_SIZE = 24;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 4 * 1024;
+    private static final int MAX_STRING_SIZE = 1024;
+    private static final int MAX_DECIMAL_SIZE = 1024;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    // Written before the length of the target price was an int; still read from older journals
+    private static final byte CREATED_SHORT_PRICE = 1;
+    private static final byte REMOVED = 2;
+    private static final byte CREATED = 3;
+
+    private static final String SNAPSHOT_FILE = "alerts.snapshot";
+    private static final String SEGMENT_PREFIX = "alerts-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long compactionThreshold;
+
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Object compactionLock = new Object();
+
+    // Guarded by this
+    private FileChannel activeChannel;
+    private long activeSegment;
+    private long uncompactedRecords;
+    private boolean dirty;
+
+    public PriceAlertJournal(
+            @Value("${price-comparator.alerts.journal.dir:data/alerts}") Path directory,
+            @Value("${price-comparator.alerts.journal.compaction-threshold:100000}") long compactionThreshold) {
+        this.directory = directory;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Replays the snapshot and the log segments written after it, and opens the journal for appends.
+     * Must be called once before anything is appended.
+     *
+     * @return the alerts still active, in creation order
+     */
+    public synchronized Collection<PriceAlertDTO> recover() {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(snapshotTempFile());
+
+            ReplayState state = readSnapshot();
+            List<Long> segments = listSegments();
+            long lastSegment = state.compactedThrough;
+            long lastValidPosition = 0;
+            for (long segment : segments) {
+                if (segment <= state.compactedThrough) {
+                    // Left over by a compaction that stopped after writing the snapshot
+                    Files.deleteIfExists(segmentFile(segment));
+                    continue;
+                }
+                long recordsBefore = state.records;
+                try (FileChannel channel = FileChannel.open(segmentFile(segment), StandardOpenOption.READ)) {
+                    lastValidPosition = replay(channel, 0, state::apply);
+                    if (lastValidPosition < channel.size()) {
+                        logger.warn("Ignoring {} bytes of incomplete records at the end of alert journal segment {}",
+                                channel.size() - lastValidPosition, segment);
+                    }
+                }
+                uncompactedRecords += state.records - recordsBefore;
+                lastSegment = segment;
+            }
+
+            if (lastSegment > state.compactedThrough) {
+                openSegment(lastSegment, lastValidPosition);
+            } else {
+                openSegment(lastSegment + 1, 0);
+            }
+
+            logger.info("Recovered {} active price alerts from {} journal records in {} ms",
+                    state.alerts.size(), state.records, (System.nanoTime() - start) / 1_000_000);
+            return state.alerts.values();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the price alert journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a newly created alert.
+     */
+    public void appendCreated(PriceAlertDTO alert) {
+        appendCreated(List.of(alert));
+    }
+
+    /**
+     * Appends newly created alerts with as few writes as the buffer allows.
+     */
+    public synchronized void appendCreated(Collection<PriceAlertDTO> alerts) {
+        ensureOpen();
+        writeBuffer.clear();
+        for (PriceAlertDTO alert : alerts) {
+            if (writeBuffer.remaining() < MAX_RECORD_SIZE) {
+                flushWriteBuffer();
+            }
+            encodeCreated(writeBuffer, alert);
+        }
+        flushWriteBuffer();
+        uncompactedRecords += alerts.size();
+    }
+
+    /**
+     * Appends the removal of deactivated or triggered alerts.
+     */
+    public synchronized void appendRemoved(Collection<String> alertIds) {
+        if (alertIds.isEmpty()) {
+            return;
+        }
+        ensureOpen();
+        writeBuffer.clear();
+        for (String alertId : alertIds) {
+            if (writeBuffer.remaining() < MAX_RECORD_SIZE) {
+                flushWriteBuffer();
+            }
+            encodeRemoved(writeBuffer, alertId);
+        }
+        flushWriteBuffer();
+        uncompactedRecords += alertIds.size();
+    }
+
+    /**
+     * Forces appended records to the storage device.
+     */
+    @Scheduled(fixedDelayString = "${price-comparator.alerts.journal.fsync-interval-ms:1000}")
+    public synchronized void sync() {
+        if (activeChannel == null || !dirty) {
+            return;
+        }
+        try {
+            activeChannel.force(false);
+            dirty = false;
+        } catch (IOException e) {
+            logger.error("Failed to sync the price alert journal: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compacts the journal once enough records were appended since the last compaction.
+     */
+    @Scheduled(fixedDelayString = "${price-comparator.alerts.journal.compaction-check-ms:60000}")
+    public void compactIfNeeded() {
+        boolean needed;
+        synchronized (this) {
+            needed = activeChannel != null && uncompactedRecords >= compactionThreshold;
+        }
+        if (needed) {
+            compact();
+        }
+    }
+
+    /**
+     * Closes the active segment and folds every closed segment into a new snapshot.
+     * Appends continue on a fresh segment while the snapshot is being written.
+     */
+    public void compact() {
+        synchronized (compactionLock) {
+            long start = System.nanoTime();
+            try {
+                long closedSegment;
+                synchronized (this) {
+                    ensureOpen();
+                    closedSegment = activeSegment;
+                    activeChannel.force(false);
+                    activeChannel.close();
+                    openSegment(closedSegment + 1, 0);
+                    uncompactedRecords = 0;
+                }
+
+                ReplayState state = readSnapshot();
+                List<Long> folded = new ArrayList<>();
+                for (long segment : listSegments()) {
+                    if (segment > state.compactedThrough && segment <= closedSegment) {
+                        try (FileChannel channel = FileChannel.open(segmentFile(segment), StandardOpenOption.READ)) {
+                            replay(channel, 0, state::apply);
+                        }
+                        folded.add(segment);
+                    }
+                }
+
+                writeSnapshot(state.alerts.values(), closedSegment);
+                for (long segment : folded) {
+                    Files.deleteIfExists(segmentFile(segment));
+                }
+                logger.info("Compacted {} alert journal segments into a snapshot of {} alerts in {} ms",
+                        folded.size(), state.alerts.size(), (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException e) {
+                logger.error("Failed to compact the price alert journal: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (activeChannel == null) {
+            return;
+        }
+        try {
+            activeChannel.force(false);
+            activeChannel.close();
+        } catch (IOException e) {
+            logger.error("Failed to close the price alert journal: {}", e.getMessage(), e);
+        } finally {
+            activeChannel = null;
+        }
+    }
+
+    private void ensureOpen() {
+        if (activeChannel == null) {
+            throw new IllegalStateException("Price alert journal is not open");
+        }
+    }
+
+    private void openSegment(long segment, long position) throws IOException {
+        activeChannel = FileChannel.open(segmentFile(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // Cuts off a torn record left at the end of the segment
+        activeChannel.truncate(position);
+        activeChannel.position(position);
+        activeSegment = segment;
+    }
+
+    private void flushWriteBuffer() {
+        writeBuffer.flip();
+        try {
+            while (writeBuffer.hasRemaining()) {
+                activeChannel.write(writeBuffer);
+            }
+            dirty = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the price alert journal", e);
+        } finally {
+            writeBuffer.clear();
+        }
+    }
+
+    private ReplayState readSnapshot() throws IOException {
+        ReplayState state = new ReplayState();
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return state;
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read the whole header
+            }
+            header.flip();
+            if (header.remaining() < SNAPSHOT_HEADER_SIZE
+                    || header.getInt() != SNAPSHOT_MAGIC
+                    || header.getInt() != FORMAT_VERSION) {
+                throw new IllegalStateException("Unrecognized price alert snapshot " + snapshot);
+            }
+            long compactedThrough = header.getLong();
+            long count = header.getLong();
+
+            replay(channel, SNAPSHOT_HEADER_SIZE, state::apply);
+            if (state.alerts.size() != count) {
+                throw new IllegalStateException("Price alert snapshot " + snapshot + " holds "
+                        + state.alerts.size() + " alerts, expected " + count);
+            }
+            state.compactedThrough = compactedThrough;
+            state.records = 0;
+        }
+        return state;
+    }
+
+    private void writeSnapshot(Collection<PriceAlertDTO> alerts, long compactedThrough) throws IOException {
+        Path temp = snapshotTempFile();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.putInt(SNAPSHOT_MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(compactedThrough)
+                    .putLong(alerts.size());
+            for (PriceAlertDTO alert : alerts) {
+                if (buffer.remaining() < MAX_RECORD_SIZE) {
+                    writeFully(channel, buffer);
+                }
+                encodeCreated(buffer, alert);
+            }
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+        // Readers only ever see the previous or the new snapshot, never a partial one
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads records from the given position until the end of the file or the first incomplete
+     * or corrupt record.
+     *
+     * @return the position just after the last valid record
+     */
+    private static long replay(FileChannel channel, long position, RecordHandler handler) throws IOException {
+        channel.position(position);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        CRC32 crc = new CRC32();
+
+        while (true) {
+            if (buffer.remaining() < RECORD_HEADER_SIZE && !fill(channel, buffer, RECORD_HEADER_SIZE)) {
+                return position;
+            }
+            int length = buffer.getInt(buffer.position());
+            int checksum = buffer.getInt(buffer.position() + 4);
+            if (length <= 0 || length > MAX_RECORD_SIZE) {
+                return position;
+            }
+            int recordSize = RECORD_HEADER_SIZE + length;
+            if (buffer.remaining() < recordSize && !fill(channel, buffer, recordSize)) {
+                return position;
+            }
+
+            ByteBuffer payload = buffer.slice(buffer.position() + RECORD_HEADER_SIZE, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return position;
+            }
+            handler.accept(payload);
+            buffer.position(buffer.position() + recordSize);
+            position += recordSize;
+        }
+    }
+
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        buffer.compact();
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static void encodeCreated(ByteBuffer buffer, PriceAlertDTO alert) {
+        int start = beginRecord(buffer);
+        buffer.put(CREATED);
+        putString(buffer, alert.getId());
+        putString(buffer, alert.getProductId());
+        buffer.putLong(alert.getStoreId());
+        buffer.putInt(alert.getTargetPrice().scale());
+        byte[] unscaled = alert.getTargetPrice().unscaledValue().toByteArray();
+        if (unscaled.length > MAX_DECIMAL_SIZE) {
+            throw new IllegalArgumentException("Target price too long for the price alert journal");
+        }
+        buffer.putInt(unscaled.length);
+        buffer.put(unscaled);
+        buffer.putLong(alert.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(alert.getCreatedAt().getNano());
+        endRecord(buffer, start);
+    }
+
+    private static void encodeRemoved(ByteBuffer buffer, String alertId) {
+        int start = beginRecord(buffer);
+        buffer.put(REMOVED);
+        putString(buffer, alertId);
+        endRecord(buffer, start);
+    }
+
+    private static int beginRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + RECORD_HEADER_SIZE);
+        return start;
+    }
+
+    private static void endRecord(ByteBuffer buffer, int start) {
+        int length = buffer.position() - start - RECORD_HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(start + RECORD_HEADER_SIZE, length));
+        buffer.putInt(start, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_SIZE) {
+            throw new IllegalArgumentException("Value too long for the price alert journal");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer buffer, byte type) {
+        int scale = buffer.getInt();
+        // Older records hold the length in one byte, unsigned
+        int length = type == CREATED_SHORT_PRICE ? buffer.get() & 0xFF : buffer.getInt();
+        if (length > buffer.remaining()) {
+            throw new IllegalStateException("Target price of " + length + " bytes overruns its journal record");
+        }
+        if (length <= 8) {
+            long unscaled = 0;
+            for (int i = 0; i < length; i++) {
+                unscaled = (unscaled << 8) | (buffer.get() & 0xFF);
+            }
+            // Sign-extend the big-endian two's complement value
+            int shift = 64 - 8 * length;
+            return BigDecimal.valueOf(length == 0 ? 0 : (unscaled << shift) >> shift, scale);
+        }
+        byte[] unscaled = new byte[length];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentFile(long segment) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private Path snapshotTempFile() {
+        return directory.resolve(SNAPSHOT_FILE + ".tmp");
+    }
+
+    @FunctionalInterface
+    private interface RecordHandler {
+        void accept(ByteBuffer payload);
+    }
+
+    /**
+     * Alerts rebuilt from replayed records. Product IDs and target prices are deduplicated,
+     * since many alerts share them.
+     */
+    private static class ReplayState {
+        private final Map<String, PriceAlertDTO> alerts = new LinkedHashMap<>();
+        private final Map<String, String> productIds = new HashMap<>();
+        private final Map<BigDecimal, BigDecimal> targetPrices = new HashMap<>();
+        private long compactedThrough;
+        private long records;
+
+        void apply(ByteBuffer payload) {
+            records++;
+            byte type = payload.get();
+            String alertId = getString(payload);
+            if (type == REMOVED) {
+                alerts.remove(alertId);
+                return;
+            }
+
+            String productId = productIds.computeIfAbsent(getString(payload), id -> id);
+            long storeId = payload.getLong();
+            BigDecimal targetPrice = targetPrices.computeIfAbsent(getDecimal(payload, type), price -> price);
+            long epochSecond = payload.getLong();
+            int nano = payload.getInt();
+            alerts.put(alertId, new PriceAlertDTO(
+                    alertId,
+                    productId,
+                    storeId,
+                    targetPrice,
+                    true,
+                    LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC)));
+        }
+    }
+}
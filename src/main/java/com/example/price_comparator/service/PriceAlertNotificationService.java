@@ -0,0 +1,228 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+import com.example.price_comparator.dto.alert.PriceAlertNotificationDTO;
+import com.example.price_comparator.event.PriceAlertsTriggeredEvent;
+import com.example.price_comparator.model.AlertNotification;
+import com.example.price_comparator.model.enums.NotificationStatus;
+import com.example.price_comparator.repository.AlertNotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service delivering triggered price alerts to a webhook through a transactional outbox.
+ *
+ * Triggered alerts are first stored as PENDING rows in the alert_notifications table, so a
+ * notification is never lost when the webhook is slow or down, and nothing on the API path waits
+ * for it. A worker picks up due rows, posts them to the webhook in batches on its own thread pool,
+ * and retries failed batches with exponential backoff until they are delivered or run out of attempts.
+ *
+ * The worker polls on its own thread rather than on the shared Spring scheduler, since it waits for
+ * every batch of a poll, up to the webhook timeout; a slow or unreachable webhook must not hold back
+ * the journal fsync, the alert evaluation or the other scheduled jobs.
+ */
+@Service
+@RequiredArgsConstructor
+public class PriceAlertNotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceAlertNotificationService.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final AlertNotificationRepository notificationRepository;
+    private final RestClient.Builder restClientBuilder;
+
+    @Value("${price-comparator.alerts.webhook.url:}")
+    private String webhookUrl;
+
+    @Value("${price-comparator.alerts.webhook.batch-size:100}")
+    private int batchSize;
+
+    @Value("${price-comparator.alerts.webhook.delivery-threads:4}")
+    private int deliveryThreads;
+
+    @Value("${price-comparator.alerts.webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${price-comparator.alerts.webhook.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${price-comparator.alerts.webhook.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${price-comparator.alerts.webhook.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService deliveryExecutor;
+    private ScheduledExecutorService pollExecutor;
+    private RestClient restClient;
+
+    @PostConstruct
+    void start() {
+        // Every poll hands out at most delivery-threads batches, which also bounds deliveries on virtual threads
+        deliveryExecutor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("alert-webhook-", 1).factory())
+                : Executors.newFixedThreadPool(deliveryThreads, new CustomizableThreadFactory("alert-webhook-"));
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        restClient = restClientBuilder.requestFactory(requestFactory).build();
+
+        if (!webhookUrl.isBlank()) {
+            pollExecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("alert-outbox-"));
+            pollExecutor.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pollExecutor != null) {
+            pollExecutor.shutdownNow();
+        }
+        deliveryExecutor.shutdown();
+    }
+
+    /**
+     * Stores triggered alerts in the outbox. Runs synchronously in its own transaction, since the event
+     * may be published after the transaction that triggered the alerts has already committed, and
+     * PriceAlertService journals the removal of the alerts only once this transaction has committed.
+     *
+     * @param event the event published by PriceAlertService
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onAlertsTriggered(PriceAlertsTriggeredEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AlertNotification> notifications = new ArrayList<>(event.getAlerts().size());
+        for (PriceAlertDTO alert : event.getAlerts()) {
+            notifications.add(new AlertNotification(
+                    null,
+                    alert.getId(),
+                    alert.getProductId(),
+                    alert.getStoreId(),
+                    alert.getTargetPrice(),
+                    now,
+                    NotificationStatus.PENDING,
+                    0,
+                    now,
+                    null
+            ));
+        }
+        notificationRepository.saveAll(notifications);
+    }
+
+    /**
+     * Sends due outbox entries to the webhook, one batch per delivery thread, and records the outcome.
+     * Does nothing when no webhook URL is configured.
+     */
+    public synchronized void deliverPending() {
+        if (webhookUrl.isBlank()) {
+            return;
+        }
+
+        List<AlertNotification> due = notificationRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                NotificationStatus.PENDING, LocalDateTime.now(), Limit.of(batchSize * deliveryThreads));
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<AlertNotification> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            deliveries.add(CompletableFuture.runAsync(() -> deliver(batch), deliveryExecutor));
+        }
+        CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new)).join();
+
+        notificationRepository.saveAll(due);
+    }
+
+    private void poll() {
+        // An exception would cancel every later poll of the executor
+        try {
+            deliverPending();
+        } catch (RuntimeException e) {
+            logger.error("Failed to deliver pending price alert notifications: {}", e.getMessage(), e);
+        }
+    }
+
+    private void deliver(List<AlertNotification> batch) {
+        List<PriceAlertNotificationDTO> payload = batch.stream()
+                .map(notification -> new PriceAlertNotificationDTO(
+                        notification.getAlertId(),
+                        notification.getProductId(),
+                        notification.getStoreId(),
+                        notification.getTargetPrice(),
+                        notification.getTriggeredAt()))
+                .toList();
+
+        try {
+            restClient.post()
+                    .uri(webhookUrl)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(payload)
+                    .retrieve()
+                    .toBodilessEntity();
+
+            for (AlertNotification notification : batch) {
+                notification.setAttempts(notification.getAttempts() + 1);
+                notification.setStatus(NotificationStatus.SENT);
+                notification.setLastError(null);
+            }
+        } catch (RestClientException e) {
+            logger.warn("Failed to deliver {} price alert notifications: {}", batch.size(), e.getMessage());
+            LocalDateTime now = LocalDateTime.now();
+            for (AlertNotification notification : batch) {
+                int attempts = notification.getAttempts() + 1;
+                notification.setAttempts(attempts);
+                notification.setLastError(truncate(e.getMessage()));
+                if (attempts >= maxAttempts) {
+                    notification.setStatus(NotificationStatus.FAILED);
+                } else {
+                    notification.setNextAttemptAt(now.plus(backoff(attempts)));
+                }
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        return Duration.ofMillis(initialBackoffMs << Math.min(attempts - 1, 20));
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concurrent registry of active price alerts.
+ *
+ * Alerts are kept in a ConcurrentHashMap by ID, which gives O(1) deactivation and lock-free reads,
+ * and in a PriceAlertIndex by (product, store) and target price, which is split into stripes that
+ * each have their own lock. Writers and price checks on different products rarely share a stripe,
+ * so they do not contend.
+ *
+ * The active flag of every alert is an AtomicBoolean, so trigger and deactivate are atomic
+ * transitions: whichever call flips it first wins, and an alert is never triggered twice.
+ * The registered PriceAlertDTO is never mutated; callers get snapshot copies.
+ */
+class PriceAlertRegistry {
+
+    private record Registration(PriceAlertDTO alert, AtomicBoolean active) {
+    }
+
+    private final ConcurrentHashMap<String, Registration> alertsById = new ConcurrentHashMap<>();
+    private final PriceAlertIndex[] stripes;
+
+    PriceAlertRegistry(int stripeCount) {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two");
+        }
+        stripes = new PriceAlertIndex[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new PriceAlertIndex();
+        }
+    }
+
+    /**
+     * Registers an active alert.
+     */
+    void register(PriceAlertDTO alert) {
+        PriceAlertDTO registered = copyOf(alert, true);
+        alertsById.put(registered.getId(), new Registration(registered, new AtomicBoolean(true)));
+
+        PriceAlertIndex stripe = stripeFor(registered.getProductId(), registered.getStoreId());
+        synchronized (stripe) {
+            stripe.add(registered);
+        }
+    }
+
+    /**
+     * Deactivates an alert if it is still active.
+     *
+     * @return true if this call deactivated the alert
+     */
+    boolean deactivate(String alertId) {
+        Registration registration = alertsById.get(alertId);
+        if (registration == null || !registration.active().compareAndSet(true, false)) {
+            return false;
+        }
+        alertsById.remove(alertId);
+
+        PriceAlertDTO alert = registration.alert();
+        PriceAlertIndex stripe = stripeFor(alert.getProductId(), alert.getStoreId());
+        synchronized (stripe) {
+            stripe.remove(alert);
+        }
+        return true;
+    }
+
+    /**
+     * Triggers and removes every active alert of the product in the store whose target price
+     * is at or above the given price.
+     *
+     * @return snapshots of the alerts triggered by this call, marked inactive
+     */
+    List<PriceAlertDTO> trigger(String productId, Long storeId, BigDecimal currentPrice) {
+        PriceAlertIndex stripe = stripeFor(productId, storeId);
+        List<PriceAlertDTO> crossed;
+        synchronized (stripe) {
+            crossed = stripe.pollTriggered(productId, storeId, currentPrice);
+        }
+        if (crossed.isEmpty()) {
+            return List.of();
+        }
+
+        List<PriceAlertDTO> triggered = new ArrayList<>(crossed.size());
+        for (PriceAlertDTO alert : crossed) {
+            Registration registration = alertsById.get(alert.getId());
+            if (registration != null && registration.active().compareAndSet(true, false)) {
+                alertsById.remove(alert.getId());
+                triggered.add(copyOf(alert, false));
+            }
+        }
+        return triggered;
+    }
+
+    /**
+     * Returns snapshots of all active alerts without taking any lock.
+     */
+    List<PriceAlertDTO> activeAlerts() {
+        List<PriceAlertDTO> active = new ArrayList<>(alertsById.size());
+        for (Registration registration : alertsById.values()) {
+            if (registration.active().get()) {
+                active.add(copyOf(registration.alert(), true));
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Returns the IDs of the products that have at least one active alert.
+     */
+    Set<String> alertedProductIds() {
+        Set<String> productIds = new HashSet<>();
+        for (PriceAlertIndex stripe : stripes) {
+            synchronized (stripe) {
+                productIds.addAll(stripe.productIds());
+            }
+        }
+        return productIds;
+    }
+
+    int size() {
+        return alertsById.size();
+    }
+
+    private PriceAlertIndex stripeFor(String productId, Long storeId) {
+        int hash = Objects.hash(productId, storeId);
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static PriceAlertDTO copyOf(PriceAlertDTO alert, boolean active) {
+        return new PriceAlertDTO(
+                alert.getId(),
+                alert.getProductId(),
+                alert.getStoreId(),
+                alert.getTargetPrice(),
+                active,
+                alert.getCreatedAt());
+    }
+}
@@ -1,32 +1,72 @@
 package com.example.price_comparator.service;
 
 import com.example.price_comparator.dto.alert.PriceAlertDTO;
-import com.example.price_comparator.model.Product;
-import com.example.price_comparator.model.Store;
+import com.example.price_comparator.dto.alert.PriceAlertRequestDTO;
+import com.example.price_comparator.dto.alert.PriceAlertResultDTO;
+import com.example.price_comparator.dto.projection.PriceEntryView;
+import com.example.price_comparator.event.PriceAlertsTriggeredEvent;
+import com.example.price_comparator.event.PricesIngestedEvent;
+import com.example.price_comparator.model.Price;
+import com.example.price_comparator.repository.PriceRepository;
 import com.example.price_comparator.repository.ProductRepository;
 import com.example.price_comparator.repository.StoreRepository;
-import com.example.price_comparator.utils.PriceHelpers;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.*;
 
+/**
+ * Service managing in-memory price alerts.
+ *
+ * Active alerts live in a concurrent, lock-striped registry indexed per (product, store) by
+ * target price, so evaluating a price is a range query on that index instead of a scan over
+ * every alert. Alerts are evaluated when new prices are ingested, and on demand against the
+ * current prices loaded with one query.
+ *
+ * Every change is written ahead to the PriceAlertJournal, and the registry is rebuilt from it on
+ * startup. The removal of a triggered alert is journaled only after its notification is in the
+ * outbox; an alert whose removal was not yet journaled when the process stopped is active again
+ * after the restart, so triggers are delivered at least once.
+ */
 @Service
+@Timed("price_comparator.service")
 @AllArgsConstructor
 public class PriceAlertService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PriceAlertService.class);
+
+    private static final int REGISTRY_STRIPES = 64;
+    private static final int EVALUATION_CHUNK_SIZE = 1000;
+    // The NUMERIC(10,2) range of prices; a target outside it could never be reached
+    private static final int TARGET_PRICE_SCALE = 2;
+    private static final BigDecimal MAX_TARGET_PRICE = new BigDecimal("99999999.99");
+
     // In-memory storage
-    private final List<PriceAlertDTO> alerts = new ArrayList<>();
+    private final PriceAlertRegistry registry = new PriceAlertRegistry(REGISTRY_STRIPES);
 
     private final ProductRepository productRepository;
     private final StoreRepository storeRepository;
-    private final PriceHelpers priceHelpers;
+    private final PriceRepository priceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PriceAlertJournal journal;
+
+    /**
+     * Rebuilds the registry from the alert journal.
+     */
+    @PostConstruct
+    void recoverAlerts() {
+        journal.recover().forEach(registry::register);
+    }
 
     // Create alert
     public PriceAlertDTO createAlert(String productId, Long storeId, BigDecimal targetPrice) {
@@ -34,6 +74,10 @@ public class PriceAlertService {
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         storeRepository.findById(storeId)
                 .orElseThrow(() -> new IllegalArgumentException("Store not found"));
+        String error = validateTargetPrice(targetPrice);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
 
         PriceAlertDTO newAlert = new PriceAlertDTO(
                 UUID.randomUUID().toString(),
@@ -44,84 +88,203 @@ public class PriceAlertService {
                 LocalDateTime.now()
         );
 
-        synchronized(alerts) {
-            alerts.add(newAlert);
+        journal.appendCreated(newAlert);
+        registry.register(newAlert);
+        return newAlert;
+    }
+
+    /**
+     * Registers one chunk of a bulk request. Product and store IDs of the whole chunk are validated
+     * with one set-based query each, and the accepted alerts are journaled with a single write.
+     *
+     * @param requests   the alerts to register
+     * @param firstIndex position of the first alert of the chunk in the bulk request
+     * @return one result per request, in request order
+     */
+    public List<PriceAlertResultDTO> createAlerts(List<PriceAlertRequestDTO> requests, long firstIndex) {
+        Set<String> productIds = new HashSet<>();
+        Set<Long> storeIds = new HashSet<>();
+        for (PriceAlertRequestDTO request : requests) {
+            if (request.getProductId() != null) {
+                productIds.add(request.getProductId());
+            }
+            if (request.getStoreId() != null) {
+                storeIds.add(request.getStoreId());
+            }
         }
+        Set<String> knownProducts = productIds.isEmpty()
+                ? Set.of() : new HashSet<>(productRepository.findExistingIds(productIds));
+        Set<Long> knownStores = storeIds.isEmpty()
+                ? Set.of() : new HashSet<>(storeRepository.findExistingIds(storeIds));
 
-        return newAlert;
+        LocalDateTime now = LocalDateTime.now();
+        List<PriceAlertResultDTO> results = new ArrayList<>(requests.size());
+        List<PriceAlertDTO> created = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            PriceAlertRequestDTO request = requests.get(i);
+            String error = validate(request, knownProducts, knownStores);
+            if (error != null) {
+                results.add(new PriceAlertResultDTO(firstIndex + i, false, null, error));
+                continue;
+            }
+
+            PriceAlertDTO alert = new PriceAlertDTO(
+                    UUID.randomUUID().toString(),
+                    request.getProductId(),
+                    request.getStoreId(),
+                    request.getTargetPrice(),
+                    true,
+                    now
+            );
+            created.add(alert);
+            results.add(new PriceAlertResultDTO(firstIndex + i, true, alert.getId(), null));
+        }
+
+        if (!created.isEmpty()) {
+            journal.appendCreated(created);
+            created.forEach(registry::register);
+        }
+        return results;
+    }
+
+    private static String validate(PriceAlertRequestDTO request, Set<String> knownProducts, Set<Long> knownStores) {
+        // Checked first, since the immutable empty sets reject contains(null)
+        if (request.getProductId() == null) {
+            return "Product ID is required";
+        }
+        if (!knownProducts.contains(request.getProductId())) {
+            return "Product not found";
+        }
+        if (request.getStoreId() == null) {
+            return "Store ID is required";
+        }
+        if (!knownStores.contains(request.getStoreId())) {
+            return "Store not found";
+        }
+        return validateTargetPrice(request.getTargetPrice());
+    }
+
+    private static String validateTargetPrice(BigDecimal targetPrice) {
+        if (targetPrice == null || targetPrice.signum() <= 0) {
+            return "Target price must be positive";
+        }
+        if (targetPrice.stripTrailingZeros().scale() > TARGET_PRICE_SCALE) {
+            return "Target price can have at most " + TARGET_PRICE_SCALE + " decimals";
+        }
+        if (targetPrice.compareTo(MAX_TARGET_PRICE) > 0) {
+            return "Target price can be at most " + MAX_TARGET_PRICE;
+        }
+        return null;
     }
 
     // Get alerts
     public List<PriceAlertDTO> getActiveAlerts() {
-        synchronized(alerts) {
-            return alerts.stream()
-                    .filter(PriceAlertDTO::isActive)
-                    .collect(Collectors.toList());
-        }
+        return registry.activeAlerts();
     }
 
     // Deactivate alert
     public void deactivateAlert(String alertId) {
-        synchronized(alerts) {
-            alerts.stream()
-                    .filter(alert -> alert.getId().equals(alertId))
-                    .findFirst()
-                    .ifPresent(alert -> alert.setActive(false));
+        if (registry.deactivate(alertId)) {
+            journal.appendRemoved(List.of(alertId));
         }
     }
 
-    // Check all active alerts
+    // Check all active alerts against the current price of every product in every store
     public List<PriceAlertDTO> checkAllActiveAlerts() {
-        List<PriceAlertDTO> triggeredAlerts = new ArrayList<>();
-        List<PriceAlertDTO> currentAlerts;
-
-        synchronized(this) {
-            currentAlerts = new ArrayList<>(alerts);
-        }
-
-        for (PriceAlertDTO alert : currentAlerts) {
-            if (alert.isActive() && checkAlertCondition(alert)) {
-                triggeredAlerts.add(alert);
-                alert.setActive(false); // Deactivate triggered alert
-            }
-        }
-
-        return triggeredAlerts;
+        return triggerAlerts(priceRepository.findCurrentPrices(LocalDate.now()));
     }
 
-    // Check alerts for a specific product
+    // Check alerts for a specific product against its current price in every store
     public List<PriceAlertDTO> checkAlertsForProduct(String productId) {
-        List<PriceAlertDTO> triggeredAlerts = new ArrayList<>();
-        List<PriceAlertDTO> currentAlerts;
+        return triggerAlerts(priceRepository.findCurrentPricesByProductId(productId, LocalDate.now()));
+    }
 
-        synchronized(this) {
-            currentAlerts = new ArrayList<>(alerts);
+    /**
+     * Periodically evaluates every active alert off the request path. The current prices of all alerted
+     * products are loaded with one query per chunk of product IDs, and the (product, store) pairs are
+     * evaluated in parallel; the registry stripes keep the evaluations from contending with each other.
+     * Triggered alerts reach the notification outbox through PriceAlertsTriggeredEvent.
+     */
+    @Scheduled(fixedDelayString = "${price-comparator.alerts.evaluation-interval-ms:60000}")
+    public void evaluateActiveAlerts() {
+        List<String> productIds = new ArrayList<>(registry.alertedProductIds());
+        if (productIds.isEmpty()) {
+            return;
         }
 
-        for (PriceAlertDTO alert : currentAlerts) {
-            if (alert.getProductId().equals(productId) &&
-                    alert.isActive() &&
-                    checkAlertCondition(alert)) {
+        LocalDate today = LocalDate.now();
+        List<PriceAlertDTO> triggered = new ArrayList<>();
+        for (int from = 0; from < productIds.size(); from += EVALUATION_CHUNK_SIZE) {
+            List<String> chunk = productIds.subList(from, Math.min(from + EVALUATION_CHUNK_SIZE, productIds.size()));
+            triggered.addAll(priceRepository.findCurrentPricesByProductIdIn(chunk, today).parallelStream()
+                    .flatMap(price -> registry.trigger(price.getProductId(), price.getStoreId(), price.getPrice()).stream())
+                    .toList());
+        }
+        recordTriggered(triggered);
+    }
 
-                triggeredAlerts.add(alert);
-                alert.setActive(false); // Deactivate triggered alert
+    /**
+     * Evaluates the alerts of the products and stores that received new prices. A batch may back-fill
+     * days older than the prices already stored, so the alerts are evaluated against the current prices
+     * re-read after the commit, as in evaluateActiveAlerts, rather than against the ingested rows.
+     *
+     * @param event the ingest event published by DBService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricesIngested(PricesIngestedEvent event) {
+        LocalDate today = LocalDate.now();
+        Set<String> alertedProductIds = registry.alertedProductIds();
+        Set<String> productIds = new HashSet<>();
+        Set<String> ingestedPairs = new HashSet<>();
+        for (Price price : event.getPrices()) {
+            String productId = price.getProduct().getId();
+            if (price.getEntryDate().isAfter(today) || !alertedProductIds.contains(productId)) {
+                continue;
             }
+            productIds.add(productId);
+            ingestedPairs.add(productId + "|" + price.getStore().getId());
+        }
+        if (productIds.isEmpty()) {
+            return;
         }
 
-        return triggeredAlerts;
+        List<String> ids = new ArrayList<>(productIds);
+        List<PriceAlertDTO> triggered = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += EVALUATION_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + EVALUATION_CHUNK_SIZE, ids.size()));
+            for (PriceEntryView price : priceRepository.findCurrentPricesByProductIdIn(chunk, today)) {
+                if (ingestedPairs.contains(price.getProductId() + "|" + price.getStoreId())) {
+                    triggered.addAll(registry.trigger(price.getProductId(), price.getStoreId(), price.getPrice()));
+                }
+            }
+        }
+        recordTriggered(triggered);
     }
 
-    private boolean checkAlertCondition(PriceAlertDTO alert) {
-        Product product = productRepository.findById(alert.getProductId()).orElse(null);
-        Store store = storeRepository.findById(alert.getStoreId()).orElse(null);
-
-        if (product == null && store == null) {
-            return false;
+    private List<PriceAlertDTO> triggerAlerts(List<PriceEntryView> currentPrices) {
+        List<PriceAlertDTO> triggered = new ArrayList<>();
+        for (PriceEntryView price : currentPrices) {
+            // Triggered alerts are deactivated atomically by the registry
+            triggered.addAll(registry.trigger(price.getProductId(), price.getStoreId(), price.getPrice()));
         }
+        recordTriggered(triggered);
+        return triggered;
+    }
 
-        BigDecimal currentPrice = priceHelpers.getCurrentPrice(product, store, LocalDate.now());
-        if (currentPrice == null) return false;
-
-        return currentPrice.compareTo(alert.getTargetPrice()) <= 0;
+    private void recordTriggered(List<PriceAlertDTO> triggered) {
+        if (triggered.isEmpty()) {
+            return;
+        }
+        // The outbox listener commits its rows before publishEvent returns, so the removal is only
+        // journaled once the notifications are stored
+        try {
+            eventPublisher.publishEvent(new PriceAlertsTriggeredEvent(triggered));
+        } catch (RuntimeException e) {
+            logger.warn("Could not store {} triggered price alerts, keeping them active", triggered.size(), e);
+            triggered.forEach(registry::register);
+            throw e;
+        }
+        journal.appendRemoved(triggered.stream().map(PriceAlertDTO::getId).toList());
+        logger.info("Triggered {} price alerts", triggered.size());
     }
 }
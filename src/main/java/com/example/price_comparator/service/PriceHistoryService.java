@@ -1,5 +1,7 @@
 package com.example.price_comparator.service;
 
+import com.example.price_comparator.catalog.CatalogReadModel;
+import com.example.price_comparator.dto.price_history.PriceHistoryComparisonDTO;
 import com.example.price_comparator.dto.price_history.PriceHistoryDTO;
 import com.example.price_comparator.dto.price_history.PriceHistoryFilter;
 import com.example.price_comparator.dto.price_history.PriceHistoryPointDTO;
@@ -7,10 +9,12 @@ import com.example.price_comparator.dto.price_history.PriceHistoryStoreDTO;
 import com.example.price_comparator.model.Discount;
 import com.example.price_comparator.model.Price;
 import com.example.price_comparator.model.Product;
-import com.example.price_comparator.model.Store;
+import com.example.price_comparator.monitoring.PriceHistoryEvent;
 import com.example.price_comparator.repository.DiscountRepository;
 import com.example.price_comparator.repository.PriceRepository;
+import com.example.price_comparator.utils.Money;
 import com.example.price_comparator.utils.PriceHelpers;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -26,15 +30,18 @@ import java.util.stream.Collectors;
  * and date range.
  *
  * The service compiles timelines showing original and final (discounted) prices over time,
- * broken down per store.
+ * broken down per store. Filtered histories are built from the CatalogReadModel; comparisons of
+ * given products use batched queries instead.
  */
 @Service
+@Timed("price_comparator.service")
 @RequiredArgsConstructor
 public class PriceHistoryService {
 
     private final PriceRepository priceRepository;
     private final DiscountRepository discountRepository;
     private final PriceHelpers priceHelpers;
+    private final CatalogSnapshotService catalogSnapshotService;
 
     /**
      * Retrieves the historical price data for a product, optionally filtered by store, category, brand,
@@ -52,116 +59,275 @@ public class PriceHistoryService {
             throw new IllegalArgumentException("Product name is required");
         }
 
-        // Get all prices and filter them
-        List<Price> prices = priceRepository.findAll().stream()
-                .filter(price -> price.getProduct().getName().equalsIgnoreCase(filter.getProductName()))
-                .filter(p -> filter.getStoreName() == null
-                        || p.getStore().getName().equals(filter.getStoreName()))
-                .filter(p -> filter.getCategoryName() == null
-                        || p.getProduct().getCategory().getName().equals(filter.getCategoryName()))
-                .filter(p -> filter.getBrandName() == null
-                        || p.getProduct().getBrand().getName().equals(filter.getBrandName()))
-                .toList();
-
-        if(prices.isEmpty()) {
-            return null;
+        PriceHistoryEvent event = new PriceHistoryEvent();
+        event.begin();
+        CatalogReadModel catalog = catalogSnapshotService.getModel();
+        List<PriceHistoryDTO> histories = new ArrayList<>();
+        for (int product = 0; product < catalog.productCount(); product++) {
+            if (catalog.productName(product).equalsIgnoreCase(filter.getProductName())
+                    && (filter.getCategoryName() == null
+                        || catalog.categoryName(catalog.productCategory(product)).equals(filter.getCategoryName()))
+                    && (filter.getBrandName() == null || catalog.brandName(catalog.productBrand(product)).equals(filter.getBrandName()))) {
+                PriceHistoryDTO history = buildPriceHistoryForProduct(catalog, product, filter);
+                if (history != null) {
+                    histories.add(history);
+                }
+            }
+        }
+
+        event.productName = filter.getProductName();
+        commit(event, histories);
+        return histories.isEmpty() ? null : histories;
+    }
+
+    /**
+     * Builds aligned price timelines for several products at once, clipped to the same date range.
+     * All prices and discounts are loaded with one batched query each, already sorted by product,
+     * store and date, so the timelines are merged in a single pass over the results.
+     *
+     * @param productIds the IDs of the products to compare; duplicates are ignored
+     * @param startDate the first day (inclusive) of the shared timeline
+     * @param endDate the last day (inclusive) of the shared timeline
+     * @return the aligned timelines in the order the product IDs were given,
+     *         or null if none of the products has a price in the range
+     * @throws IllegalArgumentException if no product IDs are given or the date range is invalid
+     */
+    public PriceHistoryComparisonDTO comparePriceHistories(Collection<String> productIds, LocalDate startDate, LocalDate endDate) {
+        if (productIds == null || productIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one product ID is required");
+        }
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("A valid date range is required");
         }
 
-        // Get all discounts and filter them
-        List<Discount> discounts = discountRepository.findAll().stream()
-                .filter(d -> d.getProduct().getName().equalsIgnoreCase(filter.getProductName()))
-                .filter(d -> filter.getStoreName() == null
-                        || d.getStore().getName().equals(filter.getStoreName()))
-                .toList();
+        PriceHistoryEvent event = new PriceHistoryEvent();
+        event.begin();
+        Set<String> ids = new LinkedHashSet<>(productIds);
+        List<Price> prices = priceRepository.findTimelinePrices(ids, startDate, endDate);
+        if (prices.isEmpty()) {
+            return null;
+        }
+        List<Discount> discounts = discountRepository.findOverlappingByProductIds(ids, startDate, endDate);
 
-        Map<Product, List<Price>> pricesByProduct = prices.stream()
-                .collect(Collectors.groupingBy(Price::getProduct));
+        // Both result sets are ordered by product and store, so grouping keeps each bucket sorted by date
+        Map<String, Map<Long, List<Price>>> pricesByProductAndStore = prices.stream()
+                .collect(Collectors.groupingBy(p -> p.getProduct().getId(),
+                        Collectors.groupingBy(p -> p.getStore().getId(), LinkedHashMap::new, Collectors.toList())));
+        Map<String, Map<Long, List<Discount>>> discountsByProductAndStore = discounts.stream()
+                .collect(Collectors.groupingBy(d -> d.getProduct().getId(),
+                        Collectors.groupingBy(d -> d.getStore().getId())));
 
-        return pricesByProduct.entrySet().stream()
-                .map(entry -> buildPriceHistoryForProduct(entry.getKey(), entry.getValue(), discounts, filter))
-                .toList();
-    }
+        List<PriceHistoryDTO> histories = new ArrayList<>();
+        for (String productId : ids) {
+            Map<Long, List<Price>> storePrices = pricesByProductAndStore.get(productId);
+            if (storePrices == null) {
+                continue;
+            }
+            Map<Long, List<Discount>> storeDiscounts = discountsByProductAndStore.getOrDefault(productId, Map.of());
 
-    private PriceHistoryDTO buildPriceHistoryForProduct(Product product, List<Price> prices, List<Discount> allDiscounts, PriceHistoryFilter filter) {
-        // Determine date range
-        LocalDate start = prices.stream().map(Price::getEntryDate).min(LocalDate::compareTo).orElse(LocalDate.now());
-        LocalDate end = prices.stream().map(Price::getEntryDate).max(LocalDate::compareTo).orElse(start);
+            List<PriceHistoryStoreDTO> storeHistory = new ArrayList<>();
+            for (Map.Entry<Long, List<Price>> entry : storePrices.entrySet()) {
+                List<PriceHistoryPointDTO> points = buildAlignedTimeline(
+                        entry.getValue(), storeDiscounts.getOrDefault(entry.getKey(), List.of()), startDate, endDate);
+                if (!points.isEmpty()) {
+                    storeHistory.add(new PriceHistoryStoreDTO(entry.getValue().get(0).getStore().getName(), points));
+                }
+            }
 
-        if (filter.getStartDate() != null) {
-            start = filter.getStartDate();
+            Product product = storePrices.values().iterator().next().get(0).getProduct();
+            histories.add(new PriceHistoryDTO(
+                    product.getId(),
+                    product.getName(),
+                    product.getBrand().getName(),
+                    product.getCategory().getName(),
+                    storeHistory));
         }
 
-        if (filter.getEndDate() != null) {
-            end = filter.getEndDate();
+        commit(event, histories);
+        return new PriceHistoryComparisonDTO(startDate, endDate, histories);
+    }
+
+    private static void commit(PriceHistoryEvent event, List<PriceHistoryDTO> histories) {
+        if (!event.shouldCommit()) {
+            return;
         }
+        event.products = histories.size();
+        for (PriceHistoryDTO history : histories) {
+            event.stores += history.getStores().size();
+            for (PriceHistoryStoreDTO store : history.getStores()) {
+                event.segments += store.getPrices().size();
+            }
+        }
+        event.commit();
+    }
 
-        List<Discount> productDiscounts = allDiscounts.stream()
-                .filter(d -> d.getProduct().equals(product))
-                .toList();
+    /**
+     * Sweeps the date-sorted prices and discounts of one product in one store and splits the
+     * range [start, end] into segments with a constant final price.
+     * When several discounts overlap, the one that started first wins.
+     */
+    private List<PriceHistoryPointDTO> buildAlignedTimeline(List<Price> storePrices, List<Discount> storeDiscounts,
+                                                            LocalDate start, LocalDate end) {
+        List<PriceHistoryPointDTO> points = new ArrayList<>();
+        List<Discount> started = new ArrayList<>();
+        int nextDiscount = 0;
 
-        // Group prices by store
-        Map<Store, List<Price>> pricesByStore = prices.stream()
-                .collect(Collectors.groupingBy(Price::getStore));
+        for (int i = 0; i < storePrices.size(); i++) {
+            Price currentPrice = storePrices.get(i);
+            LocalDate priceStart = currentPrice.getEntryDate().isBefore(start) ? start : currentPrice.getEntryDate();
+            LocalDate priceEnd = (i + 1 < storePrices.size()) ? storePrices.get(i + 1).getEntryDate().minusDays(1) : end;
+            if (priceEnd.isAfter(end)) {
+                priceEnd = end;
+            }
 
-        // Build timeline per store
-        List<PriceHistoryStoreDTO> storeHistory = new ArrayList<>();
+            LocalDate segmentStart = priceStart;
+            while (!segmentStart.isAfter(priceEnd)) {
+                final LocalDate currentSegmentDate = segmentStart;
+                while (nextDiscount < storeDiscounts.size()
+                        && !storeDiscounts.get(nextDiscount).getFromDate().isAfter(currentSegmentDate)) {
+                    started.add(storeDiscounts.get(nextDiscount++));
+                }
+                started.removeIf(d -> d.getToDate().isBefore(currentSegmentDate));
 
-        for (Map.Entry<Store, List<Price>> entry : pricesByStore.entrySet()) {
-            Store currentStore = entry.getKey();
-            List<Price> storePrices = entry.getValue();
-            List<Discount> storeDiscounts = productDiscounts.stream()
-                    .filter(d -> d.getStore().equals(currentStore))
-                    .collect(Collectors.toList());
-
-            storePrices.sort(Comparator.comparing(Price::getEntryDate));
-            storeDiscounts.sort(Comparator.comparing(Discount::getFromDate));
-
-            List<PriceHistoryPointDTO> points = new ArrayList<>();
-
-            for (int i = 0; i < storePrices.size(); i++) {
-                Price currentPrice = storePrices.get(i);
-                LocalDate priceStart = currentPrice.getEntryDate();
-                LocalDate priceEnd = (i + 1 < storePrices.size()) ? storePrices.get(i + 1).getEntryDate().minusDays(1) : end;
-
-                // Split the price period by discounts
-                LocalDate segmentStart = priceStart;
-                while (!segmentStart.isAfter(priceEnd)) {
-                    final LocalDate currentSegmentDate = segmentStart;
-                    Optional<Discount> active = storeDiscounts.stream()
-                            .filter(d -> !d.getFromDate().isAfter(currentSegmentDate) && !d.getToDate().isBefore(currentSegmentDate))
-                            .findFirst();
-
-                    LocalDate segmentEnd = active.map(d -> d.getToDate().isBefore(priceEnd) ? d.getToDate() : priceEnd).orElse(priceEnd);
-
-                    PriceHistoryPointDTO point = new PriceHistoryPointDTO();
-                    point.setStartDate(segmentStart);
-                    point.setEndDate(segmentEnd);
-                    point.setOriginalPrice(currentPrice.getPrice());
-
-                    if (active.isPresent()) {
-                        Discount d = active.get();
-                        BigDecimal discounted = priceHelpers.applyDiscount(currentPrice.getPrice(), d.getPercentage());
-                        point.setFinalPrice(discounted);
-                        point.setDiscountedPercentage(d.getPercentage());
-                    } else {
-                        point.setFinalPrice(currentPrice.getPrice());
-                        point.setDiscountedPercentage(BigDecimal.ZERO);
+                Discount active = started.isEmpty() ? null : started.get(0);
+                LocalDate segmentEnd = priceEnd;
+                if (active != null) {
+                    if (active.getToDate().isBefore(segmentEnd)) {
+                        segmentEnd = active.getToDate();
+                    }
+                } else if (nextDiscount < storeDiscounts.size()) {
+                    LocalDate dayBeforeNext = storeDiscounts.get(nextDiscount).getFromDate().minusDays(1);
+                    if (dayBeforeNext.isBefore(segmentEnd)) {
+                        segmentEnd = dayBeforeNext;
                     }
+                }
 
-                    points.add(point);
-                    segmentStart = segmentEnd.plusDays(1);
+                PriceHistoryPointDTO point = new PriceHistoryPointDTO();
+                point.setStartDate(segmentStart);
+                point.setEndDate(segmentEnd);
+                point.setOriginalPrice(currentPrice.getPrice());
+                if (active != null) {
+                    point.setFinalPrice(priceHelpers.applyDiscount(currentPrice.getPrice(), active.getPercentage()));
+                    point.setDiscountedPercentage(active.getPercentage());
+                } else {
+                    point.setFinalPrice(currentPrice.getPrice());
+                    point.setDiscountedPercentage(BigDecimal.ZERO);
                 }
+
+                points.add(point);
+                segmentStart = segmentEnd.plusDays(1);
             }
+        }
+
+        return points;
+    }
 
-            storeHistory.add(new PriceHistoryStoreDTO(currentStore.getName(), points));
+    /**
+     * Builds the timeline of one product in every store matching the filter, or returns null if the
+     * product has no price in any of them. Prices are read from the product's price series in the read
+     * model, one per store, whose rows are already sorted by date.
+     */
+    PriceHistoryDTO buildPriceHistoryForProduct(CatalogReadModel catalog, int product, PriceHistoryFilter filter) {
+        int firstSeries = catalog.priceSeriesStart(product);
+        int lastSeries = catalog.priceSeriesEnd(product);
+
+        // Determine date range; the last row of each store's series holds its latest day
+        int end = Integer.MIN_VALUE;
+        boolean hasPrices = false;
+        for (int series = firstSeries; series < lastSeries; series++) {
+            if (matchesStore(catalog, catalog.priceSeriesStore(series), filter)) {
+                hasPrices = true;
+                end = Math.max(end, catalog.priceDay(catalog.priceSeriesEndRow(series) - 1));
+            }
+        }
+        if (!hasPrices) {
+            return null;
+        }
+        if (filter.getEndDate() != null) {
+            end = CatalogReadModel.toDay(filter.getEndDate());
+        }
+
+        // Build timeline per store
+        List<PriceHistoryStoreDTO> storeHistory = new ArrayList<>();
+
+        for (int series = firstSeries; series < lastSeries; series++) {
+            int store = catalog.priceSeriesStore(series);
+            if (matchesStore(catalog, store, filter)) {
+                storeHistory.add(new PriceHistoryStoreDTO(catalog.storeName(store), buildStoreTimeline(catalog, product,
+                        store, catalog.priceSeriesFirstRow(series), catalog.priceSeriesEndRow(series), end)));
+            }
         }
 
         return new PriceHistoryDTO(
-                product.getId(),
-                product.getName(),
-                product.getBrand().getName(),
-                product.getCategory().getName(),
+                catalog.productId(product),
+                catalog.productName(product),
+                catalog.brandName(catalog.productBrand(product)),
+                catalog.categoryName(catalog.productCategory(product)),
                 storeHistory
         );
     }
+
+    /**
+     * Splits the price periods of one product in one store by the discounts active in them.
+     * When several discounts overlap, the one that starts first wins.
+     *
+     * @param firstRow the first price row of the store, rows are sorted by date
+     * @param lastRow the price row after the last one of the store
+     * @param end the epoch day the last price period ends on
+     */
+    private List<PriceHistoryPointDTO> buildStoreTimeline(CatalogReadModel catalog, int product, int store,
+                                                          int firstRow, int lastRow, int end) {
+        List<Integer> storeDiscounts = new ArrayList<>();
+        for (int row = catalog.discountStart(product); row < catalog.discountEnd(product); row++) {
+            if (catalog.discountStore(row) == store) {
+                storeDiscounts.add(row);
+            }
+        }
+        storeDiscounts.sort(Comparator.comparingInt(catalog::discountFromDay));
+
+        List<PriceHistoryPointDTO> points = new ArrayList<>();
+
+        for (int row = firstRow; row < lastRow; row++) {
+            long priceCents = catalog.priceCents(row);
+            int priceEnd = (row + 1 < lastRow) ? catalog.priceDay(row + 1) - 1 : end;
+
+            // Split the price period by discounts
+            int segmentStart = catalog.priceDay(row);
+            while (segmentStart <= priceEnd) {
+                int active = CatalogReadModel.NOT_FOUND;
+                for (int discount : storeDiscounts) {
+                    if (catalog.discountFromDay(discount) <= segmentStart && segmentStart <= catalog.discountToDay(discount)) {
+                        active = discount;
+                        break;
+                    }
+                }
+
+                int segmentEnd = active != CatalogReadModel.NOT_FOUND
+                        ? Math.min(catalog.discountToDay(active), priceEnd)
+                        : priceEnd;
+
+                PriceHistoryPointDTO point = new PriceHistoryPointDTO();
+                point.setStartDate(CatalogReadModel.toDate(segmentStart));
+                point.setEndDate(CatalogReadModel.toDate(segmentEnd));
+                point.setOriginalPrice(Money.toBigDecimal(priceCents));
+
+                if (active != CatalogReadModel.NOT_FOUND) {
+                    point.setFinalPrice(Money.toBigDecimal(Money.applyDiscount(priceCents, catalog.discountPercent(active))));
+                    point.setDiscountedPercentage(catalog.discountPercentage(active));
+                } else {
+                    point.setFinalPrice(Money.toBigDecimal(priceCents));
+                    point.setDiscountedPercentage(BigDecimal.ZERO);
+                }
+
+                points.add(point);
+                segmentStart = segmentEnd + 1;
+            }
+        }
+
+        return points;
+    }
+
+    private static boolean matchesStore(CatalogReadModel catalog, int store, PriceHistoryFilter filter) {
+        return filter.getStoreName() == null || catalog.storeName(store).equals(filter.getStoreName());
+    }
 }
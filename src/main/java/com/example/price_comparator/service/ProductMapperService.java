@@ -1,6 +1,8 @@
 package com.example.price_comparator.service;
 
 import com.example.price_comparator.dto.*;
+import com.example.price_comparator.dto.projection.PriceEntryView;
+import com.example.price_comparator.dto.projection.ProductSummaryView;
 import com.example.price_comparator.model.*;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +16,21 @@ import java.util.stream.Collectors;
 @Service
 public class ProductMapperService {
     public ProductDTO toProductDTO(Product product) {
+        if(product == null){
+            return null;
+        }
+        return toProductDTO(product, product.getPrices());
+    }
+
+    /**
+     * Maps a product using prices loaded up front (e.g. one batched query for many products)
+     * instead of walking the lazy Product.prices collection.
+     *
+     * @param product the product, ideally loaded with its category and brand
+     * @param prices the prices of the product, ideally loaded with their store
+     * @return the corresponding ProductDTO
+     */
+    public ProductDTO toProductDTO(Product product, List<Price> prices) {
         if(product == null){
             return null;
         }
@@ -24,7 +41,26 @@ public class ProductMapperService {
                 toBrandDTO(product.getBrand()),
                 product.getPackageQuantity(),
                 product.getPackageUnit(),
-                groupPricesByStore(product.getPrices())
+                groupPricesByStore(prices)
+        );
+    }
+
+    /**
+     * Maps a product projection and the projected prices of that product, without touching any entity.
+     *
+     * @param product the product projection
+     * @param prices the price projections belonging to the product
+     * @return the corresponding ProductDTO
+     */
+    public ProductDTO toProductDTO(ProductSummaryView product, List<PriceEntryView> prices) {
+        return new ProductDTO(
+                product.getId(),
+                product.getName(),
+                new CategoryDTO(product.getCategoryId(), product.getCategoryName()),
+                new BrandDTO(product.getBrandId(), product.getBrandName()),
+                product.getPackageQuantity(),
+                product.getPackageUnit(),
+                groupPriceViewsByStore(prices)
         );
     }
 
@@ -79,4 +115,24 @@ public class ProductMapperService {
                 .sorted(Comparator.comparing(dto -> dto.getStore().getName()))
                 .collect(Collectors.toList());
     }
+
+    private List<StorePriceHistoryDTO> groupPriceViewsByStore(List<PriceEntryView> prices) {
+        if(prices == null || prices.isEmpty()){
+            return Collections.emptyList();
+        }
+
+        Map<Long, List<PriceEntryView>> pricesByStore = prices.stream()
+                .collect(Collectors.groupingBy(PriceEntryView::getStoreId));
+
+        return pricesByStore.values().stream()
+                .map(storePrices -> new StorePriceHistoryDTO(
+                        new StoreDTO(storePrices.get(0).getStoreId(), storePrices.get(0).getStoreName()),
+                        storePrices.stream()
+                                .sorted(Comparator.comparing(PriceEntryView::getEntryDate).reversed())
+                                .map(price -> new PriceEntryDTO(price.getPrice(), price.getCurrency(), price.getEntryDate()))
+                                .collect(Collectors.toList())
+                ))
+                .sorted(Comparator.comparing(dto -> dto.getStore().getName()))
+                .collect(Collectors.toList());
+    }
 }
@@ -1,16 +1,22 @@
 package com.example.price_comparator.service;
 
+import com.example.price_comparator.dto.CursorPageDTO;
 import com.example.price_comparator.dto.ProductDTO;
+import com.example.price_comparator.dto.projection.PriceEntryView;
+import com.example.price_comparator.dto.projection.ProductSummaryView;
 import com.example.price_comparator.exception.ResourceNotFoundException;
 import com.example.price_comparator.model.Product;
+import com.example.price_comparator.repository.PriceRepository;
 import com.example.price_comparator.repository.ProductRepository;
+import com.example.price_comparator.utils.CursorPaging;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -19,20 +25,38 @@ import java.util.stream.Collectors;
  * This service maps Product entities to their corresponding DTO representations.
  */
 @Service
+@Timed("price_comparator.service")
 @RequiredArgsConstructor
 public class ProductService {
     private final ProductRepository productRepository;
+    private final PriceRepository priceRepository;
     private final ProductMapperService productMapper;
 
     /**
-     * Retrieves a list of all products from the repository and maps them to ProductDTOs.
+     * Retrieves one page of products ordered by ID, using keyset pagination.
+     * A page costs two projection queries: one for the products and one for all of their prices.
      *
-     * @return a list of ProductDTOs representing all available products
+     * @param cursor the ID of the last product of the previous page, or null for the first page
+     * @param limit the maximum number of products to return
+     * @return the page of ProductDTOs and the cursor of the next page
+     * @throws IllegalArgumentException if the limit is out of range
      */
-    public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(productMapper::toProductDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<ProductDTO> getProducts(String cursor, int limit) {
+        List<ProductSummaryView> rows = productRepository.findSummariesAfter(
+                cursor != null ? cursor : "", Limit.of(CursorPaging.rowsToFetch(limit)));
+
+        return CursorPaging.toPage(rows, limit, ProductSummaryView::getId, page -> {
+            if (page.isEmpty()) {
+                return List.of();
+            }
+            Map<String, List<PriceEntryView>> pricesByProduct = priceRepository
+                    .findEntryViewsByProductIdIn(page.stream().map(ProductSummaryView::getId).toList())
+                    .stream()
+                    .collect(Collectors.groupingBy(PriceEntryView::getProductId));
+            return page.stream()
+                    .map(product -> productMapper.toProductDTO(product, pricesByProduct.get(product.getId())))
+                    .collect(Collectors.toList());
+        });
     }
 
     /**
@@ -43,8 +67,8 @@ public class ProductService {
      * @throws ResourceNotFoundException if the product with the given ID is not found
      */
     public ProductDTO getProductById(String id) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return productMapper.toProductDTO(product);
+        return productMapper.toProductDTO(product, priceRepository.findWithStoreByProductIdIn(List.of(id)));
     }
 }
@@ -1,18 +1,15 @@
 package com.example.price_comparator.service;
 
+import com.example.price_comparator.catalog.CatalogReadModel;
 import com.example.price_comparator.dto.recommendation.ProductRecommendationDTO;
-import com.example.price_comparator.model.Category;
-import com.example.price_comparator.model.Discount;
-import com.example.price_comparator.model.Price;
-import com.example.price_comparator.model.Product;
-import com.example.price_comparator.repository.DiscountRepository;
-import com.example.price_comparator.repository.ProductRepository;
+import com.example.price_comparator.monitoring.RecommendationEvent;
+import com.example.price_comparator.utils.Money;
 import com.example.price_comparator.utils.PriceHelpers;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -28,13 +25,14 @@ import java.util.Optional;
  * - Filters out the original product and compares only relevant alternatives.
  * - Applies active discounts for accurate price evaluation.
  * - Supports unit conversion for price-per-unit comparison.
+ * - Works on the CatalogReadModel, so no entities or per-product queries are involved.
  */
 @Service
+@Timed("price_comparator.service")
 @RequiredArgsConstructor
 public class RecommendationService {
 
-    private final ProductRepository productRepository;
-    private final DiscountRepository discountRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
     private final PriceHelpers priceHelpers;
 
     /**
@@ -45,147 +43,138 @@ public class RecommendationService {
      * @return List of recommended cheaper alternatives
      */
     public List<ProductRecommendationDTO> getCheaperAlternatives(String productId, LocalDate date, String targetUnit) {
+        RecommendationEvent event = new RecommendationEvent();
+        event.begin();
         LocalDate evaluationDate = Optional.ofNullable(date).orElse(LocalDate.now());
+        int day = CatalogReadModel.toDay(evaluationDate);
+        CatalogReadModel catalog = catalogSnapshotService.getModel();
 
         // Get the original product
-        Product originalProduct = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + productId));
-
-        // Get its category
-        Category category = originalProduct.getCategory();
-
-        // Find products in the same category with compatible units
-        List<Product> sameCategoryProducts = productRepository.findByCategory(category);
-
-        // Filter products with units in the same category as the original
-        sameCategoryProducts = sameCategoryProducts.stream()
-                .filter(p -> !p.getId().equals(productId)) // exclude original product
-//                .filter(p -> p.getPackageUnit().getCategory() == originalProduct.getPackageUnit().getCategory())
-                .filter(p -> p.getPackageUnit().equals(originalProduct.getPackageUnit()))
-                .toList();
+        int originalProduct = catalog.productCode(productId);
+        if (originalProduct == CatalogReadModel.NOT_FOUND) {
+            throw new IllegalArgumentException("Product not found with id: " + productId);
+        }
 
-        // Compute price per unit for original product (with discounts if any)
-        BigDecimal originalPricePerUnit = calculateProductPricePerUnit(originalProduct, evaluationDate, targetUnit);
+        // Compute price per unit for original product (with discounts if any), in cents
+        long originalPricePerUnit = calculateProductPricePerUnit(catalog, originalProduct, day, targetUnit);
 
-        if (originalPricePerUnit == null) {
+        if (originalPricePerUnit == CatalogReadModel.NO_PRICE) {
             return new ArrayList<>(); // no price available for original product
         }
 
         List<ProductRecommendationDTO> recommendations = new ArrayList<>();
 
-        // Compute price per unit for other products and find cheaper ones
-        for (Product alternativeProduct : sameCategoryProducts) {
-            BigDecimal alternativePricePerUnit = calculateProductPricePerUnit(alternativeProduct, evaluationDate, targetUnit);
+        // Compute price per unit for the other products of the same category and unit, and find cheaper ones
+        int category = catalog.productCategory(originalProduct);
+        String packageUnit = catalog.packageUnit(originalProduct);
+        int candidatesScanned = 0;
+        for (int alternativeProduct = 0; alternativeProduct < catalog.productCount(); alternativeProduct++) {
+            if (alternativeProduct == originalProduct
+                    || catalog.productCategory(alternativeProduct) != category
+                    || !catalog.packageUnit(alternativeProduct).equals(packageUnit)) {
+                continue;
+            }
+            candidatesScanned++;
+
+            long alternativePricePerUnit = calculateProductPricePerUnit(catalog, alternativeProduct, day, targetUnit);
 
-            if (alternativePricePerUnit != null && alternativePricePerUnit.compareTo(originalPricePerUnit) < 0) {
+            if (alternativePricePerUnit != CatalogReadModel.NO_PRICE && alternativePricePerUnit < originalPricePerUnit) {
                 // This is a cheaper alternative
-                BigDecimal savingsPercentage = originalPricePerUnit.subtract(alternativePricePerUnit)
-                        .divide(originalPricePerUnit, 4, RoundingMode.HALF_UP)
-                        .multiply(BigDecimal.valueOf(100))
-                        .setScale(2, RoundingMode.HALF_UP);
+                long savingsBasisPoints = Money.savingsBasisPoints(originalPricePerUnit, alternativePricePerUnit);
 
                 recommendations.add(new ProductRecommendationDTO(
-                        alternativeProduct.getId(),
-                        alternativeProduct.getName(),
-                        alternativeProduct.getBrand().getName(),
+                        catalog.productId(alternativeProduct),
+                        catalog.productName(alternativeProduct),
+                        catalog.brandName(catalog.productBrand(alternativeProduct)),
                         "", // store name will be set below
-                        getCurrentPriceForProduct(alternativeProduct, evaluationDate),
-                        targetUnit != null ? targetUnit : alternativeProduct.getPackageUnit(),
-                        convertUnitValueIfNeeded(alternativeProduct, targetUnit),
-                        alternativePricePerUnit,
-                        savingsPercentage
+                        getCurrentPriceForProduct(catalog, alternativeProduct, day),
+                        targetUnit != null ? targetUnit : catalog.packageUnit(alternativeProduct),
+                        convertUnitValueIfNeeded(catalog, alternativeProduct, targetUnit),
+                        Money.toBigDecimal(alternativePricePerUnit),
+                        BigDecimal.valueOf(savingsBasisPoints, 2)
                 ));
             }
         }
 
+        event.productId = productId;
+        event.productsScanned = catalog.productCount();
+        event.candidatesScanned = candidatesScanned;
+        event.recommendations = recommendations.size();
+        event.commit();
         return recommendations;
     }
 
     /**
-     * Calculates the price per unit for a product, applying discounts if available
+     * Calculates the price per unit for a product in cents, applying discounts if available
+     *
+     * @return the price per unit in cents, or NO_PRICE if the product has no price on the date
      */
-    private BigDecimal calculateProductPricePerUnit(Product product, LocalDate date, String targetUnit) {
-        // Get the most recent price for each store
+    private long calculateProductPricePerUnit(CatalogReadModel catalog, int product, int day, String targetUnit) {
         // For simplicity, we'll use the lowest price available across all stores
-        BigDecimal lowestPrice = null;
-
-        if (product.getPrices() == null || product.getPrices().isEmpty()) {
-            return null;
-        }
+        long lowestPrice = CatalogReadModel.NO_PRICE;
 
-        for (Price price : product.getPrices()) {
-            if (!price.getEntryDate().isAfter(date)) {
-                BigDecimal currentPrice = price.getPrice();
+        for (int row = catalog.priceStart(product); row < catalog.priceEnd(product); row++) {
+            if (catalog.priceDay(row) <= day) {
+                long currentPrice = catalog.priceCents(row);
 
-                // Check for active discounts - now we query them separately
-                List<Discount> activeDiscounts = discountRepository.findByProductAndStoreAndFromDateLessThanEqualAndToDateGreaterThanEqual(
-                        product,
-                        price.getStore(),
-                        date,
-                        date
-                );
-
-                if (!activeDiscounts.isEmpty()) {
-                    currentPrice = priceHelpers.applyDiscount(currentPrice, activeDiscounts.get(0).getPercentage());
+                // Check for active discounts
+                int discount = catalog.activeDiscountRow(product, catalog.priceStore(row), day);
+                if (discount != CatalogReadModel.NOT_FOUND) {
+                    currentPrice = Money.applyDiscount(currentPrice, catalog.discountPercent(discount));
                 }
 
-                if (lowestPrice == null || currentPrice.compareTo(lowestPrice) < 0) {
+                if (lowestPrice == CatalogReadModel.NO_PRICE || currentPrice < lowestPrice) {
                     lowestPrice = currentPrice;
                 }
             }
         }
 
-        if (lowestPrice == null) {
-            return null;
+        if (lowestPrice == CatalogReadModel.NO_PRICE) {
+            return CatalogReadModel.NO_PRICE;
         }
 
         // Calculate price per unit
-        return priceHelpers.calculatePricePerUnit(
+        return Money.pricePerUnit(
                 lowestPrice,
-                product.getPackageQuantity(),
-                product.getPackageUnit(),
+                catalog.packageMilliUnits(product),
+                catalog.packageUnit(product),
                 targetUnit
         );
     }
+
     /**
      * Gets the current price for a product (lowest across all stores)
      */
-    private BigDecimal getCurrentPriceForProduct(Product product, LocalDate date) {
-        if (product.getPrices() == null || product.getPrices().isEmpty()) {
-            return null;
-        }
-
-        BigDecimal lowestPrice = null;
+    private BigDecimal getCurrentPriceForProduct(CatalogReadModel catalog, int product, int day) {
+        long lowestPrice = CatalogReadModel.NO_PRICE;
 
-        for (Price price : product.getPrices()) {
-            if (!price.getEntryDate().isAfter(date)) {
-                BigDecimal currentPrice = price.getPrice();
-
-                if (lowestPrice == null || currentPrice.compareTo(lowestPrice) < 0) {
-                    lowestPrice = currentPrice;
-                }
+        for (int row = catalog.priceStart(product); row < catalog.priceEnd(product); row++) {
+            if (catalog.priceDay(row) <= day
+                    && (lowestPrice == CatalogReadModel.NO_PRICE || catalog.priceCents(row) < lowestPrice)) {
+                lowestPrice = catalog.priceCents(row);
             }
         }
 
-        return lowestPrice;
+        return lowestPrice != CatalogReadModel.NO_PRICE ? Money.toBigDecimal(lowestPrice) : null;
     }
 
     /**
      * Converts the unit value if a target unit is specified
      */
-    private BigDecimal convertUnitValueIfNeeded(Product product, String targetUnit) {
-        if (targetUnit == null || targetUnit.equals(product.getPackageUnit())) {
-            return product.getPackageQuantity();
+    private BigDecimal convertUnitValueIfNeeded(CatalogReadModel catalog, int product, String targetUnit) {
+        BigDecimal packageQuantity = catalog.packageQuantity(product);
+        if (targetUnit == null || targetUnit.equals(catalog.packageUnit(product))) {
+            return packageQuantity;
         }
 
         try {
             return priceHelpers.convertUnit(
-                    product.getPackageQuantity(),
-                    product.getPackageUnit(),
+                    packageQuantity,
+                    catalog.packageUnit(product),
                     targetUnit
             );
         } catch (IllegalArgumentException e) {
-            return product.getPackageQuantity(); // return original if conversion fails
+            return packageQuantity; // return original if conversion fails
         }
     }
 }
@@ -0,0 +1,52 @@
+package com.example.price_comparator.utils;
+
+import com.example.price_comparator.dto.CursorPageDTO;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utility class for keyset (cursor) pagination.
+ *
+ * Queries fetch one row more than the requested page size; the extra row only tells
+ * whether another page exists and is never returned.
+ */
+public final class CursorPaging {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private CursorPaging() {
+    }
+
+    /**
+     * Validates a requested page size.
+     *
+     * @param limit the requested page size
+     * @return the number of rows to fetch (limit + 1)
+     * @throws IllegalArgumentException if the limit is outside 1..MAX_PAGE_SIZE
+     */
+    public static int rowsToFetch(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit + 1;
+    }
+
+    /**
+     * Builds a page from rows fetched with {@link #rowsToFetch(int)}.
+     *
+     * @param rows the fetched rows, ordered by their cursor key
+     * @param limit the requested page size
+     * @param cursorOf extracts the cursor key of a row
+     * @param mapper maps the rows of the page to DTOs
+     * @return the page with the cursor of its last row, or a null cursor if there are no more rows
+     */
+    public static <T, R> CursorPageDTO<R> toPage(List<T> rows, int limit, Function<T, String> cursorOf,
+                                                 Function<List<T>, List<R>> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<T> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return new CursorPageDTO<>(mapper.apply(page), nextCursor);
+    }
+}
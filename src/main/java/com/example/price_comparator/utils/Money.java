@@ -0,0 +1,171 @@
+package com.example.price_comparator.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic on primitive longs for in-memory price computations.
+ *
+ * Amounts are held in minor units (cents, scale 2), package quantities in thousandths (scale 3),
+ * prices per unit in millionths (scale 6) and discounts in whole percent, which is the precision
+ * PriceHelpers rounds them to. Every operation rounds HALF_UP at the same points as the BigDecimal
+ * methods in PriceHelpers and gives the same results, without allocating; values are converted
+ * from and to BigDecimal only where they enter or leave a computation.
+ *
+ * Prices and percentages must have at most two decimal places when they are converted; round(...)
+ * brings ingested values there once, since rounding them again here would round twice where the
+ * BigDecimal methods round once.
+ *
+ * Arithmetic overflow throws ArithmeticException instead of wrapping around.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final int QUANTITY_SCALE = 3;
+
+    // Multiplying cents by 10^(6 + 3 - 2) before dividing by thousandths gives a result at scale 6
+    private static final long PER_UNIT_NUMERATOR = 10_000_000;
+    // Price per unit steps (10^-6) in one cent
+    private static final long PER_UNIT_STEPS_PER_CENT = 10_000;
+    private static final long PERCENT = 100;
+    private static final long UNIT_FACTOR = 1000;
+
+    private Money() {
+    }
+
+    /**
+     * Rounds an ingested price or discount percentage HALF_UP to two decimal places, the precision
+     * they are stored and computed with.
+     */
+    public static BigDecimal round(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Converts an amount to cents.
+     *
+     * @throws ArithmeticException if the amount has more than two decimal places
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts cents to an amount with two decimal places.
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Converts a package quantity to thousandths of a unit.
+     *
+     * @throws ArithmeticException if the quantity has more than three decimal places
+     */
+    public static long toMilliUnits(BigDecimal quantity) {
+        return quantity.setScale(QUANTITY_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts a discount percentage to whole percent, rounding HALF_UP like PriceHelpers.applyDiscount.
+     *
+     * @throws ArithmeticException if the percentage has more than two decimal places
+     */
+    public static long toPercent(BigDecimal percentage) {
+        return percentage.setScale(SCALE, RoundingMode.UNNECESSARY).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Applies a discount to an amount and rounds the result HALF_UP to cents.
+     * Same result as PriceHelpers.applyDiscount.
+     *
+     * @param cents   the original amount in cents
+     * @param percent the discount in whole percent
+     * @return the discounted amount in cents
+     */
+    public static long applyDiscount(long cents, long percent) {
+        return divideHalfUp(Math.multiplyExact(cents, PERCENT - percent), PERCENT);
+    }
+
+    /**
+     * Calculates the price per unit, optionally converted to a target unit, rounded HALF_UP to cents.
+     * Same result as PriceHelpers.calculatePricePerUnit, including its intermediate rounding to six
+     * decimal places and its unit conversions.
+     *
+     * @param cents      the price in cents
+     * @param milliUnits the package quantity in thousandths of a unit
+     * @param unitType   the package unit
+     * @param targetUnit the unit to convert to, or null to keep the package unit
+     * @return the price per unit in cents
+     * @throws IllegalArgumentException if the quantity is not positive or the conversion is unsupported
+     */
+    public static long pricePerUnit(long cents, long milliUnits, String unitType, String targetUnit) {
+        if (unitType == null) {
+            throw new IllegalArgumentException("Price, unitValue and unitType cannot be null");
+        }
+        if (milliUnits <= 0) {
+            throw new IllegalArgumentException("Unit value must be positive");
+        }
+
+        long perUnit = divideHalfUp(Math.multiplyExact(cents, PER_UNIT_NUMERATOR), milliUnits);
+
+        if (targetUnit != null && !unitType.equalsIgnoreCase(targetUnit)) {
+            perUnit = convertPerUnit(perUnit, unitType, targetUnit);
+        }
+        return divideHalfUp(perUnit, PER_UNIT_STEPS_PER_CENT);
+    }
+
+    /**
+     * Calculates how much cheaper an alternative is, as a percentage of the original with two decimal
+     * places, rounding HALF_UP to four decimal places of the ratio first.
+     *
+     * @return the savings in hundredths of a percent
+     */
+    public static long savingsBasisPoints(long originalCents, long alternativeCents) {
+        return divideHalfUp(Math.multiplyExact(originalCents - alternativeCents, 10_000L), originalCents);
+    }
+
+    /**
+     * Divides and rounds the quotient HALF_UP, that is half away from zero.
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0 && Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            quotient += (dividend ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    private static long convertPerUnit(long perUnit, String fromUnit, String toUnit) {
+        // Mirrors PriceHelpers.convertUnit, applied to a value with six decimal places
+        switch (fromUnit) {
+            case "kg":
+                if (toUnit.equals("g")) {
+                    return Math.multiplyExact(perUnit, UNIT_FACTOR);
+                }
+                break;
+            case "g":
+                if (toUnit.equals("kg")) {
+                    return divideHalfUp(perUnit, UNIT_FACTOR);
+                }
+                break;
+            case "l":
+                if (toUnit.equals("ml")) {
+                    return Math.multiplyExact(perUnit, UNIT_FACTOR);
+                }
+                break;
+            case "ml":
+                if (toUnit.equals("l")) {
+                    return divideHalfUp(perUnit, UNIT_FACTOR);
+                }
+                break;
+            default:
+                break;
+        }
+
+        throw new IllegalArgumentException(
+                String.format("Unsupported unit conversion: from %s to %s", fromUnit, toUnit)
+        );
+    }
+}
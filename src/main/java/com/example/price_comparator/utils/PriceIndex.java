@@ -0,0 +1,68 @@
+package com.example.price_comparator.utils;
+
+import com.example.price_comparator.dto.PriceDTO;
+import com.example.price_comparator.dto.projection.PriceEntryView;
+import com.example.price_comparator.model.Price;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hash index from (product ID, store ID, entry date) to the price recorded for that key.
+ *
+ * Built once per request from a single query, it turns the per-discount price lookup
+ * into a constant-time map access. Each price is converted to a PriceDTO once, at build time,
+ * and shared by every discount that references it.
+ */
+public final class PriceIndex {
+
+    private record Key(String productId, Long storeId, LocalDate entryDate) {
+    }
+
+    private final Map<Key, PriceDTO> prices;
+
+    private PriceIndex(Map<Key, PriceDTO> prices) {
+        this.prices = prices;
+    }
+
+    /**
+     * Builds an index from price projections.
+     *
+     * @param views the price projections to index
+     * @return the index
+     */
+    public static PriceIndex of(Collection<PriceEntryView> views) {
+        Map<Key, PriceDTO> prices = new HashMap<>(views.size() * 2);
+        for (PriceEntryView view : views) {
+            prices.putIfAbsent(new Key(view.getProductId(), view.getStoreId(), view.getEntryDate()),
+                    new PriceDTO(view.getPrice(), view.getCurrency()));
+        }
+        return new PriceIndex(prices);
+    }
+
+    /**
+     * Builds an index from price entities, whose product and store must be initialized.
+     *
+     * @param entities the prices to index
+     * @return the index
+     */
+    public static PriceIndex ofPrices(Collection<Price> entities) {
+        Map<Key, PriceDTO> prices = new HashMap<>(entities.size() * 2);
+        for (Price price : entities) {
+            prices.putIfAbsent(new Key(price.getProduct().getId(), price.getStore().getId(), price.getEntryDate()),
+                    new PriceDTO(price.getPrice(), price.getCurrency()));
+        }
+        return new PriceIndex(prices);
+    }
+
+    /**
+     * Looks up the price of a product in a store on an exact entry date.
+     *
+     * @return the price, or null if none was recorded for that key
+     */
+    public PriceDTO find(String productId, Long storeId, LocalDate entryDate) {
+        return prices.get(new Key(productId, storeId, entryDate));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.price_comparator;
+
+import com.example.price_comparator.config.CatalogVersionInterceptor;
+import com.example.price_comparator.monitoring.QueryBudget;
+import com.example.price_comparator.monitoring.QueryRecording;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Starts the whole application in the 'embedded' profile, on the bundled CSV files and without
+ * PostgreSQL, and checks that the read endpoints serve the loaded data.
+ */
+@SpringBootTest(properties = "price-comparator.alerts.journal.dir=target/embedded-profile-tests/alerts")
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+class EmbeddedProfileTests {
+
+    @Autowired private MockMvc mockMvc;
+
+    @Test
+    void servesBasketFromCsvData() throws Exception {
+        mockMvc.perform(post("/api/basket/optimize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"P001\", \"P002\"]"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(CatalogVersionInterceptor.VERSION_HEADER))
+                .andExpect(jsonPath("$[*].items[*].productId", hasSize(2)));
+    }
+
+    @Test
+    void servesActiveDiscountsFromCsvData() throws Exception {
+        mockMvc.perform(get("/api/discounts/active").param("date", "2025-05-03"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", not(hasSize(0))));
+    }
+
+    @Test
+    void servesPriceHistoryComparisonAsynchronously() throws Exception {
+        // One query for the prices and one for the discounts, run on the bulkhead's thread but counted
+        // towards the request
+        QueryRecording comparison = QueryBudget.atMost(2).withoutRepeats().verify(() -> {
+            MvcResult started = mockMvc.perform(get("/api/price-history/compare")
+                            .param("productIds", "P001,P002")
+                            .param("startDate", "2025-05-01")
+                            .param("endDate", "2025-05-08"))
+                    .andExpect(request().asyncStarted())
+                    .andExpect(header().exists(CatalogVersionInterceptor.VERSION_HEADER))
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(2)));
+        });
+        assertThat(comparison.statementCount()).isPositive();
+    }
+
+    @Test
+    void readEndpointsStayWithinQueryBudgets() throws Exception {
+        // Served from the catalog snapshot
+        QueryBudget.none().verify(() -> mockMvc.perform(post("/api/basket/optimize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"P001\", \"P002\"]"))
+                .andExpect(status().isOk()));
+        QueryBudget.none().verify(() -> mockMvc.perform(get("/api/product-recommendations/P001/cheaper-alternatives")
+                        .param("date", "2025-05-03"))
+                .andExpect(status().isOk()));
+
+        // One page query, then the prices of the whole page in batches
+        QueryRecording products = QueryBudget.atMost(3).withoutRepeats().verify(() -> mockMvc.perform(get("/api/products")
+                        .param("limit", "50"))
+                .andExpect(status().isOk()));
+        assertThat(products.statementCount()).isPositive();
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.price_comparator.catalog;
+
+import com.example.price_comparator.model.enums.Currency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the lookups of CatalogReadModel, with prices on and off heap, against a plain scan of the
+ * rows it was built from.
+ */
+class CatalogReadModelTests {
+
+    private static final int PRODUCTS = 50;
+    private static final int STORES = 5;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 4, 1);
+
+    private record PriceRow(String productId, long storeId, LocalDate date, BigDecimal price) {
+    }
+
+    private record DiscountRow(String productId, long storeId, LocalDate from, LocalDate to, BigDecimal percentage) {
+    }
+
+    @TempDir
+    private Path directory;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void lookupsMatchScanOfInput(boolean offHeap) {
+        Random random = new Random(20250501);
+        CatalogReadModel.Builder builder = CatalogReadModel.builder().offHeapPrices(offHeap ? directory : null);
+        for (long store = 1; store <= STORES; store++) {
+            builder.addStore(store, "Store " + store);
+        }
+        for (int product = 0; product < PRODUCTS; product++) {
+            builder.addProduct("P" + product, "Product " + product, (long) product % 3, "Category " + product % 3,
+                    (long) product % 7, "Brand " + product % 7, new BigDecimal("0.5"), "kg");
+        }
+
+        List<PriceRow> prices = new ArrayList<>();
+        List<DiscountRow> discounts = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String productId = "P" + random.nextInt(PRODUCTS);
+            long storeId = 1 + random.nextInt(STORES);
+            LocalDate date = FIRST_DAY.plusDays(random.nextInt(60));
+            if (prices.stream().noneMatch(p -> p.productId().equals(productId) && p.storeId() == storeId && p.date().equals(date))) {
+                PriceRow price = new PriceRow(productId, storeId, date, BigDecimal.valueOf(1 + random.nextInt(10_000), 2));
+                prices.add(price);
+                builder.addPrice(price.productId(), price.storeId(), price.date(), price.price(), Currency.RON);
+            }
+            if (i % 4 == 0) {
+                DiscountRow discount = new DiscountRow(productId, storeId, date, date.plusDays(random.nextInt(10)),
+                        BigDecimal.valueOf(random.nextInt(5_000), 2));
+                discounts.add(discount);
+                builder.addDiscount(i, discount.productId(), discount.storeId(), discount.from(), discount.to(),
+                        discount.from(), discount.percentage());
+            }
+        }
+        CatalogReadModel catalog = builder.build();
+
+        for (int product = 0; product < PRODUCTS; product++) {
+            for (long storeId = 1; storeId <= STORES; storeId++) {
+                for (int offset = -1; offset <= 61; offset++) {
+                    String productId = "P" + product;
+                    long store = storeId;
+                    LocalDate date = FIRST_DAY.plusDays(offset);
+                    int productCode = catalog.productCode(productId);
+                    int storeCode = catalog.storeCode(storeId);
+                    int day = CatalogReadModel.toDay(date);
+
+                    long expectedPrice = prices.stream()
+                            .filter(p -> p.productId().equals(productId) && p.storeId() == store && !p.date().isAfter(date))
+                            .max((a, b) -> a.date().compareTo(b.date()))
+                            .map(p -> p.price().movePointRight(2).longValueExact())
+                            .orElse(CatalogReadModel.NO_PRICE);
+                    assertThat(catalog.currentPriceCents(productCode, storeCode, day))
+                            .as("price of %s in %d on %s", productId, storeId, date)
+                            .isEqualTo(expectedPrice);
+                    assertThat(catalog.priceRowOn(productCode, storeCode, day) != CatalogReadModel.NOT_FOUND)
+                            .as("price of %s in %d entered on %s", productId, storeId, date)
+                            .isEqualTo(prices.stream().anyMatch(p -> p.productId().equals(productId)
+                                    && p.storeId() == store && p.date().equals(date)));
+
+                    BigDecimal expectedDiscount = discounts.stream()
+                            .filter(d -> d.productId().equals(productId) && d.storeId() == store
+                                    && !date.isBefore(d.from()) && !date.isAfter(d.to()))
+                            .findFirst()
+                            .map(DiscountRow::percentage)
+                            .orElse(null);
+                    int discount = catalog.activeDiscountRow(productCode, storeCode, day);
+                    assertThat(discount == CatalogReadModel.NOT_FOUND ? null : catalog.discountPercentage(discount))
+                            .as("discount of %s in %d on %s", productId, storeId, date)
+                            .isEqualTo(expectedDiscount);
+                }
+            }
+        }
+    }
+
+    @Test
+    void groupsPricesIntoSeriesPerStore() {
+        CatalogReadModel catalog = CatalogReadModel.builder()
+                .addStore(10L, "Lidl")
+                .addStore(20L, "Kaufland")
+                .addProduct("P001", "lapte", 1L, "lactate", 1L, "Zuzu", BigDecimal.ONE, "l")
+                .addProduct("P002", "iaurt", 1L, "lactate", 2L, "Napolact", new BigDecimal("0.4"), "kg")
+                .addProduct("P003", "paine", 2L, "panificatie", 3L, "Vel Pitar", BigDecimal.ONE, "buc")
+                .addPrice("P003", 20L, FIRST_DAY.plusDays(1), new BigDecimal("4.50"), Currency.RON)
+                .addPrice("P003", 10L, FIRST_DAY, new BigDecimal("4.10"), Currency.RON)
+                .addPrice("P003", 20L, FIRST_DAY, new BigDecimal("4.20"), Currency.EUR)
+                .addPrice("P001", 20L, FIRST_DAY, new BigDecimal("9.99"), Currency.RON)
+                .build();
+
+        assertThat(catalog.priceCount()).isEqualTo(4);
+        assertThat(catalog.priceSeriesEnd(0) - catalog.priceSeriesStart(0)).isEqualTo(1);
+        assertThat(catalog.priceSeriesStart(1)).isEqualTo(catalog.priceSeriesEnd(1));
+        int lidl = catalog.priceSeriesStart(2);
+        int kaufland = lidl + 1;
+        assertThat(catalog.priceSeriesEnd(2)).isEqualTo(kaufland + 1);
+        assertThat(catalog.storeId(catalog.priceSeriesStore(lidl))).isEqualTo(10L);
+        assertThat(catalog.storeId(catalog.priceSeriesStore(kaufland))).isEqualTo(20L);
+        assertThat(catalog.priceSeriesEndRow(kaufland) - catalog.priceSeriesFirstRow(kaufland)).isEqualTo(2);
+        assertThat(catalog.priceCurrency(catalog.priceSeriesFirstRow(kaufland))).isEqualTo(Currency.EUR);
+        assertThat(catalog.priceCents(catalog.priceSeriesFirstRow(kaufland) + 1)).isEqualTo(450);
+        assertThat(catalog.priceEnd(2)).isEqualTo(catalog.priceCount());
+    }
+
+    @Test
+    void internsIdsToDenseCodes() {
+        CatalogReadModel catalog = CatalogReadModel.builder()
+                .addStore(10L, "Lidl")
+                .addStore(20L, "Kaufland")
+                .addProduct("P002", "lapte", 1L, "lactate", 1L, "Zuzu", BigDecimal.ONE, "l")
+                .addProduct("P001", "iaurt", 1L, "lactate", 2L, "Napolact", new BigDecimal("0.4"), "kg")
+                .build();
+
+        assertThat(catalog.productCode("P002")).isZero();
+        assertThat(catalog.productCode("P001")).isEqualTo(1);
+        assertThat(catalog.productCode("P999")).isEqualTo(CatalogReadModel.NOT_FOUND);
+        assertThat(catalog.storeId(catalog.storeCode(20L))).isEqualTo(20L);
+        assertThat(catalog.productCategory(0)).isEqualTo(catalog.productCategory(1));
+        assertThat(catalog.brandName(catalog.productBrand(1))).isEqualTo("Napolact");
+        assertThat(catalog.packageMilliUnits(1)).isEqualTo(400);
+        assertThat(catalog.priceStart(1)).isEqualTo(catalog.priceEnd(1));
+        assertThatThrownBy(() -> CatalogReadModel.builder().addPrice("P001", 10L, FIRST_DAY, BigDecimal.ONE, Currency.RON))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.price_comparator.catalog;
+
+import com.example.price_comparator.model.enums.Currency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies that a catalog snapshot read back from its file, with prices on or off heap, answers every
+ * lookup like the original, and that damaged files are rejected.
+ */
+class CatalogSnapshotFileTests {
+
+    private static final int PRODUCTS = 40;
+    private static final int STORES = 4;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 4, 1);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void roundTripsAllColumns() throws IOException {
+        CatalogSnapshot snapshot = new CatalogSnapshot(7, Instant.parse("2025-05-08T10:15:30.123456789Z"), randomCatalog(1_000),
+                new CatalogWatermark(812, 800, 95, 90, PRODUCTS, STORES));
+        Path file = directory.resolve("catalog.snapshot");
+
+        CatalogSnapshotFile.write(snapshot, file);
+        CatalogSnapshot restored = CatalogSnapshotFile.read(file);
+
+        assertThat(restored.version()).isEqualTo(7);
+        assertThat(restored.builtAt()).isEqualTo(snapshot.builtAt());
+        assertThat(restored.watermark()).isEqualTo(snapshot.watermark());
+        assertSameCatalog(restored.catalog(), snapshot.catalog());
+        assertSameCatalog(CatalogSnapshotFile.read(file, directory.resolve("prices")).catalog(), snapshot.catalog());
+    }
+
+    @Test
+    void rejectsCorruptAndTruncatedFiles() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.write(new CatalogSnapshot(1, Instant.now(), randomCatalog(1_000),
+                new CatalogWatermark(0, 0, 0, 0, PRODUCTS, STORES)), file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] corrupt = bytes.clone();
+        corrupt[corrupt.length / 2] ^= 1;
+        Files.write(file, corrupt);
+        assertThatThrownBy(() -> CatalogSnapshotFile.read(file)).isInstanceOf(IllegalStateException.class);
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThatThrownBy(() -> CatalogSnapshotFile.read(file)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void readsFilesLargerThanTheReadBuffer() throws IOException {
+        // About 3 MB of price rows and discounts, so every column is refilled across buffer boundaries
+        CatalogSnapshot snapshot = new CatalogSnapshot(2, Instant.now(), randomCatalog(150_000),
+                new CatalogWatermark(150_000, 150_000, 50_000, 50_000, PRODUCTS, STORES));
+        Path file = directory.resolve("catalog.snapshot");
+
+        CatalogSnapshotFile.write(snapshot, file);
+
+        assertThat(Files.size(file)).isGreaterThan(2 * 1024 * 1024);
+        assertSameCatalog(CatalogSnapshotFile.read(file, directory.resolve("prices")).catalog(), snapshot.catalog());
+    }
+
+    private static void assertSameCatalog(CatalogReadModel actual, CatalogReadModel expected) {
+        assertThat(actual.storeCount()).isEqualTo(expected.storeCount());
+        for (int store = 0; store < expected.storeCount(); store++) {
+            assertThat(actual.storeCode(expected.storeId(store))).isEqualTo(store);
+            assertThat(actual.storeName(store)).isEqualTo(expected.storeName(store));
+        }
+        assertThat(actual.productCount()).isEqualTo(expected.productCount());
+        for (int product = 0; product < expected.productCount(); product++) {
+            assertThat(actual.productCode(expected.productId(product))).isEqualTo(product);
+            assertThat(actual.productName(product)).isEqualTo(expected.productName(product));
+            assertThat(actual.categoryId(actual.productCategory(product))).isEqualTo(expected.categoryId(expected.productCategory(product)));
+            assertThat(actual.categoryName(actual.productCategory(product))).isEqualTo(expected.categoryName(expected.productCategory(product)));
+            assertThat(actual.brandId(actual.productBrand(product))).isEqualTo(expected.brandId(expected.productBrand(product)));
+            assertThat(actual.brandName(actual.productBrand(product))).isEqualTo(expected.brandName(expected.productBrand(product)));
+            assertThat(actual.packageQuantity(product)).isEqualTo(expected.packageQuantity(product));
+            assertThat(actual.packageMilliUnits(product)).isEqualTo(expected.packageMilliUnits(product));
+            assertThat(actual.packageUnit(product)).isEqualTo(expected.packageUnit(product));
+
+            assertThat(actual.priceStart(product)).isEqualTo(expected.priceStart(product));
+            assertThat(actual.priceEnd(product)).isEqualTo(expected.priceEnd(product));
+            for (int row = expected.priceStart(product); row < expected.priceEnd(product); row++) {
+                assertThat(actual.priceStore(row)).isEqualTo(expected.priceStore(row));
+                assertThat(actual.priceDay(row)).isEqualTo(expected.priceDay(row));
+                assertThat(actual.priceCents(row)).isEqualTo(expected.priceCents(row));
+                assertThat(actual.priceCurrency(row)).isEqualTo(expected.priceCurrency(row));
+            }
+
+            assertThat(actual.discountStart(product)).isEqualTo(expected.discountStart(product));
+            assertThat(actual.discountEnd(product)).isEqualTo(expected.discountEnd(product));
+        }
+        assertThat(actual.discountCount()).isEqualTo(expected.discountCount());
+        for (int row = 0; row < expected.discountCount(); row++) {
+            assertThat(actual.discountId(row)).isEqualTo(expected.discountId(row));
+            assertThat(actual.discountProduct(row)).isEqualTo(expected.discountProduct(row));
+            assertThat(actual.discountStore(row)).isEqualTo(expected.discountStore(row));
+            assertThat(actual.discountFromDay(row)).isEqualTo(expected.discountFromDay(row));
+            assertThat(actual.discountToDay(row)).isEqualTo(expected.discountToDay(row));
+            assertThat(actual.discountEntryDay(row)).isEqualTo(expected.discountEntryDay(row));
+            assertThat(actual.discountPercentage(row)).isEqualTo(expected.discountPercentage(row));
+            assertThat(actual.discountPercent(row)).isEqualTo(expected.discountPercent(row));
+        }
+    }
+
+    private static CatalogReadModel randomCatalog(int priceCount) {
+        Random random = new Random(20250508);
+        CatalogReadModel.Builder builder = CatalogReadModel.builder();
+        for (long store = 1; store <= STORES; store++) {
+            builder.addStore(store * 10, "Store " + store);
+        }
+        for (int product = 0; product < PRODUCTS; product++) {
+            builder.addProduct("P" + product, "Produs " + product + " ăîșț", (long) product % 3, "Category " + product % 3,
+                    (long) product % 7, "Brand " + product % 7, BigDecimal.valueOf(1 + random.nextInt(2_000), 3),
+                    product % 2 == 0 ? "kg" : "l");
+        }
+        for (int i = 0; i < priceCount; i++) {
+            String productId = "P" + random.nextInt(PRODUCTS);
+            long storeId = 10L * (1 + random.nextInt(STORES));
+            LocalDate date = FIRST_DAY.plusDays(i);
+            builder.addPrice(productId, storeId, date, BigDecimal.valueOf(1 + random.nextInt(10_000), 2),
+                    i % 5 == 0 ? Currency.EUR : Currency.RON);
+            if (i % 3 == 0) {
+                builder.addDiscount(i, productId, storeId, date, date.plusDays(random.nextInt(10)), date,
+                        BigDecimal.valueOf(random.nextInt(5_000), 2));
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.price_comparator.catalog;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that price records and series stay addressable across segment boundaries, on heap and
+ * in memory-mapped files, using segments of four entries.
+ */
+class PriceStoreTests {
+
+    private static final int PRODUCTS = 5;
+    private static final int STORES = 3;
+    private static final int DAYS = 7;
+
+    @TempDir
+    private Path directory;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void readsRowsAndSeriesAcrossSegments(boolean offHeap) throws IOException {
+        // Product 1 has no prices; every other product has DAYS prices in every store
+        int seriesCount = (PRODUCTS - 1) * STORES;
+        PriceStore.Writer writer = PriceStore.writer(PRODUCTS, seriesCount, seriesCount * DAYS,
+                offHeap ? directory : null, 2);
+        for (int product = 0; product < PRODUCTS; product++) {
+            for (int store = 0; product != 1 && store < STORES; store++) {
+                for (int day = 0; day < DAYS; day++) {
+                    writer.add(product, store, 100 + 2 * day, product * 1_000L + store * 100L + day, store % 2);
+                }
+            }
+        }
+        PriceStore prices = writer.finish();
+
+        assertThat(prices.rowCount()).isEqualTo(seriesCount * DAYS);
+        assertThat(prices.seriesStart(1)).isEqualTo(prices.seriesEnd(1));
+        for (int product = 0; product < PRODUCTS; product++) {
+            for (int store = 0; product != 1 && store < STORES; store++) {
+                int series = prices.findSeries(product, store);
+                assertThat(prices.seriesStore(series)).isEqualTo(store);
+                assertThat(prices.seriesEndRow(series) - prices.seriesFirstRow(series)).isEqualTo(DAYS);
+                assertThat(prices.latestRow(series, 99)).isEqualTo(IdDictionary.NOT_FOUND);
+                for (int day = 0; day < DAYS; day++) {
+                    int row = prices.latestRow(series, 101 + 2 * day);
+                    assertThat(prices.product(row)).isEqualTo(product);
+                    assertThat(prices.store(row)).isEqualTo(store);
+                    assertThat(prices.day(row)).isEqualTo(100 + 2 * day);
+                    assertThat(prices.cents(row)).isEqualTo(product * 1_000L + store * 100L + day);
+                    assertThat(prices.currency(row)).isEqualTo(store % 2);
+                }
+            }
+            assertThat(prices.findSeries(product, STORES)).isEqualTo(IdDictionary.NOT_FOUND);
+        }
+        // The mapped file is deleted as soon as it is mapped
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.price_comparator.controller;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+import com.example.price_comparator.dto.alert.PriceAlertResultDTO;
+import com.example.price_comparator.model.Brand;
+import com.example.price_comparator.model.Category;
+import com.example.price_comparator.model.Product;
+import com.example.price_comparator.model.Store;
+import com.example.price_comparator.service.PriceAlertJournal;
+import com.example.price_comparator.service.PriceAlertService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies the per-alert results of the bulk alert registration endpoint.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({PriceAlertService.class, PriceAlertJournal.class})
+class PriceAlertControllerTests {
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private PriceAlertService alertService;
+    @Autowired private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+    private Store lidl;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("price-alerts").toString();
+        registry.add("price-comparator.alerts.journal.dir", () -> directory);
+    }
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new PriceAlertController(alertService, objectMapper)).build();
+        lidl = persist(new Store("lidl"));
+        persist(new Product("P001", "lapte", persist(new Category("lactate")), persist(new Brand("Zuzu")),
+                BigDecimal.ONE, "l", null));
+        entityManager.flush();
+    }
+
+    @Test
+    void reportsEveryInvalidAlertAtItsPosition() throws Exception {
+        long store = lidl.getId();
+        List<PriceAlertResultDTO> results = postBulk(
+                "{\"productId\":\"P001\",\"storeId\":" + store + ",\"targetPrice\":5}",
+                "{\"storeId\":" + store + ",\"targetPrice\":5}",
+                "{\"productId\":\"P001\",\"targetPrice\":5}",
+                "{\"productId\":\"P999\",\"storeId\":" + store + ",\"targetPrice\":5}",
+                "{\"productId\":\"P001\",\"storeId\":" + (store + 1000) + ",\"targetPrice\":5}",
+                "{\"productId\":\"P001\",\"storeId\":" + store + ",\"targetPrice\":0}",
+                "{\"productId\":\"P001\",\"storeId\":" + store + "}",
+                "{\"productId\":\"P001\",\"storeId\":" + store + ",\"targetPrice\":4.995}",
+                "{\"productId\":\"P001\",\"storeId\":" + store + ",\"targetPrice\":1" + "0".repeat(400) + "}",
+                "{\"productId\":\"P001\",\"storeId\":" + store + ",\"targetPrice\":4.990}");
+
+        assertThat(results).extracting(PriceAlertResultDTO::getIndex).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+        assertThat(results).extracting(PriceAlertResultDTO::isCreated)
+                .containsExactly(true, false, false, false, false, false, false, false, false, true);
+        assertThat(results).extracting(PriceAlertResultDTO::getError).containsExactly(
+                null,
+                "Product ID is required",
+                "Store ID is required",
+                "Product not found",
+                "Store not found",
+                "Target price must be positive",
+                "Target price must be positive",
+                "Target price can have at most 2 decimals",
+                "Target price can be at most 99999999.99",
+                null);
+        assertThat(alertService.getActiveAlerts()).extracting(PriceAlertDTO::getId)
+                .contains(results.get(0).getAlertId());
+    }
+
+    @Test
+    void rejectsChunkWithoutAnyProductOrStoreId() throws Exception {
+        List<PriceAlertResultDTO> results = postBulk("{\"targetPrice\":5}", "{\"targetPrice\":-1}");
+
+        assertThat(results).extracting(PriceAlertResultDTO::getError)
+                .containsExactly("Product ID is required", "Product ID is required");
+    }
+
+    private List<PriceAlertResultDTO> postBulk(String... alerts) throws Exception {
+        String body = mockMvc.perform(post("/api/alerts/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(String.join("\n", alerts)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readerFor(PriceAlertResultDTO.class).<PriceAlertResultDTO>readValues(body).readAll();
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.price_comparator.monitoring;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test helper asserting the number of SQL statements an action runs on the calling thread, e.g. a
+ * MockMvc request:
+ *
+ * <pre>
+ * QueryBudget.atMost(3).withoutRepeats().verify(() -&gt; mockMvc.perform(get("/api/products")));
+ * </pre>
+ */
+public final class QueryBudget {
+
+    private final int maxStatements;
+    private int maxRepeats = Integer.MAX_VALUE;
+
+    private QueryBudget(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    public static QueryBudget atMost(int statements) {
+        return new QueryBudget(statements);
+    }
+
+    public static QueryBudget none() {
+        return new QueryBudget(0);
+    }
+
+    /**
+     * Also fails if any statement runs more than once, which is how N+1 queries show up.
+     */
+    public QueryBudget withoutRepeats() {
+        maxRepeats = 1;
+        return this;
+    }
+
+    /**
+     * Runs the action and fails if it ran more statements than the budget allows.
+     *
+     * @return the recording, for further assertions
+     */
+    public QueryRecording verify(Action action) throws Exception {
+        QueryRecording recording = QueryRecording.start();
+        try {
+            action.run();
+        } finally {
+            recording.close();
+        }
+
+        if (maxRepeats < Integer.MAX_VALUE) {
+            Map<String, Integer> repeated = recording.repeatedStatements(maxRepeats + 1);
+            assertThat(repeated).as("statements run more than %d time(s)", maxRepeats).isEmpty();
+        }
+        assertThat(recording.statementCount()).as("number of SQL statements").isLessThanOrEqualTo(maxStatements);
+        return recording;
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+}
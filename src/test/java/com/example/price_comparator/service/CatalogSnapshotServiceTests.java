@@ -0,0 +1,162 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.catalog.CatalogReadModel;
+import com.example.price_comparator.catalog.CatalogSnapshot;
+import com.example.price_comparator.model.*;
+import com.example.price_comparator.repository.DiscountRepository;
+import com.example.price_comparator.repository.PriceRepository;
+import com.example.price_comparator.repository.ProductRepository;
+import com.example.price_comparator.repository.StoreRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that catalog snapshots are published with increasing versions, that a pinned
+ * snapshot is not affected by snapshots published after it, that a snapshot file behind the
+ * database is rebuilt instead of served, and that replaced off-heap snapshots stay readable.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "price-comparator.catalog.snapshot-file="
+})
+@Import(CatalogSnapshotService.class)
+class CatalogSnapshotServiceTests {
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private CatalogSnapshotService catalogSnapshotService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private StoreRepository storeRepository;
+    @Autowired private PriceRepository priceRepository;
+    @Autowired private DiscountRepository discountRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    void setUp() {
+        // The service outlives the rolled back test data, so start each test from an empty snapshot
+        catalogSnapshotService.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogSnapshotService.unpin();
+    }
+
+    @Test
+    void publishesNewVersionWithIngestedData() {
+        CatalogSnapshot initial = catalogSnapshotService.current();
+        assertThat(initial.catalog().productCount()).isZero();
+
+        addProduct("P001");
+        catalogSnapshotService.refresh();
+
+        CatalogSnapshot refreshed = catalogSnapshotService.current();
+        assertThat(refreshed.version()).isEqualTo(initial.version() + 1);
+        assertThat(refreshed.catalog().productCode("P001")).isNotNegative();
+        assertThat(initial.catalog().productCount()).isZero();
+    }
+
+    @Test
+    void pinnedSnapshotIgnoresLaterVersions() {
+        CatalogSnapshot pinned = catalogSnapshotService.pin();
+
+        addProduct("P001");
+        catalogSnapshotService.refresh();
+
+        assertThat(catalogSnapshotService.current()).isSameAs(pinned);
+        assertThat(catalogSnapshotService.getModel().productCount()).isZero();
+
+        catalogSnapshotService.unpin();
+        assertThat(catalogSnapshotService.current().version()).isGreaterThan(pinned.version());
+        assertThat(catalogSnapshotService.getModel().productCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildsSnapshotFileBehindTheDatabase() {
+        addProduct("P001");
+        CatalogSnapshot written = startWithSnapshotFile().current();
+
+        CatalogSnapshot restored = startWithSnapshotFile().current();
+        assertThat(restored.version()).isEqualTo(written.version());
+        assertThat(restored.watermark()).isEqualTo(written.watermark());
+
+        // Ingested by another node while this one was down
+        addProduct("P002");
+        CatalogSnapshot rebuilt = startWithSnapshotFile().current();
+        assertThat(rebuilt.version()).isEqualTo(written.version() + 1);
+        assertThat(rebuilt.catalog().productCode("P002")).isNotNegative();
+    }
+
+    @Test
+    void keepsReplacedOffHeapSnapshotReadable() {
+        addProduct("P001");
+        CatalogSnapshotService service = newService("", directory.resolve("prices").toString());
+        service.start();
+        try {
+            CatalogSnapshot pinned = service.pin();
+
+            addProduct("P002");
+            service.refresh();
+
+            // Still mapped, since it is still referenced
+            int product = pinned.catalog().productCode("P001");
+            assertThat(pinned.catalog().priceEnd(product) - pinned.catalog().priceStart(product)).isEqualTo(1);
+            service.unpin();
+            CatalogReadModel current = service.getModel();
+            assertThat(current.priceEnd(current.productCode("P002")) - current.priceStart(current.productCode("P002")))
+                    .isEqualTo(1);
+        } finally {
+            service.unpin();
+            service.stop();
+        }
+    }
+
+    private CatalogSnapshotService startWithSnapshotFile() {
+        CatalogSnapshotService service = newService(directory.resolve("catalog.snapshot").toString(), "");
+        service.start();
+        service.stop();
+        return service;
+    }
+
+    private CatalogSnapshotService newService(String snapshotFile, String priceStoreDir) {
+        CatalogSnapshotService service = new CatalogSnapshotService(productRepository, storeRepository, priceRepository,
+                discountRepository, transactionManager);
+        ReflectionTestUtils.setField(service, "snapshotFile", snapshotFile);
+        ReflectionTestUtils.setField(service, "priceStoreDir", priceStoreDir);
+        return service;
+    }
+
+    private void addProduct(String id) {
+        Store store = persist(new Store("store-" + id));
+        Product product = persist(new Product(id, "lapte", persist(new Category("category-" + id)),
+                persist(new Brand("brand-" + id)), BigDecimal.ONE, "l", null));
+        Price price = new Price();
+        price.setProduct(product);
+        price.setStore(store);
+        price.setPrice(BigDecimal.TEN);
+        price.setEntryDate(LocalDate.of(2025, 5, 1));
+        persist(price);
+        entityManager.flush();
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.DiscountDTO;
+import com.example.price_comparator.event.DiscountsIngestedEvent;
+import com.example.price_comparator.model.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the ranking of the daily discount leaderboards built from the catalog snapshot, their
+ * incremental update on ingest and their rebuild from a newer snapshot.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "price-comparator.discounts.leaderboard-size=3",
+        "price-comparator.catalog.snapshot-file="
+})
+@Import({DiscountLeaderboardService.class, DiscountMapperService.class, CatalogSnapshotService.class,
+        SimpleMeterRegistry.class})
+class DiscountLeaderboardServiceTests {
+
+    // The service outlives the rolled back test data, so every test reads its own day
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 3);
+    private static final LocalDate INGEST_DATE = LocalDate.of(2025, 6, 3);
+    private static final LocalDate REBUILD_DATE = LocalDate.of(2025, 7, 3);
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private DiscountLeaderboardService leaderboardService;
+    @Autowired private CatalogSnapshotService catalogSnapshotService;
+
+    private Store lidl;
+    private Store kaufland;
+    private Category category;
+    private Brand brand;
+
+    @BeforeEach
+    void setUp() {
+        lidl = persist(new Store("lidl"));
+        kaufland = persist(new Store("kaufland"));
+        category = persist(new Category("lactate"));
+        brand = persist(new Brand("Zuzu"));
+    }
+
+    @Test
+    void keepsBestDiscountPerProductInDescendingOrder() {
+        Product p1 = addProduct("P001");
+        Product p2 = addProduct("P002");
+        Product p3 = addProduct("P003");
+        Product p4 = addProduct("P004");
+        addDiscount(p1, lidl, 10, DATE);
+        addDiscount(p1, kaufland, 40, DATE);
+        addDiscount(p2, lidl, 30, DATE);
+        addDiscount(p3, lidl, 20, DATE);
+        addDiscount(p4, lidl, 5, DATE);
+        // Not active on the date
+        addDiscount(p4, kaufland, 90, DATE.plusDays(5));
+        refreshSnapshot();
+
+        List<DiscountDTO> top = leaderboardService.getTopDiscounts(DATE, null, null, 10, 0);
+
+        assertThat(top).extracting(d -> d.getProduct().getId()).containsExactly("P001", "P002", "P003");
+        assertThat(top).extracting(DiscountDTO::getPercentage)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal(40), new BigDecimal(30), new BigDecimal(20));
+        assertThat(leaderboardService.getTopDiscounts(DATE, lidl.getId(), null, 10, 0))
+                .extracting(d -> d.getProduct().getId()).containsExactly("P002", "P003", "P001");
+        assertThat(leaderboardService.getTopDiscounts(DATE, null, null, 2, 1))
+                .extracting(d -> d.getProduct().getId()).containsExactly("P002", "P003");
+    }
+
+    @Test
+    void updatesBuiltLeaderboardWithIngestedDiscounts() {
+        Product p1 = addProduct("P001");
+        Product p2 = addProduct("P002");
+        Product p3 = addProduct("P003");
+        Product p4 = addProduct("P004");
+        addDiscount(p1, lidl, 10, INGEST_DATE);
+        addDiscount(p2, lidl, 20, INGEST_DATE);
+        addDiscount(p3, lidl, 30, INGEST_DATE);
+        refreshSnapshot();
+        assertThat(leaderboardService.getTopDiscounts(INGEST_DATE, null, null, 10, 0))
+                .extracting(d -> d.getProduct().getId()).containsExactly("P003", "P002", "P001");
+
+        // A better discount of a ranked product, a new product pushing out the lowest and an inactive one
+        Discount better = addDiscount(p1, kaufland, 50, INGEST_DATE);
+        Discount newcomer = addDiscount(p4, lidl, 25, INGEST_DATE);
+        Discount inactive = addDiscount(p2, kaufland, 99, INGEST_DATE.plusDays(1));
+        entityManager.flush();
+        leaderboardService.onDiscountsIngested(new DiscountsIngestedEvent(List.of(better, newcomer, inactive)));
+
+        assertThat(leaderboardService.getTopDiscounts(INGEST_DATE, null, null, 10, 0))
+                .extracting(d -> d.getProduct().getId()).containsExactly("P001", "P003", "P004");
+        assertThat(leaderboardService.getTopDiscounts(INGEST_DATE, kaufland.getId(), null, 10, 0))
+                .extracting(d -> d.getProduct().getId()).containsExactly("P001");
+    }
+
+    @Test
+    void rebuildsLeaderboardFromNewerSnapshot() {
+        Product p1 = addProduct("P001");
+        Product p2 = addProduct("P002");
+        addDiscount(p1, lidl, 10, REBUILD_DATE);
+        refreshSnapshot();
+        assertThat(leaderboardService.getTopDiscounts(REBUILD_DATE, null, null, 10, 0))
+                .extracting(d -> d.getProduct().getId()).containsExactly("P001");
+
+        // Ingested before the board was built, so only the next snapshot brings it in
+        addDiscount(p2, kaufland, 20, REBUILD_DATE);
+        entityManager.flush();
+        assertThat(leaderboardService.getTopDiscounts(REBUILD_DATE, null, null, 10, 0)).hasSize(1);
+        refreshSnapshot();
+
+        assertThat(leaderboardService.getTopDiscounts(REBUILD_DATE, null, null, 10, 0))
+                .extracting(d -> d.getProduct().getId()).containsExactly("P002", "P001");
+    }
+
+    private void refreshSnapshot() {
+        entityManager.flush();
+        catalogSnapshotService.refresh();
+    }
+
+    private Product addProduct(String id) {
+        return persist(new Product(id, "lapte", category, brand, BigDecimal.ONE, "l", null));
+    }
+
+    private Discount addDiscount(Product product, Store store, int percentage, LocalDate from) {
+        Discount discount = new Discount();
+        discount.setProduct(product);
+        discount.setStore(store);
+        discount.setPercentage(new BigDecimal(percentage));
+        discount.setFromDate(from);
+        discount.setToDate(from.plusDays(3));
+        discount.setEntryDate(from);
+        return persist(discount);
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
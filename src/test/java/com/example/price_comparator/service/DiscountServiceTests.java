@@ -0,0 +1,99 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.CursorPageDTO;
+import com.example.price_comparator.dto.DiscountDTO;
+import com.example.price_comparator.model.*;
+import com.example.price_comparator.utils.PriceHelpers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies the keyset pagination of the discount lists.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "price-comparator.catalog.snapshot-file="
+})
+@Import({CatalogSnapshotService.class, DiscountService.class, DiscountMapperService.class, DiscountLeaderboardService.class,
+        PriceHelpers.class, SimpleMeterRegistry.class})
+class DiscountServiceTests {
+
+    private static final LocalDate ENTRY_DATE = LocalDate.of(2025, 5, 1);
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private DiscountService discountService;
+
+    @Test
+    void pagesThroughEveryDiscountOnceWithDuplicatedPrices() {
+        Store lidl = persist(new Store("lidl"));
+        Store kaufland = persist(new Store("kaufland"));
+        Category category = persist(new Category("lactate"));
+        Brand brand = persist(new Brand("Zuzu"));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Product product = persist(new Product("P00" + i, "lapte", category, brand, BigDecimal.ONE, "l", null));
+            for (Store store : new Store[]{lidl, kaufland}) {
+                addPrice(product, store, "10.00");
+                // The same day ingested twice; the latest row wins
+                addPrice(product, store, "12.00");
+                ids.add(persist(new Discount(null, product, store, BigDecimal.TEN,
+                        ENTRY_DATE, ENTRY_DATE.plusDays(7), ENTRY_DATE)).getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<DiscountDTO> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<DiscountDTO> page = discountService.getDiscountsByEntryDate(ENTRY_DATE, cursor, 3);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(3);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(4);
+        assertThat(all).extracting(DiscountDTO::getId).containsExactlyElementsOf(ids);
+        assertThat(all).allSatisfy(discount -> assertThat(discount.getProduct().getPrice().getPrice())
+                .isEqualByComparingTo("12.00"));
+
+        CursorPageDTO<DiscountDTO> lidlPage = discountService.getDiscountsByStore(lidl.getId(), null, 10);
+        assertThat(lidlPage.getItems()).hasSize(5);
+        assertThat(lidlPage.getNextCursor()).isNull();
+        assertThat(discountService.getDiscountsByStore(lidl.getId() + 1000, null, 10)).isNull();
+    }
+
+    @Test
+    void rejectsInvalidCursorAndLimit() {
+        assertThatThrownBy(() -> discountService.getDiscounts("abc", 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> discountService.getDiscounts(null, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void addPrice(Product product, Store store, String price) {
+        Price entry = new Price();
+        entry.setProduct(product);
+        entry.setStore(store);
+        entry.setPrice(new BigDecimal(price));
+        entry.setEntryDate(ENTRY_DATE);
+        persist(entry);
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
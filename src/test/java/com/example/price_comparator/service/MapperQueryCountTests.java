@@ -0,0 +1,126 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.event.DiscountsIngestedEvent;
+import com.example.price_comparator.model.*;
+import com.example.price_comparator.utils.PriceHelpers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that mapping entity lists to DTOs costs a fixed number of SQL statements,
+ * independent of the number of entities, using Hibernate statistics on an in-memory H2 database.
+ * Covers the paths that still map entities loaded from the database rather than the catalog snapshot.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "price-comparator.catalog.snapshot-file="
+})
+@Import({CatalogSnapshotService.class, DiscountService.class, DiscountMapperService.class, DiscountLeaderboardService.class,
+        ProductService.class, ProductMapperService.class, PriceHelpers.class, SimpleMeterRegistry.class})
+class MapperQueryCountTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 5, 3);
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private DiscountLeaderboardService leaderboardService;
+    @Autowired private ProductService productService;
+    @Autowired private CatalogSnapshotService catalogSnapshotService;
+
+    private Statistics statistics;
+    private Store lidl;
+    private Store kaufland;
+    private int productCount;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        lidl = persist(new Store("lidl"));
+        kaufland = persist(new Store("kaufland"));
+    }
+
+    @Test
+    void leaderboardIngestUsesFixedNumberOfQueries() {
+        addProducts(1);
+        refreshSnapshot();
+        // Ingested discounts are only mapped for the boards already built
+        assertThat(leaderboardService.getTopDiscounts(TODAY, null, null, 100, 0)).hasSize(1);
+
+        List<Discount> smallBatch = addProducts(2);
+        long smallIngest = countStatements(() ->
+                leaderboardService.onDiscountsIngested(new DiscountsIngestedEvent(smallBatch)));
+
+        List<Discount> largeBatch = addProducts(20);
+        long largeIngest = countStatements(() ->
+                leaderboardService.onDiscountsIngested(new DiscountsIngestedEvent(largeBatch)));
+
+        assertThat(leaderboardService.getTopDiscounts(TODAY, null, null, 100, 0)).hasSize(23)
+                .allSatisfy(discount -> assertThat(discount.getProduct().getPrice()).isNotNull());
+        assertThat(largeIngest).isEqualTo(smallIngest).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void productByIdUsesFixedNumberOfQueries() {
+        addProducts(1);
+        long statements = countStatements(() ->
+                assertThat(productService.getProductById("P000").getPrices()).hasSize(2));
+
+        assertThat(statements).isLessThanOrEqualTo(2);
+    }
+
+    private void refreshSnapshot() {
+        // Leaderboards are built from the catalog snapshot, which is rebuilt after ingests
+        entityManager.flush();
+        catalogSnapshotService.refresh();
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Discount> addProducts(int count) {
+        List<Discount> discounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String id = String.format("P%03d", productCount++);
+            Category category = persist(new Category("category-" + id));
+            Brand brand = persist(new Brand("brand-" + id));
+            Product product = persist(new Product(id, "product " + id, category, brand, BigDecimal.ONE, "kg", null));
+
+            for (Store store : new Store[]{lidl, kaufland}) {
+                Price price = new Price();
+                price.setProduct(product);
+                price.setStore(store);
+                price.setPrice(BigDecimal.TEN);
+                price.setEntryDate(TODAY.minusDays(2));
+                persist(price);
+            }
+
+            discounts.add(persist(new Discount(null, product, lidl, BigDecimal.valueOf(15),
+                    TODAY.minusDays(1), TODAY.plusDays(5), TODAY.minusDays(2))));
+        }
+        return discounts;
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceAlertJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversCreatedAlertsWithoutRemovedOnes() {
+        PriceAlertJournal journal = new PriceAlertJournal(directory, 1_000);
+        assertThat(journal.recover()).isEmpty();
+        PriceAlertDTO kept = alert("a1", "P001", 1L, "4.99");
+        journal.appendCreated(kept);
+        journal.appendCreated(alert("a2", "P002", 2L, "10"));
+        journal.appendRemoved(List.of("a2"));
+        journal.close();
+
+        Collection<PriceAlertDTO> recovered = new PriceAlertJournal(directory, 1_000).recover();
+
+        assertThat(recovered).containsExactly(kept);
+    }
+
+    @Test
+    void cutsOffTornRecordAtTheEndOfTheLog() throws IOException {
+        PriceAlertJournal journal = new PriceAlertJournal(directory, 1_000);
+        journal.recover();
+        journal.appendCreated(alert("a1", "P001", 1L, "4.99"));
+        journal.close();
+        Files.write(onlySegment(), new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        PriceAlertJournal reopened = new PriceAlertJournal(directory, 1_000);
+        assertThat(reopened.recover()).extracting(PriceAlertDTO::getId).containsExactly("a1");
+        reopened.appendCreated(alert("a2", "P001", 1L, "3.99"));
+        reopened.close();
+
+        assertThat(new PriceAlertJournal(directory, 1_000).recover())
+                .extracting(PriceAlertDTO::getId)
+                .containsExactly("a1", "a2");
+    }
+
+    @Test
+    void compactionFoldsClosedSegmentsIntoSnapshot() throws IOException {
+        PriceAlertJournal journal = new PriceAlertJournal(directory, 2);
+        journal.recover();
+        journal.appendCreated(List.of(alert("a1", "P001", 1L, "1"), alert("a2", "P001", 1L, "2")));
+        journal.appendRemoved(List.of("a1"));
+        journal.compactIfNeeded();
+        journal.appendCreated(alert("a3", "P002", 1L, "3"));
+        journal.close();
+
+        assertThat(Files.exists(directory.resolve("alerts.snapshot"))).isTrue();
+        assertThat(onlySegment()).isNotNull();
+        assertThat(new PriceAlertJournal(directory, 2).recover())
+                .extracting(PriceAlertDTO::getId)
+                .containsExactly("a2", "a3");
+    }
+
+    @Test
+    void recoversSnapshotFollowedByLog() {
+        PriceAlertJournal journal = new PriceAlertJournal(directory, Long.MAX_VALUE);
+        journal.recover();
+        appendAlerts(journal, 0, 900);
+        journal.compact();
+        appendAlerts(journal, 900, 1_000);
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < 1_000; i += 100) {
+            removed.add("alert-" + i);
+        }
+        journal.appendRemoved(removed);
+        journal.close();
+
+        Collection<PriceAlertDTO> recovered = new PriceAlertJournal(directory, Long.MAX_VALUE).recover();
+
+        assertThat(recovered).hasSize(1_000 - removed.size());
+        assertThat(recovered).extracting(PriceAlertDTO::getId).doesNotContainAnyElementsOf(removed)
+                .contains("alert-1", "alert-899", "alert-999");
+    }
+
+    @Test
+    void recoversTargetPricesOfAnySize() {
+        PriceAlertJournal journal = new PriceAlertJournal(directory, 1_000);
+        journal.recover();
+        // Unscaled values of 2, 8, 129 and 333 bytes; the last two lengths do not fit in a signed byte
+        List<PriceAlertDTO> alerts = List.of(
+                alert("a1", "P001", 1L, "4.99"),
+                alert("a2", "P001", 1L, "-92233720368547758.08"),
+                alert("a3", "P001", 1L, new BigInteger(1023, new Random(1)).setBit(1022) + ".5"),
+                alert("a4", "P001", 1L, "1" + "0".repeat(800)));
+        journal.appendCreated(alerts);
+        journal.close();
+
+        assertThat(new PriceAlertJournal(directory, 1_000).recover()).containsExactlyElementsOf(alerts);
+    }
+
+    private static void appendAlerts(PriceAlertJournal journal, int from, int to) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<PriceAlertDTO> batch = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            batch.add(new PriceAlertDTO("alert-" + i, "P" + (i % 5_000), (long) (i % 20),
+                    BigDecimal.valueOf(100 + i % 5_000, 2), true, createdAt));
+            if (batch.size() == 10_000) {
+                journal.appendCreated(batch);
+                batch.clear();
+            }
+        }
+        journal.appendCreated(batch);
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(path -> path.getFileName().toString().endsWith(".log")).toList();
+            assertThat(segments).hasSize(1);
+            return segments.get(0);
+        }
+    }
+
+    private static PriceAlertDTO alert(String id, String productId, Long storeId, String targetPrice) {
+        return new PriceAlertDTO(id, productId, storeId, new BigDecimal(targetPrice), true,
+                LocalDateTime.of(2025, 5, 8, 12, 30, 15, 123_456_789));
+    }
+}
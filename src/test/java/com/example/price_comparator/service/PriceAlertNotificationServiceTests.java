@@ -0,0 +1,139 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+import com.example.price_comparator.event.PriceAlertsTriggeredEvent;
+import com.example.price_comparator.model.AlertNotification;
+import com.example.price_comparator.model.enums.NotificationStatus;
+import com.example.price_comparator.repository.AlertNotificationRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.client.RestClientAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delivers outbox notifications to a stub webhook served by the JDK HTTP server.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "price-comparator.alerts.webhook.batch-size=2",
+        "price-comparator.alerts.webhook.max-attempts=3",
+        "price-comparator.alerts.webhook.initial-backoff-ms=0",
+        // Deliveries are triggered by the tests
+        "price-comparator.alerts.webhook.poll-interval-ms=3600000"
+})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class,
+        RestClientAutoConfiguration.class})
+@Import(PriceAlertNotificationService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PriceAlertNotificationServiceTests {
+
+    private static final HttpServer webhook = startWebhook();
+    private static final List<String> receivedBodies = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger failuresRemaining = new AtomicInteger();
+
+    @Autowired private PriceAlertNotificationService notificationService;
+    @Autowired private AlertNotificationRepository notificationRepository;
+
+    @DynamicPropertySource
+    static void webhookUrl(DynamicPropertyRegistry registry) {
+        registry.add("price-comparator.alerts.webhook.url",
+                () -> "http://localhost:" + webhook.getAddress().getPort() + "/alerts");
+    }
+
+    @AfterAll
+    static void stopWebhook() {
+        webhook.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository.deleteAll();
+        receivedBodies.clear();
+        failuresRemaining.set(0);
+    }
+
+    @Test
+    void deliversInBatchesAndRetriesFailedBatch() {
+        failuresRemaining.set(1);
+        notificationService.onAlertsTriggered(triggered("a1", "a2", "a3"));
+
+        notificationService.deliverPending();
+        assertThat(receivedBodies).hasSize(2);
+        // Batches are sent concurrently, so the first one to arrive is the one that failed
+        int failedBatchSize = receivedBodies.get(0).contains("a3") ? 1 : 2;
+        assertThat(notificationRepository.findAll())
+                .filteredOn(notification -> notification.getStatus() == NotificationStatus.PENDING)
+                .hasSize(failedBatchSize);
+
+        notificationService.deliverPending();
+        assertThat(notificationRepository.findAll())
+                .allMatch(notification -> notification.getStatus() == NotificationStatus.SENT);
+        assertThat(String.join("", receivedBodies)).contains("\"a1\"", "\"a2\"", "\"a3\"", "\"P001\"");
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        failuresRemaining.set(Integer.MAX_VALUE);
+        notificationService.onAlertsTriggered(triggered("a1"));
+
+        for (int i = 0; i < 5; i++) {
+            notificationService.deliverPending();
+        }
+
+        assertThat(receivedBodies).hasSize(3);
+        AlertNotification notification = notificationRepository.findAll().get(0);
+        assertThat(notification.getStatus()).isEqualTo(NotificationStatus.FAILED);
+        assertThat(notification.getAttempts()).isEqualTo(3);
+        assertThat(notification.getLastError()).contains("503");
+    }
+
+    private static PriceAlertsTriggeredEvent triggered(String... alertIds) {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 5, 8, 9, 0);
+        return new PriceAlertsTriggeredEvent(Arrays.stream(alertIds)
+                .map(id -> new PriceAlertDTO(id, "P001", 1L, new BigDecimal("9.99"), false, createdAt))
+                .toList());
+    }
+
+    private static HttpServer startWebhook() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/alerts", exchange -> {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                boolean fail;
+                synchronized (receivedBodies) {
+                    receivedBodies.add(body);
+                    fail = failuresRemaining.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0;
+                }
+                exchange.sendResponseHeaders(fail ? 503 : 204, -1);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceAlertRegistryTests {
+
+    private static final int THREADS = 200;
+    private static final int ALERTS_PER_THREAD = 500;
+    private static final int PRODUCTS = 50;
+
+    @Test
+    void triggersAlertsAtOrAboveCurrentPrice() {
+        PriceAlertRegistry registry = new PriceAlertRegistry(8);
+        registry.register(alert("a1", "P001", 1L, "5.00"));
+        registry.register(alert("a2", "P001", 1L, "4.00"));
+        registry.register(alert("a3", "P001", 2L, "9.00"));
+
+        List<PriceAlertDTO> triggered = registry.trigger("P001", 1L, new BigDecimal("4.50"));
+
+        assertThat(triggered).extracting(PriceAlertDTO::getId).containsExactly("a1");
+        assertThat(triggered).noneMatch(PriceAlertDTO::isActive);
+        assertThat(registry.activeAlerts()).extracting(PriceAlertDTO::getId).containsExactlyInAnyOrder("a2", "a3");
+    }
+
+    @Test
+    void deactivatedAlertIsNeverTriggered() {
+        PriceAlertRegistry registry = new PriceAlertRegistry(8);
+        registry.register(alert("a1", "P001", 1L, "5.00"));
+
+        assertThat(registry.deactivate("a1")).isTrue();
+        assertThat(registry.deactivate("a1")).isFalse();
+        assertThat(registry.trigger("P001", 1L, BigDecimal.ONE)).isEmpty();
+        assertThat(registry.size()).isZero();
+    }
+
+    /**
+     * Contention benchmark: hundreds of threads concurrently register, deactivate and check alerts
+     * spread over a few products. Every alert must end up either triggered or deactivated exactly once.
+     */
+    @Test
+    void concurrentCreateAndCheckTriggersEachAlertExactlyOnce() throws Exception {
+        PriceAlertRegistry registry = new PriceAlertRegistry(64);
+        Set<String> triggeredIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicateTriggers = new AtomicInteger();
+        AtomicInteger deactivated = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < ALERTS_PER_THREAD; i++) {
+                        String id = thread + "-" + i;
+                        String productId = "P" + random.nextInt(PRODUCTS);
+                        registry.register(alert(id, productId, 1L, "10.00"));
+
+                        if (i % 10 == 0 && registry.deactivate(id)) {
+                            deactivated.incrementAndGet();
+                        }
+                        for (PriceAlertDTO alert : registry.trigger("P" + random.nextInt(PRODUCTS), 1L, BigDecimal.ONE)) {
+                            if (!triggeredIds.add(alert.getId())) {
+                                duplicateTriggers.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+
+            for (int p = 0; p < PRODUCTS; p++) {
+                registry.trigger("P" + p, 1L, BigDecimal.ONE).forEach(alert -> triggeredIds.add(alert.getId()));
+            }
+
+            int operations = THREADS * ALERTS_PER_THREAD;
+            assertThat(duplicateTriggers).hasValue(0);
+            assertThat(triggeredIds.size() + deactivated.get()).isEqualTo(operations);
+            assertThat(registry.size()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static PriceAlertDTO alert(String id, String productId, Long storeId, String targetPrice) {
+        return new PriceAlertDTO(id, productId, storeId, new BigDecimal(targetPrice), true, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.alert.PriceAlertDTO;
+import com.example.price_comparator.event.PriceAlertsTriggeredEvent;
+import com.example.price_comparator.event.PricesIngestedEvent;
+import com.example.price_comparator.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies the evaluation of price alerts against ingested prices and the hand-off of triggered
+ * alerts to the notification outbox.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({PriceAlertService.class, PriceAlertJournal.class, PriceAlertServiceTests.Outbox.class})
+@RecordApplicationEvents
+class PriceAlertServiceTests {
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private PriceAlertService alertService;
+    @Autowired private ApplicationEvents events;
+    @Autowired private Outbox outbox;
+
+    private Store lidl;
+    private Category category;
+    private Brand brand;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("price-alerts").toString();
+        registry.add("price-comparator.alerts.journal.dir", () -> directory);
+    }
+
+    @BeforeEach
+    void setUp() {
+        outbox.failing = false;
+        lidl = persist(new Store("lidl"));
+        category = persist(new Category("lactate"));
+        brand = persist(new Brand("Zuzu"));
+    }
+
+    @Test
+    void ignoresBackFilledPricesOlderThanTheCurrentOne() {
+        Product milk = persist(new Product("P001", "lapte", category, brand, BigDecimal.ONE, "l", null));
+        addPrice(milk, "10.00", LocalDate.of(2025, 5, 5));
+        entityManager.flush();
+        PriceAlertDTO alert = alertService.createAlert("P001", lidl.getId(), new BigDecimal("9.00"));
+
+        Price backFilled = addPrice(milk, "8.00", LocalDate.of(2025, 5, 1));
+        entityManager.flush();
+        alertService.onPricesIngested(new PricesIngestedEvent(List.of(backFilled)));
+
+        assertThat(events.stream(PriceAlertsTriggeredEvent.class)).isEmpty();
+        assertThat(alertService.getActiveAlerts()).extracting(PriceAlertDTO::getId).contains(alert.getId());
+
+        Price current = addPrice(milk, "8.50", LocalDate.of(2025, 5, 6));
+        entityManager.flush();
+        alertService.onPricesIngested(new PricesIngestedEvent(List.of(current)));
+
+        assertThat(events.stream(PriceAlertsTriggeredEvent.class))
+                .flatExtracting(PriceAlertsTriggeredEvent::getAlerts)
+                .extracting(PriceAlertDTO::getId).containsExactly(alert.getId());
+        assertThat(alertService.getActiveAlerts()).extracting(PriceAlertDTO::getId).doesNotContain(alert.getId());
+    }
+
+    @Test
+    void keepsAlertsActiveWhenOutboxWriteFails() {
+        Product yogurt = persist(new Product("P002", "iaurt", category, brand, BigDecimal.ONE, "kg", null));
+        addPrice(yogurt, "4.00", LocalDate.of(2025, 5, 5));
+        entityManager.flush();
+        PriceAlertDTO alert = alertService.createAlert("P002", lidl.getId(), new BigDecimal("5.00"));
+
+        outbox.failing = true;
+        assertThatThrownBy(() -> alertService.checkAlertsForProduct("P002")).isInstanceOf(IllegalStateException.class);
+        assertThat(alertService.getActiveAlerts()).extracting(PriceAlertDTO::getId).contains(alert.getId());
+
+        outbox.failing = false;
+        assertThat(alertService.checkAlertsForProduct("P002")).extracting(PriceAlertDTO::getId)
+                .containsExactly(alert.getId());
+        assertThat(alertService.getActiveAlerts()).extracting(PriceAlertDTO::getId).doesNotContain(alert.getId());
+    }
+
+    private Price addPrice(Product product, String price, LocalDate entryDate) {
+        Price entry = new Price();
+        entry.setProduct(product);
+        entry.setStore(lidl);
+        entry.setPrice(new BigDecimal(price));
+        entry.setEntryDate(entryDate);
+        return persist(entry);
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    /**
+     * Stands in for the notification outbox, failing its writes on demand.
+     */
+    static class Outbox {
+
+        volatile boolean failing;
+
+        @EventListener
+        void onAlertsTriggered(PriceAlertsTriggeredEvent event) {
+            if (failing) {
+                throw new IllegalStateException("Outbox unavailable");
+            }
+        }
+    }
+}
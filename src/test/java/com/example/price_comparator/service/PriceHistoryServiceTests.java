@@ -0,0 +1,128 @@
+package com.example.price_comparator.service;
+
+import com.example.price_comparator.dto.price_history.PriceHistoryComparisonDTO;
+import com.example.price_comparator.dto.price_history.PriceHistoryDTO;
+import com.example.price_comparator.dto.price_history.PriceHistoryStoreDTO;
+import com.example.price_comparator.model.*;
+import com.example.price_comparator.utils.PriceHelpers;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the aligned timelines of the price history comparison: clipping to the date range,
+ * overlapping discounts and stores without a price for part of the range.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "price-comparator.catalog.snapshot-file="
+})
+@Import({PriceHistoryService.class, PriceHelpers.class, CatalogSnapshotService.class})
+class PriceHistoryServiceTests {
+
+    private static final LocalDate START = LocalDate.of(2025, 5, 1);
+    private static final LocalDate END = LocalDate.of(2025, 5, 10);
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private PriceHistoryService priceHistoryService;
+
+    @Test
+    void alignsTimelinesOfSeveralProductsAndStores() {
+        Store lidl = persist(new Store("lidl"));
+        Store kaufland = persist(new Store("kaufland"));
+        Category category = persist(new Category("lactate"));
+        Brand brand = persist(new Brand("Zuzu"));
+        Product milk = persist(new Product("P001", "lapte", category, brand, BigDecimal.ONE, "l", null));
+        Product yogurt = persist(new Product("P002", "iaurt", category, brand, BigDecimal.ONE, "kg", null));
+
+        // Only the latest price before the range applies from its first day
+        addPrice(milk, lidl, "9.50", LocalDate.of(2025, 4, 20));
+        addPrice(milk, lidl, "10.00", LocalDate.of(2025, 4, 28));
+        addPrice(milk, lidl, "8.00", LocalDate.of(2025, 5, 6));
+        // The first discount started earlier, so it wins the day the two overlap
+        addDiscount(milk, lidl, "10", LocalDate.of(2025, 4, 25), LocalDate.of(2025, 5, 2));
+        addDiscount(milk, lidl, "20", LocalDate.of(2025, 5, 2), LocalDate.of(2025, 5, 4));
+        addDiscount(milk, lidl, "50", LocalDate.of(2025, 5, 9), LocalDate.of(2025, 5, 15));
+        // No price on the first days of the range
+        addPrice(milk, kaufland, "12.00", LocalDate.of(2025, 5, 3));
+        // Prices after the range are ignored
+        addPrice(yogurt, lidl, "5.00", LocalDate.of(2025, 4, 1));
+        addPrice(yogurt, lidl, "6.00", LocalDate.of(2025, 5, 11));
+        entityManager.flush();
+        entityManager.clear();
+
+        PriceHistoryComparisonDTO comparison = priceHistoryService.comparePriceHistories(
+                List.of("P002", "P001", "P003", "P001"), START, END);
+
+        assertThat(comparison.getProducts()).extracting(PriceHistoryDTO::getProductId).containsExactly("P002", "P001");
+
+        PriceHistoryDTO milkHistory = comparison.getProducts().get(1);
+        assertThat(milkHistory.getStores()).extracting(PriceHistoryStoreDTO::getStoreName).containsExactly("lidl", "kaufland");
+        assertThat(segments(milkHistory.getStores().get(0))).containsExactly(
+                "2025-05-01..2025-05-02 10.00 -> 9.00",
+                "2025-05-03..2025-05-04 10.00 -> 8.00",
+                "2025-05-05..2025-05-05 10.00 -> 10.00",
+                "2025-05-06..2025-05-08 8.00 -> 8.00",
+                "2025-05-09..2025-05-10 8.00 -> 4.00");
+        assertThat(segments(milkHistory.getStores().get(1))).containsExactly(
+                "2025-05-03..2025-05-10 12.00 -> 12.00");
+
+        PriceHistoryDTO yogurtHistory = comparison.getProducts().get(0);
+        assertThat(yogurtHistory.getStores()).hasSize(1);
+        assertThat(segments(yogurtHistory.getStores().get(0))).containsExactly(
+                "2025-05-01..2025-05-10 5.00 -> 5.00");
+    }
+
+    @Test
+    void returnsNullWithoutPricesInRange() {
+        Store lidl = persist(new Store("lidl"));
+        Product milk = persist(new Product("P001", "lapte", persist(new Category("lactate")), persist(new Brand("Zuzu")),
+                BigDecimal.ONE, "l", null));
+        addPrice(milk, lidl, "10.00", END.plusDays(1));
+        entityManager.flush();
+
+        assertThat(priceHistoryService.comparePriceHistories(List.of("P001"), START, END)).isNull();
+    }
+
+    private static List<String> segments(PriceHistoryStoreDTO store) {
+        return store.getPrices().stream()
+                .map(point -> point.getStartDate() + ".." + point.getEndDate() + " "
+                        + point.getOriginalPrice().setScale(2, RoundingMode.HALF_UP) + " -> "
+                        + point.getFinalPrice().setScale(2, RoundingMode.HALF_UP))
+                .toList();
+    }
+
+    private void addPrice(Product product, Store store, String price, LocalDate entryDate) {
+        Price entry = new Price();
+        entry.setProduct(product);
+        entry.setStore(store);
+        entry.setPrice(new BigDecimal(price));
+        entry.setEntryDate(entryDate);
+        persist(entry);
+    }
+
+    private void addDiscount(Product product, Store store, String percentage, LocalDate from, LocalDate to) {
+        Discount discount = new Discount();
+        discount.setProduct(product);
+        discount.setStore(store);
+        discount.setPercentage(new BigDecimal(percentage));
+        discount.setFromDate(from);
+        discount.setToDate(to);
+        discount.setEntryDate(from);
+        persist(discount);
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
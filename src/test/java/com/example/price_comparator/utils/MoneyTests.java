@@ -0,0 +1,139 @@
+package com.example.price_comparator.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Property tests checking that the fixed-point operations in Money give exactly the results
+ * of the BigDecimal HALF_UP logic they replace, on randomly generated inputs.
+ */
+class MoneyTests {
+
+    private static final int SAMPLES = 200_000;
+    private static final List<String> UNITS = List.of("kg", "g", "l", "ml", "buc", "KG");
+
+    private final PriceHelpers priceHelpers = new PriceHelpers();
+    private final Random random = new Random(20250508);
+
+    @Test
+    void divideHalfUpMatchesBigDecimal() {
+        for (int i = 0; i < SAMPLES; i++) {
+            long dividend = random.nextLong() >> random.nextInt(64);
+            long divisor = random.nextLong() >> random.nextInt(63);
+            if (divisor == 0) {
+                continue;
+            }
+
+            BigDecimal expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP);
+            assertThat(Money.divideHalfUp(dividend, divisor))
+                    .as("%d / %d", dividend, divisor)
+                    .isEqualTo(expected.longValueExact());
+        }
+    }
+
+    @Test
+    void applyDiscountMatchesPriceHelpers() {
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal price = randomPrice();
+            // Percentages with up to two decimals, including out-of-range ones
+            BigDecimal percentage = BigDecimal.valueOf(random.nextInt(15_001) - 2_500, random.nextInt(3));
+
+            BigDecimal expected = priceHelpers.applyDiscount(price, percentage);
+            long actual = Money.applyDiscount(Money.toCents(price), Money.toPercent(percentage));
+
+            assertThat(Money.toBigDecimal(actual))
+                    .as("%s - %s%%", price, percentage)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void pricePerUnitMatchesPriceHelpers() {
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal price = randomPrice();
+            BigDecimal quantity = BigDecimal.valueOf(random.nextInt(5_000_000) - 1_000, random.nextInt(4));
+            String unitType = UNITS.get(random.nextInt(UNITS.size()));
+            String targetUnit = random.nextInt(4) == 0 ? null : UNITS.get(random.nextInt(UNITS.size()));
+
+            String expected = outcome(() -> priceHelpers.calculatePricePerUnit(price, quantity, unitType, targetUnit));
+            String actual = outcome(() -> Money.toBigDecimal(Money.pricePerUnit(
+                    Money.toCents(price), Money.toMilliUnits(quantity), unitType, targetUnit)));
+
+            assertThat(actual)
+                    .as("%s per %s %s in %s", price, quantity, unitType, targetUnit)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void savingsMatchRecommendationLogic() {
+        for (int i = 0; i < SAMPLES; i++) {
+            long original = 1 + random.nextInt(10_000_000);
+            long alternative = random.nextInt((int) original);
+            BigDecimal originalPrice = Money.toBigDecimal(original);
+            BigDecimal alternativePrice = Money.toBigDecimal(alternative);
+
+            BigDecimal expected = originalPrice.subtract(alternativePrice)
+                    .divide(originalPrice, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100))
+                    .setScale(2, RoundingMode.HALF_UP);
+
+            assertThat(BigDecimal.valueOf(Money.savingsBasisPoints(original, alternative), 2))
+                    .as("%s vs %s", originalPrice, alternativePrice)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void convertsAtTheBoundary() {
+        assertThat(Money.toCents(new BigDecimal("12.35"))).isEqualTo(1235);
+        assertThat(Money.toCents(new BigDecimal("-12.35"))).isEqualTo(-1235);
+        assertThat(Money.toCents(new BigDecimal("7"))).isEqualTo(700);
+        assertThatThrownBy(() -> Money.toCents(new BigDecimal("12.345"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.toPercent(new BigDecimal("15.495"))).isInstanceOf(ArithmeticException.class);
+        assertThat(Money.toBigDecimal(1235)).isEqualTo(new BigDecimal("12.35"));
+        assertThat(Money.toMilliUnits(new BigDecimal("1.5"))).isEqualTo(1500);
+        assertThatThrownBy(() -> Money.toMilliUnits(new BigDecimal("0.0001"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.applyDiscount(Long.MAX_VALUE / 10, 0)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void roundsThreeDecimalPricesOnceAtIngest() {
+        BigDecimal ingested = new BigDecimal("10.005");
+        BigDecimal percentage = new BigDecimal("50");
+
+        // Rounded where it is ingested, as the NUMERIC(38,2) column stores it, and never again before the discount
+        BigDecimal stored = Money.round(ingested);
+        long actual = Money.applyDiscount(Money.toCents(stored), Money.toPercent(percentage));
+
+        assertThat(stored).isEqualTo(new BigDecimal("10.01"));
+        assertThat(Money.toBigDecimal(actual)).isEqualTo(new BigDecimal("5.01"))
+                .isEqualTo(priceHelpers.applyDiscount(stored, percentage));
+        assertThatThrownBy(() -> Money.toCents(ingested)).isInstanceOf(ArithmeticException.class);
+    }
+
+    private BigDecimal randomPrice() {
+        // Mostly shop-sized prices, sometimes large ones
+        long cents = random.nextInt(10) == 0 ? random.nextLong(100_000_000_000L) : random.nextInt(100_000);
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Describes a result or an IllegalArgumentException, so failures of both implementations can be compared.
+     */
+    private static String outcome(Supplier<BigDecimal> computation) {
+        try {
+            return computation.get().toPlainString();
+        } catch (IllegalArgumentException e) {
+            return "rejected: " + e.getMessage();
+        }
+    }
+}